@@ -1,7 +1,7 @@
 // src/hooks/useGameHistory.ts
 import { useState, useEffect } from 'react';
 import type { PongGame, ArkanoidScore } from '../types.ts';
-import { authFetch } from '../utils/api.ts';
+import { fetchAllHistory } from '../utils/api.ts';
 
 
 type GameHistory<T> = T[];
@@ -21,7 +21,7 @@ export const useGameHistory = <T extends PongGame | ArkanoidScore>(game: 'pong'
         try {
             const endpoint = game === 'pong' ? '/pong/history' : '/arkanoid/history';
 
-            const res = await authFetch(endpoint, {
+            const all = await fetchAllHistory<T>(endpoint, {
                 // REMOVE: credentials: 'include',
                 headers: {
                     'Cache-Control': 'no-cache, no-store, must-revalidate',
@@ -29,24 +29,17 @@ export const useGameHistory = <T extends PongGame | ArkanoidScore>(game: 'pong'
                     'Expires': '0'
                 }
             });
-            
-            if (!res.ok) {
-                const errorData = await res.json().catch(() => ({}));
-                throw new Error(errorData.message || `Failed to fetch ${game} history`);
-            }
-            
-            const data = await res.json();
-            setHistory(data.history || []);
+            setHistory(all);
 
-            if (game === 'pong' && data.history) {
-                const wins = (data.history as PongGame[]).filter(g => g.winner === 'player').length;
+            if (game === 'pong') {
+                const wins = (all as PongGame[]).filter(g => g.winner === 'player').length;
                 setStats({
                     wins,
-                    total: data.history.length
+                    total: all.length
                 });
-            } else if (game === 'arkanoid' && data.history) {
-                const scores = (data.history as ArkanoidScore[]).map(s => s.score);
-                const levels = (data.history as ArkanoidScore[]).map(s => s.level_reached);
+            } else {
+                const scores = (all as ArkanoidScore[]).map(s => s.score);
+                const levels = (all as ArkanoidScore[]).map(s => s.level_reached);
                 setStats({
                     highScore: scores.length > 0 ? Math.max(...scores) : 0,
                     highestLevel: levels.length > 0 ? Math.max(...levels) : 1
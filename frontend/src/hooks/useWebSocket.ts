@@ -10,6 +10,21 @@ export type ChatMessage = {
     type?: string;
 };
 
+type PresenceDelta = {
+    type: "delta";
+    node: string;
+    seq: number;
+    joined: string[];
+    left: string[];
+};
+
+type PresenceSnapshot = {
+    type: "snapshot";
+    node: string;
+    seq: number;
+    users: string[];
+};
+
 type UseWebSocketOptions = {
     url?: string;
     autoConnect?: boolean;
@@ -29,6 +44,8 @@ export function useWebSocket(options: UseWebSocketOptions = {}) {
 
     const clientRef = useRef<Client | null>(null);
     const reconnectAttemptRef = useRef(0);
+    // Last presence sequence applied per backend node; null until a snapshot arrives
+    const presenceSeqRef = useRef<Map<string, number> | null>(null);
 
     const [isConnected, setIsConnected] = useState(false);
     const [isConnecting, setIsConnecting] = useState(false);
@@ -88,29 +105,56 @@ export function useWebSocket(options: UseWebSocketOptions = {}) {
                     }
                 });
 
-                // Subscribe to online users updates
+                // Subscribe to presence deltas; they apply on top of the last snapshot
                 client.subscribe("/topic/users", (msg: IMessage) => {
-                    console.log("👥 Received online users:", msg.body);
                     try {
-                        const users = JSON.parse(msg.body);
-                        const userList = Array.isArray(users) ? users : [];
-                        console.log("✅ Online users:", userList);
-                        setOnlineUsers(userList);
+                        const delta = JSON.parse(msg.body) as PresenceDelta;
+                        const seqs = presenceSeqRef.current;
+                        if (seqs === null) {
+                            return; // no snapshot yet
+                        }
+                        // Each node numbers its own deltas; the first one seen from another node is its baseline
+                        const lastSeq = seqs.get(delta.node);
+                        if (lastSeq !== undefined && delta.seq <= lastSeq) {
+                            return; // already reflected in the snapshot
+                        }
+                        if (lastSeq !== undefined && delta.seq !== lastSeq + 1) {
+                            console.warn(`👥 Presence gap on ${delta.node} (${lastSeq} → ${delta.seq}), requesting snapshot`);
+                            presenceSeqRef.current = null;
+                            client.publish({ destination: "/app/chat.users", body: "" });
+                            return;
+                        }
+                        seqs.set(delta.node, delta.seq);
+                        setOnlineUsers((prev) => {
+                            const users = new Set(prev);
+                            delta.joined.forEach((user) => users.add(user));
+                            delta.left.forEach((user) => users.delete(user));
+                            return Array.from(users);
+                        });
                     } catch (err) {
-                        console.error("❌ Users parse error:", err);
+                        console.error("❌ Presence delta parse error:", err);
                     }
                 });
 
-                // Subscribe to user-specific queue for initial users list
+                // Subscribe to user-specific queue for full presence snapshots
                 client.subscribe("/user/queue/users", (msg: IMessage) => {
-                    console.log("👥 Received initial users list:", msg.body);
                     try {
-                        const users = JSON.parse(msg.body);
-                        const userList = Array.isArray(users) ? users : [];
-                        console.log("✅ Initial online users:", userList);
-                        setOnlineUsers(userList);
+                        const snapshot = JSON.parse(msg.body) as PresenceSnapshot;
+                        presenceSeqRef.current = new Map([[snapshot.node, snapshot.seq]]);
+                        setOnlineUsers(Array.isArray(snapshot.users) ? snapshot.users : []);
+                        console.log("✅ Online users:", snapshot.users);
+                    } catch (err) {
+                        console.error("❌ Presence snapshot parse error:", err);
+                    }
+                });
+
+                // Subscribe to notices about our own messages, e.g. ones the blocklist rejected
+                client.subscribe("/user/queue/errors", (msg: IMessage) => {
+                    try {
+                        const notice = JSON.parse(msg.body) as ChatMessage;
+                        setError(notice.content);
                     } catch (err) {
-                        console.error("❌ Initial users parse error:", err);
+                        console.error("❌ Error notice parse error:", err);
                     }
                 });
 
@@ -125,6 +169,7 @@ export function useWebSocket(options: UseWebSocketOptions = {}) {
                 setIsConnected(false);
                 setIsConnecting(false);
                 setOnlineUsers([]); // Clear online users on disconnect
+                presenceSeqRef.current = null;
 
                 const attempt = reconnectAttemptRef.current;
                 const delay = Math.min(30000, 1000 * Math.pow(2, attempt));
@@ -155,6 +200,7 @@ export function useWebSocket(options: UseWebSocketOptions = {}) {
         setIsConnected(false);
         setIsConnecting(false);
         setOnlineUsers([]);
+        presenceSeqRef.current = null;
         clientRef.current?.deactivate();
         clientRef.current = null;
     }, []);
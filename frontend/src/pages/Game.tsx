@@ -3,7 +3,7 @@ import { Pong } from "./pong.ts";
 import { useNavigate } from "react-router-dom";
 import { useToasts } from '../context/ToastContext.tsx';
 import { usePlayerData } from '../context/PlayerDataContext.tsx';
-import { authFetch } from '../utils/api.ts';
+import { authFetch, fetchAllHistory } from '../utils/api.ts';
 
 export default function Game() {
   const canvasRef = useRef<HTMLCanvasElement | null>(null);
@@ -165,17 +165,12 @@ export default function Game() {
 
   const fetchHistory = async () => {
     try {
-        const response = await authFetch('/pong/history', {
+      const all = await fetchAllHistory<typeof history[number]>('/pong/history', {
         method: 'GET',
       });
 
-      if (!response.ok) {
-        throw new Error(`HTTP error! status: ${response.status}`);
-      }
-
-      const data = await response.json();
-      console.log('🎮 Pong Score History:', data.history);
-      setHistory(data.history);
+      console.log('🎮 Pong Score History:', all);
+      setHistory(all);
     } catch (err) {
       console.error('Failed to load Pong history:', err);
     }
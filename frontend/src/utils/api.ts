@@ -45,3 +45,25 @@ export async function authFetch(endpoint: string, options: AuthFetchOptions = {}
         credentials: 'omit'
     });
 }
+
+// History endpoints return one page at a time; follow nextCursor until every match is loaded
+export async function fetchAllHistory<T>(endpoint: string, options: AuthFetchOptions = {}): Promise<T[]> {
+    const history: T[] = [];
+    let cursor: string | null = null;
+
+    do {
+        const query = cursor ? `?size=100&cursor=${encodeURIComponent(cursor)}` : '?size=100';
+        const res = await authFetch(`${endpoint}${query}`, options);
+
+        if (!res.ok) {
+            const errorData = await res.json().catch(() => ({}));
+            throw new Error(errorData.message || `HTTP error! status: ${res.status}`);
+        }
+
+        const data = await res.json();
+        history.push(...(data.history || []));
+        cursor = data.nextCursor || null;
+    } while (cursor);
+
+    return history;
+}
@@ -4,6 +4,7 @@ import com.transcendence.auth.dto.AuthResponse;
 import com.transcendence.auth.dto.LoginRequest;
 import com.transcendence.auth.dto.RegisterRequest;
 import com.transcendence.entity.User;
+import com.transcendence.security.details.AuthenticatedUser;
 import com.transcendence.security.jwt.JwtTokenProvider;
 import com.transcendence.user.UserRepository;
 import jakarta.validation.Valid;
@@ -13,6 +14,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -41,9 +43,16 @@ public class AuthController {
             User user = authService.registerUser(registerRequest);
 
             // 2. Create the Authentication object manually for token generation
-            Authentication authentication = new UsernamePasswordAuthenticationToken(
+            AuthenticatedUser principal = new AuthenticatedUser(
+                    user.getId(),
                     user.getUsername(),
-                    null
+                    null,
+                    Collections.emptyList()
+            );
+            Authentication authentication = new UsernamePasswordAuthenticationToken(
+                    principal,
+                    null,
+                    principal.getAuthorities()
             );
 
             // 3. Generate JWT
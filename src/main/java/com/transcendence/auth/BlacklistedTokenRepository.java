@@ -1,9 +1,13 @@
 package com.transcendence.auth;
 
 import com.transcendence.entity.BlacklistedToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, String> {
@@ -11,8 +15,9 @@ public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedTok
 
     boolean existsByToken(String token);
 
-    // TODO: Implement scheduled cleanup service to automatically remove expired tokens
-    //  This will prevent database bloat by periodically deleting tokens past their expiry date
-    //  Consider using @Scheduled annotation with cron expression
-    void deleteByExpiryDateBefore(LocalDateTime dateTime);
+    List<BlacklistedToken> findByExpiryDateAfter(LocalDateTime dateTime);
+
+    // Used by TokenBlacklistJanitor to delete expired rows in bounded batches
+    @Query("SELECT b.token FROM BlacklistedToken b WHERE b.expiryDate < :cutoff")
+    List<String> findExpiredTokens(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
 }
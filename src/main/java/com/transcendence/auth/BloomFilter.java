@@ -0,0 +1,65 @@
+package com.transcendence.auth;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over SHA-256 token digests.
+ * The digest is already uniformly distributed, so its first two longs feed the
+ * double-hashing scheme directly instead of hashing again.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+
+    private BloomFilter(int numBits, int numHashes) {
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.bits = new AtomicLongArray((numBits + 63) >>> 6);
+    }
+
+    static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int numBits = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+
+        return new BloomFilter(numBits, numHashes);
+    }
+
+    void put(byte[] digest) {
+        long h1 = ByteBuffer.wrap(digest).getLong(0);
+        long h2 = ByteBuffer.wrap(digest).getLong(8);
+
+        for (int i = 0; i < numHashes; i++) {
+            int index = (int) Math.floorMod(h1 + i * h2, (long) numBits);
+            long mask = 1L << index;
+            bits.getAndAccumulate(index >>> 6, mask, (current, bit) -> current | bit);
+        }
+    }
+
+    boolean mightContain(byte[] digest) {
+        long h1 = ByteBuffer.wrap(digest).getLong(0);
+        long h2 = ByteBuffer.wrap(digest).getLong(8);
+
+        for (int i = 0; i < numHashes; i++) {
+            int index = (int) Math.floorMod(h1 + i * h2, (long) numBits);
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int bitSize() {
+        return numBits;
+    }
+
+    int hashCount() {
+        return numHashes;
+    }
+}
@@ -1,7 +1,5 @@
 package com.transcendence.auth;
 
-
-import com.transcendence.entity.BlacklistedToken;
 import com.transcendence.security.jwt.JwtTokenProvider;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
@@ -15,12 +13,12 @@ import java.time.LocalDateTime;
 @RequestMapping("/api/auth")
 public class LogoutController {
 
-    private final BlacklistedTokenRepository blacklistRepository;
+    private final TokenRevocationService revocationService;
     private final JwtTokenProvider tokenProvider;
 
-    public LogoutController(BlacklistedTokenRepository blacklistRepository,
+    public LogoutController(TokenRevocationService revocationService,
                             JwtTokenProvider tokenProvider) {
-        this.blacklistRepository = blacklistRepository;
+        this.revocationService = revocationService;
         this.tokenProvider = tokenProvider;
     }
 
@@ -38,12 +36,8 @@ public class LogoutController {
             try {
                 LocalDateTime expiry = tokenProvider.getExpiryDateFromToken(token);
 
-                BlacklistedToken blacklistedToken = BlacklistedToken.builder()
-                        .token(token)
-                        .expiryDate(expiry)
-                        .build();
-
-                blacklistRepository.save(blacklistedToken);
+                // Persists the revocation and makes it visible to in-memory checks immediately
+                revocationService.revoke(token, expiry);
                 return ResponseEntity.ok("Logged out successfully");
 
             } catch (Exception e) {
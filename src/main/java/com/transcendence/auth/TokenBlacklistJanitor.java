@@ -0,0 +1,91 @@
+package com.transcendence.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically removes expired rows from token_blacklist.
+ * Deletes run in small batches, each in its own transaction, so the SQLite
+ * write lock is only held briefly and request traffic can interleave.
+ */
+@Slf4j
+@Component
+public class TokenBlacklistJanitor {
+
+    private final BlacklistedTokenRepository blacklistRepository;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter purgedTokens;
+    private final DistributionSummary purgedPerRun;
+    private final Timer purgeDuration;
+
+    public TokenBlacklistJanitor(BlacklistedTokenRepository blacklistRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${jwt.blacklist.purge-batch-size:500}") int batchSize,
+                                 @Value("${jwt.blacklist.purge-max-batches:100}") int maxBatchesPerRun) {
+        this.blacklistRepository = blacklistRepository;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+
+        this.purgedTokens = Counter.builder("jwt.blacklist.purged")
+                .description("Expired blacklist rows deleted")
+                .register(meterRegistry);
+        this.purgedPerRun = DistributionSummary.builder("jwt.blacklist.purge.rows")
+                .description("Expired blacklist rows deleted per purge run")
+                .register(meterRegistry);
+        this.purgeDuration = Timer.builder("jwt.blacklist.purge.duration")
+                .description("Duration of a blacklist purge run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.blacklist.purge-interval-ms:3600000}",
+            initialDelayString = "${jwt.blacklist.purge-initial-delay-ms:60000}")
+    public void purgeExpiredTokens() {
+        purgeExpiredTokens(LocalDateTime.now());
+    }
+
+    public int purgeExpiredTokens(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        int purged = 0;
+
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                List<String> expired = blacklistRepository.findExpiredTokens(cutoff, PageRequest.of(0, batchSize));
+                if (expired.isEmpty()) {
+                    break;
+                }
+
+                blacklistRepository.deleteAllByIdInBatch(expired);
+                purged += expired.size();
+
+                if (expired.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Blacklist purge failed after deleting {} rows", purged, e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            purgeDuration.record(elapsed, TimeUnit.NANOSECONDS);
+            purgedPerRun.record(purged);
+            purgedTokens.increment(purged);
+
+            log.info("Purged {} expired blacklisted tokens in {} ms",
+                    purged, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+
+        return purged;
+    }
+}
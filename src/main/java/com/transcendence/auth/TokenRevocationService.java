@@ -0,0 +1,173 @@
+package com.transcendence.auth;
+
+import com.transcendence.entity.BlacklistedToken;
+import com.transcendence.security.jwt.TokenDigest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of token_blacklist used on every authenticated request.
+ * A Bloom filter answers the common "not revoked" case without I/O; the exact set
+ * confirms positives, and the database is only consulted when neither can decide.
+ *
+ * <p>A Bloom negative is final, so a revocation made on another instance is not seen here
+ * until the next refresh from the table (jwt.revocation.refresh-interval-ms).
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private final BlacklistedTokenRepository blacklistRepository;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+
+    // token digest -> expiry date
+    private final Map<String, LocalDateTime> revokedTokens = new ConcurrentHashMap<>();
+
+    // Writers (logout, eviction) are rare, so they serialize on this lock; readers never block
+    private final Object writeLock = new Object();
+    private volatile BloomFilter bloomFilter;
+
+    private final Counter bloomNegatives;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter databaseMisses;
+
+    public TokenRevocationService(BlacklistedTokenRepository blacklistRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${jwt.revocation.expected-revocations:10000}") int expectedRevocations,
+                                  @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.blacklistRepository = blacklistRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = BloomFilter.create(expectedRevocations, falsePositiveRate);
+
+        this.bloomNegatives = revocationCheckCounter(meterRegistry, "bloom_negative");
+        this.memoryHits = revocationCheckCounter(meterRegistry, "memory_revoked");
+        this.databaseHits = revocationCheckCounter(meterRegistry, "db_revoked");
+        this.databaseMisses = revocationCheckCounter(meterRegistry, "db_not_revoked");
+        Gauge.builder("jwt.revocation.tokens", revokedTokens, Map::size)
+                .description("Revoked, unexpired tokens held in memory")
+                .register(meterRegistry);
+    }
+
+    private static Counter revocationCheckCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("jwt.revocation.checks")
+                .tag("outcome", outcome)
+                .description("Token revocation lookups by how they were answered")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void loadRevokedTokens() {
+        List<BlacklistedToken> active = blacklistRepository.findByExpiryDateAfter(LocalDateTime.now());
+
+        synchronized (writeLock) {
+            revokedTokens.clear();
+            for (BlacklistedToken token : active) {
+                revokedTokens.put(TokenDigest.sha256(token.getToken()), token.getExpiryDate());
+            }
+            rebuildBloomFilter();
+        }
+
+        log.info("Loaded {} revoked tokens into memory", active.size());
+    }
+
+    public boolean isRevoked(String token) {
+        byte[] digest = TokenDigest.sha256Bytes(token);
+
+        if (!bloomFilter.mightContain(digest)) {
+            bloomNegatives.increment();
+            return false;
+        }
+
+        if (revokedTokens.containsKey(encode(digest))) {
+            memoryHits.increment();
+            return true;
+        }
+
+        // Bloom false positive
+        boolean revoked = blacklistRepository.existsByToken(token);
+        (revoked ? databaseHits : databaseMisses).increment();
+        return revoked;
+    }
+
+    public void revoke(String token, LocalDateTime expiryDate) {
+        BlacklistedToken blacklistedToken = BlacklistedToken.builder()
+                .token(token)
+                .expiryDate(expiryDate)
+                .build();
+        blacklistRepository.save(blacklistedToken);
+
+        byte[] digest = TokenDigest.sha256Bytes(token);
+        synchronized (writeLock) {
+            revokedTokens.put(encode(digest), expiryDate);
+            bloomFilter.put(digest);
+        }
+    }
+
+    // Adds revocations other instances wrote; entries are only ever removed by evictExpired
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:30000}")
+    public void refreshFromDatabase() {
+        List<BlacklistedToken> active = blacklistRepository.findByExpiryDateAfter(LocalDateTime.now());
+
+        int added = 0;
+        synchronized (writeLock) {
+            for (BlacklistedToken token : active) {
+                byte[] digest = TokenDigest.sha256Bytes(token.getToken());
+                if (revokedTokens.putIfAbsent(encode(digest), token.getExpiryDate()) == null) {
+                    bloomFilter.put(digest);
+                    added++;
+                }
+            }
+        }
+
+        if (added > 0) {
+            log.debug("Picked up {} revoked tokens from other instances", added);
+        }
+    }
+
+    // Expired tokens already fail signature validation, so they no longer need to be tracked
+    @Scheduled(fixedDelayString = "${jwt.revocation.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+
+        synchronized (writeLock) {
+            boolean removed = revokedTokens.values().removeIf(expiry -> !expiry.isAfter(now));
+            if (removed) {
+                // Bloom filters cannot delete, so rebuild from what is left
+                rebuildBloomFilter();
+            }
+        }
+    }
+
+    public int revokedCount() {
+        return revokedTokens.size();
+    }
+
+    private void rebuildBloomFilter() {
+        BloomFilter rebuilt = BloomFilter.create(
+                Math.max(expectedRevocations, revokedTokens.size() * 2), falsePositiveRate);
+
+        for (String key : revokedTokens.keySet()) {
+            rebuilt.put(Base64.getUrlDecoder().decode(key));
+        }
+        bloomFilter = rebuilt;
+    }
+
+    private static String encode(byte[] digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+}
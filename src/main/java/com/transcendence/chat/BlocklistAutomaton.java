@@ -0,0 +1,176 @@
+package com.transcendence.chat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Aho-Corasick automaton over a blocklist of words and phrases, compiled to a dense
+ * transition table so a scan is one table lookup per character, whatever the number of patterns.
+ * Matching ignores case and only counts whole words: "ass" does not match "class".
+ * Immutable once built; a reload builds a new instance.
+ */
+final class BlocklistAutomaton {
+
+    static final BlocklistAutomaton EMPTY = compile(List.of());
+
+    private static final char MASK = '*';
+
+    // Character -> alphabet index; 0 is every character no pattern uses
+    private final char[] charClass;
+    private final int alphabetSize;
+    // transitions[state * alphabetSize + class] -> next state, with failure links already folded in
+    private final int[] transitions;
+    // Length of the pattern ending at a state, or 0
+    private final int[] patternLength;
+    // Nearest state on the failure chain that ends a pattern, or -1
+    private final int[] outputLink;
+    private final int patternCount;
+
+    private BlocklistAutomaton(char[] charClass, int alphabetSize, int[] transitions,
+                               int[] patternLength, int[] outputLink, int patternCount) {
+        this.charClass = charClass;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.patternLength = patternLength;
+        this.outputLink = outputLink;
+        this.patternCount = patternCount;
+    }
+
+    static BlocklistAutomaton compile(Collection<String> patterns) {
+        List<String> normalized = new ArrayList<>();
+        for (String pattern : patterns) {
+            String trimmed = pattern.strip().toLowerCase(Locale.ROOT);
+            if (!trimmed.isEmpty()) {
+                normalized.add(trimmed);
+            }
+        }
+
+        char[] charClass = new char[Character.MAX_VALUE + 1];
+        int alphabetSize = 1;
+        for (String pattern : normalized) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (charClass[c] == 0) {
+                    charClass[c] = (char) alphabetSize++;
+                }
+            }
+        }
+
+        // Trie, grown in place; the transition table doubles as the child table
+        int capacity = 1 + normalized.stream().mapToInt(String::length).sum();
+        int[] transitions = new int[capacity * alphabetSize];
+        Arrays.fill(transitions, -1);
+        int[] patternLength = new int[capacity];
+        int states = 1;
+        for (String pattern : normalized) {
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int slot = state * alphabetSize + charClass[pattern.charAt(i)];
+                if (transitions[slot] < 0) {
+                    transitions[slot] = states++;
+                }
+                state = transitions[slot];
+            }
+            patternLength[state] = pattern.length();
+        }
+
+        transitions = Arrays.copyOf(transitions, states * alphabetSize);
+        patternLength = Arrays.copyOf(patternLength, states);
+        int[] failure = new int[states];
+        int[] outputLink = new int[states];
+        Arrays.fill(outputLink, -1);
+
+        // Breadth first, so every failure target is complete before it is used
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < alphabetSize; c++) {
+            int child = transitions[c];
+            if (child < 0) {
+                transitions[c] = 0;
+            } else {
+                failure[child] = 0;
+                queue[tail++] = child;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            int fail = failure[state];
+            outputLink[state] = patternLength[fail] > 0 ? fail : outputLink[fail];
+
+            for (int c = 0; c < alphabetSize; c++) {
+                int slot = state * alphabetSize + c;
+                int child = transitions[slot];
+                int fallback = transitions[fail * alphabetSize + c];
+                if (child < 0) {
+                    transitions[slot] = fallback;
+                } else {
+                    failure[child] = fallback;
+                    queue[tail++] = child;
+                }
+            }
+        }
+
+        return new BlocklistAutomaton(charClass, alphabetSize, transitions, patternLength, outputLink,
+                normalized.size());
+    }
+
+    /**
+     * The text with every blocklisted word replaced by asterisks, or the same instance when nothing matched.
+     */
+    String mask(String text) {
+        char[] masked = null;
+        int state = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * alphabetSize + charClass[Character.toLowerCase(text.charAt(i))]];
+
+            for (int match = patternLength[state] > 0 ? state : outputLink[state]; match >= 0; match = outputLink[match]) {
+                int start = i - patternLength[match] + 1;
+                if (isWholeWord(text, start, i)) {
+                    if (masked == null) {
+                        masked = text.toCharArray();
+                    }
+                    for (int j = start; j <= i; j++) {
+                        if (!Character.isWhitespace(masked[j])) {
+                            masked[j] = MASK;
+                        }
+                    }
+                }
+            }
+        }
+
+        return masked == null ? text : new String(masked);
+    }
+
+    boolean matches(String text) {
+        int state = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * alphabetSize + charClass[Character.toLowerCase(text.charAt(i))]];
+
+            for (int match = patternLength[state] > 0 ? state : outputLink[state]; match >= 0; match = outputLink[match]) {
+                if (isWholeWord(text, i - patternLength[match] + 1, i)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWholeWord(String text, int start, int end) {
+        return (start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1)))
+                && (end == text.length() - 1 || !Character.isLetterOrDigit(text.charAt(end + 1)));
+    }
+
+    int patternCount() {
+        return patternCount;
+    }
+
+    int stateCount() {
+        return patternLength.length;
+    }
+}
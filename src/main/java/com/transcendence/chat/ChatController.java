@@ -8,10 +8,10 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
 
 import java.security.Principal;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Slf4j
 @Controller
@@ -21,6 +21,8 @@ public class ChatController {
     private final SimpMessagingTemplate messagingTemplate;
     private final ChatService chatService;
     private final OnlineUsersService onlineUsersService;
+    private final ChatHistoryBuffer chatHistory;
+    private final ChatModerationFilter moderationFilter;
 
     @MessageMapping("/chat.sendMessage")
     public void sendMessage(@Payload ChatMessageDTO messageDTO, Principal principal) {
@@ -31,10 +33,25 @@ public class ChatController {
 
         log.info("Received message from {}: {}", username, messageDTO.getContent());
 
+        String content = moderationFilter.moderate(messageDTO.getContent());
+        if (content == null) {
+            log.info("Rejected message from {} by the blocklist", username);
+            messagingTemplate.convertAndSendToUser(username, "/queue/errors", ChatMessageDTO.builder()
+                    .sender("System")
+                    .content("Your message was not sent because it contains blocked words")
+                    .type("REJECTED")
+                    .timestamp(LocalDateTime.now())
+                    .build());
+            return;
+        }
+        messageDTO.setContent(content);
+
+        chatHistory.append(messageDTO);
+
         // Broadcast message to all users
         messagingTemplate.convertAndSend("/topic/public", messageDTO);
 
-        // Save message asynchronously
+        // Persisted in the background by ChatMessageWriter
         chatService.saveMessage(messageDTO);
     }
 
@@ -47,20 +64,13 @@ public class ChatController {
 
         log.info("User {} joined the chat (session: {})", username, sessionId);
 
-        // Send chat history to the newly connected user
-        List<ChatMessageDTO> recentMessages = chatService.getRecentMessages(50);
-        messagingTemplate.convertAndSendToUser(
-                username,
-                "/queue/history",
-                recentMessages
+        // Send chat history to the newly connected user, already serialized
+        messagingTemplate.send(
+                userDestination(username, "/queue/history"),
+                chatHistory.historyPayload()
         );
 
-        List<String> onlineUsers = onlineUsersService.getOnlineUsers();
-        messagingTemplate.convertAndSendToUser(
-                username,
-                "/queue/users",
-                onlineUsers
-        );
+        onlineUsersService.sendSnapshot(username);
 
         // Notify others that a user joined
         ChatMessageDTO joinMessage = new ChatMessageDTO();
@@ -71,4 +81,17 @@ public class ChatController {
 
         messagingTemplate.convertAndSend("/topic/public", joinMessage);
     }
-}
\ No newline at end of file
+
+    // Clients ask for a fresh snapshot when they detect a gap in presence deltas
+    @MessageMapping("/chat.users")
+    public void resyncUsers(Principal principal) {
+        onlineUsersService.sendSnapshot(principal.getName());
+    }
+
+    // Same resolution convertAndSendToUser applies, for payloads that skip conversion
+    private String userDestination(String username, String destination) {
+        return messagingTemplate.getUserDestinationPrefix()
+                + StringUtils.replace(username, "/", "%2F")
+                + destination;
+    }
+}
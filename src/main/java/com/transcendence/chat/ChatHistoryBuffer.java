@@ -0,0 +1,125 @@
+package com.transcendence.chat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transcendence.chat.dto.ChatMessageDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The last N chat messages, oldest first, held in a fixed-size ring.
+ * Joiners are served a JSON payload that is serialized once per change rather than once per join.
+ */
+@Slf4j
+@Component
+public class ChatHistoryBuffer {
+
+    private final ChatService chatService;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+
+    private final ChatMessageDTO[] ring;
+    private int head; // next slot to write
+    private int size;
+
+    // Rebuilt lazily after each append; an immutable message can be re-sent to any destination
+    private volatile Message<byte[]> cachedPayload;
+
+    public ChatHistoryBuffer(ChatService chatService,
+                             ObjectMapper objectMapper,
+                             @Value("${chat.history.size:50}") int capacity) {
+        this.chatService = chatService;
+        this.objectMapper = objectMapper;
+        this.capacity = Math.max(1, capacity);
+        this.ring = new ChatMessageDTO[this.capacity];
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        List<ChatMessageDTO> recent = chatService.getRecentMessages(capacity);
+
+        synchronized (this) {
+            head = 0;
+            size = 0;
+            // The query returns newest first; replay oldest first so the ring stays chronological
+            for (int i = recent.size() - 1; i >= 0; i--) {
+                write(recent.get(i));
+            }
+            cachedPayload = null;
+        }
+
+        log.info("Seeded chat history with {} messages", recent.size());
+    }
+
+    public void append(ChatMessageDTO message) {
+        if (ChatService.isSystemMessage(message)) {
+            return;
+        }
+
+        synchronized (this) {
+            write(message);
+            cachedPayload = null;
+        }
+    }
+
+    public synchronized List<ChatMessageDTO> snapshot() {
+        List<ChatMessageDTO> messages = new ArrayList<>(size);
+        int start = (head - size + capacity) % capacity;
+        for (int i = 0; i < size; i++) {
+            messages.add(ring[(start + i) % capacity]);
+        }
+        return messages;
+    }
+
+    /**
+     * The current history as a ready-to-send JSON message. Repeated calls between
+     * appends return the same instance.
+     */
+    public Message<byte[]> historyPayload() {
+        Message<byte[]> payload = cachedPayload;
+        if (payload != null) {
+            return payload;
+        }
+
+        synchronized (this) {
+            if (cachedPayload == null) {
+                cachedPayload = serialize(snapshot());
+            }
+            return cachedPayload;
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private void write(ChatMessageDTO message) {
+        ring[head] = message;
+        head = (head + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+    }
+
+    private Message<byte[]> serialize(List<ChatMessageDTO> messages) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(messages);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize chat history", e);
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+    }
+}
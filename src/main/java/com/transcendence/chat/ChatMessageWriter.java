@@ -0,0 +1,247 @@
+package com.transcendence.chat;
+
+import com.transcendence.config.AsyncConfig;
+import com.transcendence.entity.ChatMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence for chat messages. Senders only enqueue; a single writer loop,
+ * running on the chat persistence executor, drains the queue and stores up to batch-size messages per multi-row INSERT and transaction.
+ * When the queue is full the sender writes its message itself, which slows it down instead of losing data.
+ */
+@Slf4j
+@Component
+public class ChatMessageWriter implements SmartLifecycle {
+
+    private static final String INSERT_PREFIX = "INSERT INTO chat_messages (sender, content, timestamp, type) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private final BlockingQueue<ChatMessage> queue;
+    private final String fullBatchSql;
+
+    private final Executor writerExecutor;
+    private volatile boolean running;
+    private volatile Thread writerThread;
+    private CountDownLatch writerDone;
+
+    private final Counter enqueued;
+    private final Counter overflowed;
+    private final Counter persisted;
+    private final Counter failed;
+    private final Timer batchTimer;
+
+    public ChatMessageWriter(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Qualifier(AsyncConfig.CHAT_PERSISTENCE_EXECUTOR) Executor writerExecutor,
+                             @Value("${chat.persistence.queue-capacity:10000}") int queueCapacity,
+                             @Value("${chat.persistence.batch-size:100}") int batchSize,
+                             @Value("${chat.persistence.flush-interval-ms:200}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writerExecutor = writerExecutor;
+        // SQLite caps bound parameters per statement at 32766; four per row keeps us far below it
+        this.batchSize = Math.min(Math.max(1, batchSize), 1000);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.fullBatchSql = insertSql(this.batchSize);
+
+        this.enqueued = Counter.builder("chat.persistence.messages")
+                .tag("outcome", "enqueued")
+                .description("Chat messages handed to the write-behind queue")
+                .register(meterRegistry);
+        this.overflowed = Counter.builder("chat.persistence.messages")
+                .tag("outcome", "overflow")
+                .description("Chat messages written by the sender because the queue was full")
+                .register(meterRegistry);
+        this.persisted = Counter.builder("chat.persistence.messages")
+                .tag("outcome", "persisted")
+                .description("Chat messages stored in the database")
+                .register(meterRegistry);
+        this.failed = Counter.builder("chat.persistence.messages")
+                .tag("outcome", "failed")
+                .description("Chat messages lost because their batch could not be written")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("chat.persistence.batch")
+                .description("Time to insert and commit one batch of chat messages")
+                .register(meterRegistry);
+        Gauge.builder("chat.persistence.queue.depth", queue, BlockingQueue::size)
+                .description("Chat messages waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("chat.persistence.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .description("Free slots left in the write-behind queue")
+                .register(meterRegistry);
+    }
+
+    public void enqueue(ChatMessage message) {
+        if (running && queue.offer(message)) {
+            enqueued.increment();
+            return;
+        }
+
+        // Queue full or writer stopped: persist on the caller's thread
+        overflowed.increment();
+        writeBatch(List.of(message));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writerDone = new CountDownLatch(1);
+        writerExecutor.execute(this::drainLoop);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = writerThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        try {
+            writerDone.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Whatever the writer did not get to is flushed here before the datasource goes away
+        flushRemaining();
+        log.info("Chat writer stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop after the web server and message broker so no sender can enqueue behind the final flush
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    void flushRemaining() {
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void drainLoop() {
+        writerThread = Thread.currentThread();
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+
+        try {
+            while (running) {
+                collect(batch);
+                writeBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // stop() interrupts us and flushes whatever is still queued
+            Thread.currentThread().interrupt();
+            writeBatch(batch);
+        } finally {
+            writerThread = null;
+            writerDone.countDown();
+        }
+    }
+
+    // Waits for a first message, then lingers up to the flush interval for the batch to fill
+    private void collect(List<ChatMessage> batch) throws InterruptedException {
+        ChatMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            ChatMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeBatch(List<ChatMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        String sql = batch.size() == batchSize ? fullBatchSql : insertSql(batch.size());
+        Object[] args = new Object[batch.size() * 4];
+        int i = 0;
+        for (ChatMessage message : batch) {
+            args[i++] = message.getSender();
+            args[i++] = message.getContent();
+            args[i++] = Timestamp.valueOf(message.getTimestamp());
+            args[i++] = message.getType();
+        }
+
+        try {
+            batchTimer.record(() -> transactionTemplate.executeWithoutResult(
+                    status -> jdbcTemplate.update(sql, args)));
+            persisted.increment(batch.size());
+        } catch (DataAccessException | TransactionException e) {
+            failed.increment(batch.size());
+            log.error("Failed to persist {} chat messages: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDER.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.transcendence.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Blocklist moderation for chat messages. Patterns are read from chat.moderation.blocklist,
+ * one word or phrase per line ('#' starts a comment), and compiled into a {@link BlocklistAutomaton}.
+ * The file is polled and recompiled when it changes; a broken reload keeps the previous list.
+ */
+@Slf4j
+@Component
+public class ChatModerationFilter {
+
+    enum Action { MASK, REJECT }
+
+    private final Path blocklist;
+    private final Action action;
+
+    private volatile BlocklistAutomaton automaton = BlocklistAutomaton.EMPTY;
+    private volatile FileTime loadedVersion;
+
+    private final Counter clean;
+    private final Counter masked;
+    private final Counter rejected;
+
+    public ChatModerationFilter(MeterRegistry meterRegistry,
+                                @Value("${chat.moderation.blocklist:}") String blocklist,
+                                @Value("${chat.moderation.action:mask}") String action) {
+        this.blocklist = StringUtils.hasText(blocklist) ? Path.of(blocklist) : null;
+        this.action = Action.valueOf(action.trim().toUpperCase(Locale.ROOT));
+
+        this.clean = messageCounter(meterRegistry, "clean");
+        this.masked = messageCounter(meterRegistry, "masked");
+        this.rejected = messageCounter(meterRegistry, "rejected");
+        Gauge.builder("chat.moderation.patterns", this, filter -> filter.automaton.patternCount())
+                .description("Patterns in the loaded chat blocklist")
+                .register(meterRegistry);
+
+        reloadIfChanged();
+    }
+
+    private static Counter messageCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("chat.moderation.messages")
+                .tag("outcome", outcome)
+                .description("Chat messages checked against the blocklist")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The content to broadcast: unchanged, masked, or null when the action is reject and it matched.
+     */
+    public String moderate(String content) {
+        if (content == null || content.isEmpty()) {
+            return content;
+        }
+
+        BlocklistAutomaton current = automaton;
+        if (action == Action.REJECT) {
+            if (current.matches(content)) {
+                rejected.increment();
+                return null;
+            }
+            clean.increment();
+            return content;
+        }
+
+        String result = current.mask(content);
+        (result == content ? clean : masked).increment();
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.moderation.reload-interval-ms:10000}",
+            initialDelayString = "${chat.moderation.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        if (blocklist == null) {
+            return;
+        }
+
+        try {
+            FileTime modified = Files.getLastModifiedTime(blocklist);
+            if (modified.equals(loadedVersion)) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            List<String> patterns = Files.readAllLines(blocklist, StandardCharsets.UTF_8).stream()
+                    .filter(line -> !line.isBlank() && !line.stripLeading().startsWith("#"))
+                    .toList();
+            automaton = BlocklistAutomaton.compile(patterns);
+            loadedVersion = modified;
+
+            log.info("Loaded {} chat blocklist patterns from {} in {} ms ({} states)",
+                    automaton.patternCount(), blocklist, (System.nanoTime() - start) / 1_000_000,
+                    automaton.stateCount());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load chat blocklist {}, keeping {} patterns: {}",
+                    blocklist, automaton.patternCount(), e.getMessage());
+        }
+    }
+}
@@ -4,7 +4,7 @@ import com.transcendence.chat.dto.ChatMessageDTO;
 import com.transcendence.entity.ChatMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,11 +17,11 @@ import java.util.stream.Collectors;
 public class ChatService {
 
     private final ChatRepository chatRepository;
+    private final ChatMessageWriter chatMessageWriter;
 
-    @Async
-    @Transactional
+    // Queued for the write-behind writer; the broadcast has already gone out
     public void saveMessage(ChatMessageDTO messageDTO) {
-        if ("JOIN".equals(messageDTO.getType()) || "LEAVE".equals(messageDTO.getType())) {
+        if (isSystemMessage(messageDTO)) {
             log.info("Skipping system message from: {}", messageDTO.getSender());
             return;
         }
@@ -32,19 +32,23 @@ public class ChatService {
         entity.setTimestamp(messageDTO.getTimestamp());
         entity.setType(messageDTO.getType());
 
-        chatRepository.save(entity);
-        log.info("Message saved to database from: {}", messageDTO.getSender());
+        chatMessageWriter.enqueue(entity);
     }
 
     @Transactional(readOnly = true)
     public List<ChatMessageDTO> getRecentMessages(int limit) {
-        List<ChatMessage> messages = chatRepository.findRecentMessages(limit);
+        List<ChatMessage> messages = chatRepository.findRecentMessages(PageRequest.of(0, limit));
 
         return messages.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    // Join/leave notices are broadcast but never persisted or replayed
+    static boolean isSystemMessage(ChatMessageDTO messageDTO) {
+        return "JOIN".equals(messageDTO.getType()) || "LEAVE".equals(messageDTO.getType());
+    }
+
     private ChatMessageDTO convertToDTO(ChatMessage entity) {
         ChatMessageDTO dto = new ChatMessageDTO();
         dto.setSender(entity.getSender());
@@ -1,62 +1,122 @@
 package com.transcendence.chat;
 
-import lombok.RequiredArgsConstructor;
+import com.transcendence.config.AsyncConfig;
+import com.transcendence.config.WebSocketConfig;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class OnlineUsersService {
 
-    private final SimpMessagingTemplate messagingTemplate;
-
     // Map of sessionId -> username
     private final Map<String, String> sessionToUser = new ConcurrentHashMap<>();
 
-    // Set of unique online usernames
-    private final Set<String> onlineUsers = ConcurrentHashMap.newKeySet();
+    // Map of username -> open session count; a user is online while present here
+    private final Map<String, Integer> userSessionCounts = new ConcurrentHashMap<>();
+
+    // Users connected to any instance, shared through the broker relay; null on a single node
+    private final SimpUserRegistry clusterRegistry;
+
+    private final PresencePublisher presencePublisher;
+
+    // Two constructors, so Spring needs to be told which one to inject
+    @Autowired
+    public OnlineUsersService(SimpMessagingTemplate messagingTemplate,
+                              SimpUserRegistry userRegistry,
+                              @Qualifier(AsyncConfig.BROADCAST_EXECUTOR) Executor broadcastExecutor,
+                              @Value("${chat.presence.coalesce-ms:150}") long coalesceMs,
+                              @Value("${websocket.broker.mode:simple}") String brokerMode,
+                              @Value("${websocket.node-id:}") String nodeId) {
+        // Flushes wait out the coalescing window, then publish from the broadcast executor
+        this(messagingTemplate,
+                CompletableFuture.delayedExecutor(Math.max(0, coalesceMs), TimeUnit.MILLISECONDS, broadcastExecutor),
+                StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString().substring(0, 8),
+                WebSocketConfig.RELAY_MODE.equalsIgnoreCase(brokerMode) ? userRegistry : null);
+    }
+
+    OnlineUsersService(SimpMessagingTemplate messagingTemplate,
+                       Executor presenceFlushExecutor,
+                       String nodeId,
+                       SimpUserRegistry clusterRegistry) {
+        this.clusterRegistry = clusterRegistry;
+        this.presencePublisher = new PresencePublisher(
+                messagingTemplate, nodeId, presenceFlushExecutor, this::isOnline, this::getOnlineUsers);
+    }
 
     public void addUser(String sessionId, String username) {
-        log.info("Adding user: {} with session: {}", username, sessionId);
+        // The same session can be reported twice; only its first connect counts
+        if (sessionToUser.putIfAbsent(sessionId, username) != null) {
+            return;
+        }
 
-        sessionToUser.put(sessionId, username);
-        onlineUsers.add(username);
+        int sessions = userSessionCounts.merge(username, 1, Integer::sum);
+        log.info("Adding user: {} with session: {} ({} open)", username, sessionId, sessions);
 
-        broadcastOnlineUsers();
+        if (sessions == 1) {
+            presencePublisher.userChanged(username);
+        }
     }
 
     public void removeUser(String sessionId) {
         String username = sessionToUser.remove(sessionId);
 
-        if (username != null) {
-            log.info("Removing user: {} with session: {}", username, sessionId);
-
-            boolean hasOtherSessions = sessionToUser.containsValue(username);
+        if (username == null) {
+            return;
+        }
 
-            if (!hasOtherSessions) {
-                onlineUsers.remove(username);
-                log.info("User {} fully disconnected", username);
-            } else {
-                log.info("User {} still has other active sessions", username);
-            }
+        // Decrement and drop in one atomic step, so concurrent disconnects cannot both miss the last one
+        Integer remaining = userSessionCounts.computeIfPresent(username, (user, count) -> count > 1 ? count - 1 : null);
+        log.info("Removing user: {} with session: {}", username, sessionId);
 
-            broadcastOnlineUsers();
+        if (remaining == null) {
+            log.info("User {} fully disconnected", username);
+            presencePublisher.userChanged(username);
+        } else {
+            log.info("User {} still has {} active sessions", username, remaining);
         }
     }
 
     public List<String> getOnlineUsers() {
-        return new ArrayList<>(onlineUsers);
+        if (clusterRegistry == null) {
+            return new ArrayList<>(userSessionCounts.keySet());
+        }
+
+        // The registry lags local connects slightly, so merge in our own users
+        Set<String> users = new LinkedHashSet<>(userSessionCounts.keySet());
+        for (SimpUser user : clusterRegistry.getUsers()) {
+            users.add(user.getName());
+        }
+        return new ArrayList<>(users);
+    }
+
+    // Online on any instance; a user leaving this node may still be connected to another
+    public boolean isOnline(String username) {
+        return userSessionCounts.containsKey(username)
+                || (clusterRegistry != null && clusterRegistry.getUser(username) != null);
+    }
+
+    // Sessions on this instance only
+    public int sessionCount(String username) {
+        return userSessionCounts.getOrDefault(username, 0);
     }
 
-    private void broadcastOnlineUsers() {
-        List<String> users = getOnlineUsers();
-        log.info("Broadcasting online users: {}", users);
-        messagingTemplate.convertAndSend("/topic/users", users);
+    // Full list for a new subscriber, or one that missed a delta
+    public void sendSnapshot(String username) {
+        presencePublisher.sendSnapshot(username);
     }
 
 }
@@ -0,0 +1,112 @@
+package com.transcendence.chat;
+
+import com.transcendence.chat.dto.PresenceDeltaDTO;
+import com.transcendence.chat.dto.PresenceSnapshotDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Publishes presence changes on /topic/users as numbered join/leave deltas.
+ * Users who changed are collected for a short window and reported together, in the
+ * state they are in when the window closes, so a flapping connection costs one entry.
+ * Clients start from a snapshot on /user/queue/users and ask for a new one when they see a gap.
+ * Every update carries the publishing node's id, since behind a broker relay each instance numbers its own deltas.
+ */
+@Slf4j
+final class PresencePublisher {
+
+    static final String TOPIC = "/topic/users";
+    static final String USER_QUEUE = "/queue/users";
+
+    // The broadcast executor drops work when it falls behind; a flush this overdue is asked for again
+    private static final long LOST_FLUSH_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final String nodeId;
+    private final Executor flushExecutor;
+    private final Predicate<String> isOnline;
+    private final Supplier<? extends Collection<String>> onlineUsers;
+
+    // All guarded by lock; publishing under it keeps deltas on the wire in sequence order
+    private final Object lock = new Object();
+    private final Set<String> changed = new LinkedHashSet<>();
+    private long sequence;
+    private boolean flushScheduled;
+    private long flushScheduledAt;
+
+    // flushExecutor should run tasks after the coalescing window, see OnlineUsersService
+    PresencePublisher(SimpMessagingTemplate messagingTemplate,
+                      String nodeId,
+                      Executor flushExecutor,
+                      Predicate<String> isOnline,
+                      Supplier<? extends Collection<String>> onlineUsers) {
+        this.messagingTemplate = messagingTemplate;
+        this.nodeId = nodeId;
+        this.flushExecutor = flushExecutor;
+        this.isOnline = isOnline;
+        this.onlineUsers = onlineUsers;
+    }
+
+    void userChanged(String username) {
+        synchronized (lock) {
+            changed.add(username);
+            long now = System.nanoTime();
+            if (flushScheduled && now - flushScheduledAt < LOST_FLUSH_NANOS) {
+                return;
+            }
+            flushScheduled = true;
+            flushScheduledAt = now;
+        }
+        flushExecutor.execute(this::flush);
+    }
+
+    /**
+     * The current online users stamped with the last published sequence number.
+     * Deltas after it may repeat changes the snapshot already includes; clients apply them as set operations.
+     */
+    PresenceSnapshotDTO snapshot() {
+        synchronized (lock) {
+            return new PresenceSnapshotDTO(nodeId, sequence, new ArrayList<>(onlineUsers.get()));
+        }
+    }
+
+    void sendSnapshot(String username) {
+        messagingTemplate.convertAndSendToUser(username, USER_QUEUE, snapshot());
+    }
+
+    void flush() {
+        synchronized (lock) {
+            flushScheduled = false;
+            if (changed.isEmpty()) {
+                return;
+            }
+
+            List<String> joined = new ArrayList<>();
+            List<String> left = new ArrayList<>();
+            for (String username : changed) {
+                (isOnline.test(username) ? joined : left).add(username);
+            }
+            changed.clear();
+
+            PresenceDeltaDTO delta = new PresenceDeltaDTO(nodeId, ++sequence, joined, left);
+            log.debug("Publishing presence delta {}: +{} -{}", delta.getSeq(), joined, left);
+            messagingTemplate.convertAndSend(TOPIC, delta);
+        }
+    }
+
+    long sequence() {
+        synchronized (lock) {
+            return sequence;
+        }
+    }
+}
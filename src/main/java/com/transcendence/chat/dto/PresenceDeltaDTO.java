@@ -0,0 +1,20 @@
+package com.transcendence.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceDeltaDTO {
+
+    private final String type = "delta";
+    // Instance that numbered this update; each instance keeps its own sequence
+    private String node;
+    private long seq;
+    private List<String> joined;
+    private List<String> left;
+}
@@ -0,0 +1,19 @@
+package com.transcendence.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceSnapshotDTO {
+
+    private final String type = "snapshot";
+    // Instance that numbered this update; each instance keeps its own sequence
+    private String node;
+    private long seq;
+    private List<String> users;
+}
@@ -0,0 +1,124 @@
+package com.transcendence.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named, bounded executors for background work. Each one is sized and given a rejection
+ * policy under async.&lt;name&gt;.*, and exports executor.* metrics tagged with its name
+ * (active threads, queue depth, task and queue-wait timers) plus executor.rejected.
+ * {@code @Async} must name one of these; there is deliberately no unbounded default.
+ */
+@Slf4j
+@Configuration
+// Class proxies: an interface proxy would hide listener methods that are not on the bean's interface
+@EnableAsync(proxyTargetClass = true)
+public class AsyncConfig implements AsyncConfigurer {
+
+    public static final String CHAT_PERSISTENCE_EXECUTOR = "chatPersistenceExecutor";
+    public static final String STATS_EXECUTOR = "statsExecutor";
+    public static final String BROADCAST_EXECUTOR = "broadcastExecutor";
+    public static final String WEBSOCKET_OUTBOUND_EXECUTOR = "websocketOutboundExecutor";
+
+    enum RejectionPolicy { CALLER_RUNS, ABORT, DISCARD, DISCARD_OLDEST }
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public AsyncConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Dedicated to the chat write-behind loop, which holds its only thread for the application's lifetime;
+    // a second submission is a bug, so it is refused
+    @Bean(name = CHAT_PERSISTENCE_EXECUTOR)
+    public ExecutorService chatPersistenceExecutor() {
+        return executor("chat-persistence", 1, 1, 0, RejectionPolicy.ABORT);
+    }
+
+    @Bean(name = STATS_EXECUTOR)
+    public ExecutorService statsExecutor() {
+        return executor("stats", 1, 2, 100, RejectionPolicy.CALLER_RUNS);
+    }
+
+    // A single thread keeps broadcasts in order; when its queue is full, new broadcasts are dropped and
+    // counted in executor.rejected rather than run out of order on the caller
+    @Bean(name = BROADCAST_EXECUTOR)
+    public ExecutorService broadcastExecutor() {
+        return executor("broadcast", 1, 1, 1000, RejectionPolicy.DISCARD);
+    }
+
+    // Drains per-session send buffers. A pool only grows past its core size once the queue is full, so all
+    // threads are core threads; a stalled write holds one for at most the send-time limit before its session
+    // is closed. When none is free the session is closed rather than drained on a broker thread.
+    @Bean(name = WEBSOCKET_OUTBOUND_EXECUTOR)
+    public ExecutorService websocketOutboundExecutor() {
+        return executor("websocket-outbound", 16, 16, 10000, RejectionPolicy.ABORT);
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) ->
+                log.error("Async task {}.{} failed", method.getDeclaringClass().getSimpleName(), method.getName(), ex);
+    }
+
+    private ExecutorService executor(String name, int coreSize, int maxSize, int queueCapacity,
+                                     RejectionPolicy rejectionPolicy) {
+        String prefix = "async." + name + ".";
+        int core = Math.max(1, environment.getProperty(prefix + "core-size", Integer.class, coreSize));
+        int max = Math.max(core, environment.getProperty(prefix + "max-size", Integer.class, maxSize));
+        int capacity = environment.getProperty(prefix + "queue-capacity", Integer.class, queueCapacity);
+        RejectionPolicy policy = environment.getProperty(prefix + "rejection-policy", RejectionPolicy.class, rejectionPolicy);
+        boolean virtual = environment.getProperty("async.virtual-threads", Boolean.class, false);
+
+        BlockingQueue<Runnable> queue = capacity > 0 ? new ArrayBlockingQueue<>(capacity) : new SynchronousQueue<>();
+        ThreadFactory threadFactory = virtual
+                ? Thread.ofVirtual().name(name + "-", 1).factory()
+                : Thread.ofPlatform().name(name + "-", 1).factory();
+
+        Counter rejected = Counter.builder("executor.rejected")
+                .tag("name", name)
+                .description("Tasks refused because the executor's threads and queue were full")
+                .register(meterRegistry);
+        RejectedExecutionHandler handler = rejectionHandler(policy);
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(core, max, 60, TimeUnit.SECONDS, queue, threadFactory,
+                (task, executor) -> {
+                    rejected.increment();
+                    handler.rejectedExecution(task, executor);
+                });
+
+        log.info("Executor {}: {} {}-{} threads, queue {}, {} on overflow",
+                name, virtual ? "virtual" : "platform", core, max, capacity, policy);
+
+        return ExecutorServiceMetrics.monitor(meterRegistry, pool, name, Tags.empty());
+    }
+
+    private static RejectedExecutionHandler rejectionHandler(RejectionPolicy policy) {
+        return switch (policy) {
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+            case DISCARD -> new ThreadPoolExecutor.DiscardPolicy();
+            case DISCARD_OLDEST -> new ThreadPoolExecutor.DiscardOldestPolicy();
+        };
+    }
+}
@@ -2,6 +2,8 @@ package com.transcendence.config;
 
 import com.transcendence.security.jwt.JwtAuthenticationFilter;
 import com.transcendence.security.details.CustomUserDetailsService;
+import com.transcendence.security.ratelimit.RateLimitFilter;
+import com.transcendence.security.ratelimit.RateLimiter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -24,8 +26,12 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimiter rateLimiter;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) { this.jwtAuthenticationFilter = jwtAuthenticationFilter; }
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, RateLimiter rateLimiter) {
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.rateLimiter = rateLimiter;
+    }
 
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authenticationConfiguration) throws Exception {
@@ -51,6 +57,8 @@ public class SecurityConfig {
 
                 // Authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        // Exposes session ids and can switch on tracing for everyone: admins only
+                        .requestMatchers("/actuator/stomp", "/actuator/stomp/**").hasRole("ADMIN")
                         .requestMatchers("/actuator/**").permitAll()
                         // Public endpoints (login, register)
                         .requestMatchers("/api/auth/**").permitAll()
@@ -61,6 +69,8 @@ public class SecurityConfig {
                 );
 
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // Needs the authenticated user, so it runs after the JWT filter; not a bean, so it is not registered twice
+        http.addFilterAfter(new RateLimitFilter(rateLimiter), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
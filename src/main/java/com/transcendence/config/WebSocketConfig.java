@@ -1,25 +1,79 @@
 package com.transcendence.config;
 
 import com.transcendence.security.websocket.JwtChannelInterceptor;
-import lombok.RequiredArgsConstructor;
+import com.transcendence.websocket.OutboundBackpressure;
+import com.transcendence.websocket.StompMetricsInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.util.StringUtils;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * STOMP over /ws. websocket.broker.mode=simple (default) keeps subscriptions in this JVM;
+ * relay forwards them to an external STOMP broker so several instances can serve one audience.
+ * In relay mode user destinations and the user registry are shared between instances through the broker.
+ *
+ * <p>Relay mode covers chat and presence. State that lives in one instance's memory is not shared:
+ * live Pong matches and matchmaking are refused ({@code PongMatchController}), the leaderboard and
+ * ETags stop relying on in-memory versions, and rate limit buckets are counted per instance.
+ */
+@Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
-@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    public static final String RELAY_MODE = "relay";
+
     private final JwtChannelInterceptor jwtChannelInterceptor;
+    private final StompMetricsInterceptor stompMetricsInterceptor;
+    private final OutboundBackpressure outboundBackpressure;
+
+    private final String brokerMode;
+    private final String relayHost;
+    private final int relayPort;
+    private final String relayLogin;
+    private final String relayPasscode;
+    private final String relayVirtualHost;
+
+    public WebSocketConfig(JwtChannelInterceptor jwtChannelInterceptor,
+                           StompMetricsInterceptor stompMetricsInterceptor,
+                           OutboundBackpressure outboundBackpressure,
+                           @Value("${websocket.broker.mode:simple}") String brokerMode,
+                           @Value("${websocket.broker.relay.host:localhost}") String relayHost,
+                           @Value("${websocket.broker.relay.port:61613}") int relayPort,
+                           @Value("${websocket.broker.relay.login:guest}") String relayLogin,
+                           @Value("${websocket.broker.relay.passcode:guest}") String relayPasscode,
+                           @Value("${websocket.broker.relay.virtual-host:}") String relayVirtualHost) {
+        this.jwtChannelInterceptor = jwtChannelInterceptor;
+        this.stompMetricsInterceptor = stompMetricsInterceptor;
+        this.outboundBackpressure = outboundBackpressure;
+        this.brokerMode = brokerMode;
+        this.relayHost = relayHost;
+        this.relayPort = relayPort;
+        this.relayLogin = relayLogin;
+        this.relayPasscode = relayPasscode;
+        this.relayVirtualHost = relayVirtualHost;
+    }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable simple broker for sending messages to clients
-        config.enableSimpleBroker("/topic", "/queue");
+        if (RELAY_MODE.equalsIgnoreCase(brokerMode)) {
+            enableRelay(config);
+        } else {
+            // Enable simple broker for sending messages to clients
+            config.enableSimpleBroker("/topic", "/queue");
+        }
+
+        // Update the user registry before our own connect/disconnect listeners read it
+        config.setUserRegistryOrder(Ordered.HIGHEST_PRECEDENCE);
 
         // Set prefix for messages from clients
         config.setApplicationDestinationPrefixes("/app");
@@ -28,6 +82,26 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setUserDestinationPrefix("/user");
     }
 
+    private void enableRelay(MessageBrokerRegistry config) {
+        log.info("Relaying STOMP destinations to {}:{}", relayHost, relayPort);
+
+        StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(relayHost)
+                .setRelayPort(relayPort)
+                .setClientLogin(relayLogin)
+                .setClientPasscode(relayPasscode)
+                .setSystemLogin(relayLogin)
+                .setSystemPasscode(relayPasscode)
+                // Messages for users connected to another instance are forwarded to it
+                .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                // Each instance shares its connected users, so presence and user lookups see the whole cluster
+                .setUserRegistryBroadcast("/topic/simp-user-registry");
+
+        if (StringUtils.hasText(relayVirtualHost)) {
+            relay.setVirtualHost(relayVirtualHost);
+        }
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
@@ -36,6 +110,15 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(jwtChannelInterceptor);
+        // Metrics first, so frames rejected by authentication are still counted
+        registration.interceptors(stompMetricsInterceptor, jwtChannelInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Sessions buffer and drop per destination in OutboundBackpressure; Spring's own limits stay as a backstop
+        registration.setSendTimeLimit(outboundBackpressure.sendTimeLimitMs() * 2)
+                .setSendBufferSizeLimit(outboundBackpressure.bufferSizeLimit() * 2)
+                .addDecoratorFactory(outboundBackpressure::decorate);
     }
-}
\ No newline at end of file
+}
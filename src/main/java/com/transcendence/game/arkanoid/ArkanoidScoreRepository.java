@@ -1,15 +1,28 @@
 package com.transcendence.game.arkanoid;
 
 import com.transcendence.entity.ArkanoidScore;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ArkanoidScoreRepository extends JpaRepository<ArkanoidScore, Long> {
 
-    // Get score history for a user (most recent first)
-    List<ArkanoidScore> findByUserIdOrderByCreatedAtDesc(Long userId);
+    // First page of a user's history (most recent first); id breaks created_at ties
+    List<ArkanoidScore> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
+
+    // Next page: rows strictly older than the cursor key
+    @Query("SELECT s FROM ArkanoidScore s WHERE s.userId = :userId "
+            + "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id)) "
+            + "ORDER BY s.createdAt DESC, s.id DESC")
+    List<ArkanoidScore> findHistoryAfter(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
 
 }
\ No newline at end of file
@@ -3,9 +3,11 @@ package com.transcendence.game.arkanoid;
 import com.transcendence.entity.ArkanoidScore;
 import com.transcendence.entity.UserStats;
 import com.transcendence.game.arkanoid.dto.*;
+import com.transcendence.game.HistoryCursor;
 import com.transcendence.stats.UserStatsService;
 import com.transcendence.stats.dto.SaveScoreResponse;
 import com.transcendence.stats.dto.UserStatsDto;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -57,14 +59,35 @@ public class ArkanoidService {
         );
     }
 
-    public ArkanoidHistoryResponse getHistory(Long userId) {
-        List<ArkanoidScore> scores = arkanoidScoreRepository
-                .findByUserIdOrderByCreatedAtDesc(userId);
+    /**
+     * One page of the user's history, most recent first.
+     * Pass the previous response's nextCursor to continue; null starts from the newest entry.
+     */
+    @Transactional(readOnly = true)
+    public ArkanoidHistoryResponse getHistory(Long userId, String cursor, int pageSize) {
+        // One extra row tells us whether another page exists
+        PageRequest fetch = PageRequest.of(0, pageSize + 1);
 
-        List<ArkanoidHistoryItemDto> history = scores.stream()
+        List<ArkanoidScore> scores;
+        if (cursor == null) {
+            scores = arkanoidScoreRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, fetch);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            scores = arkanoidScoreRepository.findHistoryAfter(userId, after.createdAt(), after.id(), fetch);
+        }
+
+        List<ArkanoidScore> page = scores.size() > pageSize ? scores.subList(0, pageSize) : scores;
+
+        List<ArkanoidHistoryItemDto> history = page.stream()
                 .map(ArkanoidHistoryItemDto::fromEntity)
                 .toList();
 
-        return new ArkanoidHistoryResponse(history);
+        String nextCursor = null;
+        if (scores.size() > pageSize) {
+            ArkanoidScore last = page.get(page.size() - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new ArkanoidHistoryResponse(history, nextCursor);
     }
 }
@@ -12,5 +12,8 @@ import java.util.List;
 public class ArkanoidHistoryResponse {
 
     private List<ArkanoidHistoryItemDto> history;
+
+    // Pass back as ?cursor= to fetch older scores; null when there are none
+    private String nextCursor;
 }
 
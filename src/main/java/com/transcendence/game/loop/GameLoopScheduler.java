@@ -0,0 +1,123 @@
+package com.transcendence.game.loop;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs live game sessions on a fixed set of loop threads (game.loop.shards, one per core by default)
+ * instead of one scheduled task per match. Each shard ticks its own timing wheel at game.loop.tick-rate;
+ * new sessions go to the least loaded shard, and a shard that falls well below the busiest one
+ * steals half the difference once a second.
+ *
+ * <p>Per shard it exports game.loop.tick (with histogram buckets), game.loop.ticks.late,
+ * game.loop.overruns and game.loop.sessions.
+ */
+@Slf4j
+@Component
+public class GameLoopScheduler implements SmartLifecycle {
+
+    private final int tickRate;
+    private final GameLoopShard[] shards;
+
+    private volatile boolean running;
+    private Thread[] threads;
+
+    public GameLoopScheduler(MeterRegistry meterRegistry,
+                             @Value("${game.loop.shards:0}") int shardCount,
+                             @Value("${game.loop.tick-rate:60}") int tickRate,
+                             @Value("${game.loop.wheel-size:64}") int wheelSize,
+                             @Value("${game.loop.steal-threshold:4}") int stealThreshold) {
+        this.tickRate = Math.max(1, tickRate);
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new GameLoopShard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new GameLoopShard(i, shards, this.tickRate, wheelSize, stealThreshold, meterRegistry);
+        }
+    }
+
+    /**
+     * Ticks the session every period loop ticks, starting with the next one, until it returns false.
+     */
+    public void schedule(GameSession session, int period) {
+        GameLoopShard target = shards[0];
+        for (GameLoopShard shard : shards) {
+            if (shard.load() < target.load()) {
+                target = shard;
+            }
+        }
+        target.submit(new TimingWheel.Entry(session, period));
+    }
+
+    /**
+     * The loop period closest to the given rate, for sessions that tick slower than the loop.
+     */
+    public int periodFor(int ticksPerSecond) {
+        return Math.max(1, Math.round((float) tickRate / Math.max(1, ticksPerSecond)));
+    }
+
+    public int tickRate() {
+        return tickRate;
+    }
+
+    public int sessionCount() {
+        int total = 0;
+        for (GameLoopShard shard : shards) {
+            total += shard.load();
+        }
+        return total;
+    }
+
+    GameLoopShard[] shards() {
+        return shards;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        threads = new Thread[shards.length];
+        for (GameLoopShard shard : shards) {
+            shard.setRunning(true);
+            threads[shard.index] = Thread.ofPlatform()
+                    .name("game-loop-" + shard.index)
+                    .daemon(true)
+                    .start(shard);
+        }
+        running = true;
+        log.info("Game loop running on {} shards at {} ticks/s", shards.length, tickRate);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (GameLoopShard shard : shards) {
+            shard.setRunning(false);
+        }
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
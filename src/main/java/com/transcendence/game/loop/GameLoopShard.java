@@ -0,0 +1,183 @@
+package com.transcendence.game.loop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One game loop thread and the sessions it owns. Only the loop thread touches the wheel;
+ * other threads hand sessions over through the inbox and ask for work through stealRequest.
+ */
+@Slf4j
+final class GameLoopShard implements Runnable {
+
+    final int index;
+    private final GameLoopShard[] shards;
+    private final int tickRate;
+    private final long tickNanos;
+    private final int stealThreshold;
+
+    private final TimingWheel wheel;
+    private final Queue<TimingWheel.Entry> inbox = new ConcurrentLinkedQueue<>();
+    // Sessions in the wheel or the inbox; read by other shards and the scheduler to balance load
+    private final AtomicInteger load = new AtomicInteger();
+    // A lighter shard waiting for this one to hand over part of its sessions
+    private final AtomicReference<GameLoopShard> stealRequest = new AtomicReference<>();
+    private long ticks;
+    private int spread;
+
+    private final Timer tickTimer;
+    private final Counter lateTicks;
+    private final Counter overruns;
+    private final Counter stolen;
+    private final Counter failed;
+
+    private volatile boolean running;
+
+    GameLoopShard(int index, GameLoopShard[] shards, int tickRate, int wheelSize, int stealThreshold,
+                  MeterRegistry meterRegistry) {
+        this.index = index;
+        this.shards = shards;
+        this.tickRate = tickRate;
+        this.tickNanos = TimeUnit.SECONDS.toNanos(1) / tickRate;
+        this.stealThreshold = Math.max(1, stealThreshold);
+        this.wheel = new TimingWheel(wheelSize, this::tickSession);
+
+        String shard = String.valueOf(index);
+        this.tickTimer = Timer.builder("game.loop.tick")
+                .tag("shard", shard)
+                .description("Time to run every session due in one game loop tick")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lateTicks = Counter.builder("game.loop.ticks.late")
+                .tag("shard", shard)
+                .description("Game loop ticks that started more than one interval after they were due")
+                .register(meterRegistry);
+        this.overruns = Counter.builder("game.loop.overruns")
+                .tag("shard", shard)
+                .description("Game loop ticks that took longer than the tick interval")
+                .register(meterRegistry);
+        this.stolen = Counter.builder("game.loop.sessions.stolen")
+                .tag("shard", shard)
+                .description("Sessions this shard took over from a busier one")
+                .register(meterRegistry);
+        this.failed = Counter.builder("game.loop.sessions.failed")
+                .tag("shard", shard)
+                .description("Sessions dropped because their tick threw")
+                .register(meterRegistry);
+        Gauge.builder("game.loop.sessions", load, AtomicInteger::get)
+                .tag("shard", shard)
+                .description("Live sessions owned by the shard")
+                .register(meterRegistry);
+    }
+
+    void submit(TimingWheel.Entry entry) {
+        load.incrementAndGet();
+        inbox.add(entry);
+    }
+
+    int load() {
+        return load.get();
+    }
+
+    @Override
+    public void run() {
+        long due = System.nanoTime();
+
+        while (running) {
+            due += tickNanos;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0 && running) {
+                LockSupport.parkNanos(wait);
+            }
+
+            long start = System.nanoTime();
+            if (start - due > tickNanos) {
+                lateTicks.increment();
+                // Resume the cadence from now instead of bursting through the missed ticks
+                due = start;
+            }
+
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                log.error("Game loop shard {} tick failed", index, e);
+            }
+
+            long elapsed = System.nanoTime() - start;
+            tickTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (elapsed > tickNanos) {
+                overruns.increment();
+            }
+        }
+    }
+
+    void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    void tick() {
+        for (TimingWheel.Entry entry; (entry = inbox.poll()) != null; ) {
+            // Spreads sessions that tick less often than every loop tick across the wheel
+            wheel.schedule(entry, 1 + spread++ % entry.period);
+        }
+
+        wheel.advance();
+
+        GameLoopShard thief = stealRequest.getAndSet(null);
+        if (thief != null) {
+            donate(thief);
+        }
+        if (++ticks % tickRate == 0) {
+            requestWork();
+        }
+    }
+
+    private boolean tickSession(GameSession session) {
+        boolean live;
+        try {
+            live = session.tick();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Game session failed on shard {}, dropping it", index, e);
+            live = false;
+        }
+        if (!live) {
+            load.decrementAndGet();
+        }
+        return live;
+    }
+
+    // Hands over half the difference, so both shards end up close to even
+    private void donate(GameLoopShard thief) {
+        int surplus = (wheel.size() - thief.load()) / 2;
+        if (surplus < stealThreshold) {
+            return;
+        }
+        int moved = wheel.removeUpTo(surplus, thief::submit);
+        load.addAndGet(-moved);
+        thief.stolen.increment(moved);
+    }
+
+    // Once a second: an underloaded shard asks the busiest one to give up sessions at its next tick
+    private void requestWork() {
+        GameLoopShard busiest = this;
+        for (GameLoopShard shard : shards) {
+            if (shard.load() > busiest.load()) {
+                busiest = shard;
+            }
+        }
+        if (busiest.load() - load() > stealThreshold * 2) {
+            busiest.stealRequest.compareAndSet(null, this);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.transcendence.game.loop;
+
+/**
+ * A live game driven by {@link GameLoopScheduler}. Always ticked from the same loop thread
+ * until it is handed to another shard, so implementations need no locking of their own state.
+ */
+@FunctionalInterface
+public interface GameSession {
+
+    /**
+     * Advances the game by one tick. Returns false once it is over and should not be ticked again.
+     */
+    boolean tick();
+}
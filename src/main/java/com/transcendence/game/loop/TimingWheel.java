@@ -0,0 +1,105 @@
+package com.transcendence.game.loop;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Hashed timing wheel of sessions owned by one {@link GameLoopShard}. Each slot is an intrusive
+ * list, so advancing, rescheduling and removing sessions allocate nothing. A session due further
+ * out than one turn waits in its slot for the remaining rounds.
+ */
+final class TimingWheel {
+
+    static final class Entry {
+        final GameSession session;
+        final int period;
+        private int rounds;
+        private Entry next;
+
+        Entry(GameSession session, int period) {
+            this.session = session;
+            this.period = Math.max(1, period);
+        }
+    }
+
+    private final Entry[] slots;
+    private final int mask;
+    private final Predicate<GameSession> ticker;
+    private long cursor;
+    private int size;
+
+    /**
+     * @param ticker runs one session and says whether it stays scheduled
+     */
+    TimingWheel(int slotCount, Predicate<GameSession> ticker) {
+        int capacity = Integer.highestOneBit(Math.max(2, slotCount) * 2 - 1);
+        this.slots = new Entry[capacity];
+        this.mask = capacity - 1;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Schedules the entry to run delay ticks from now (at least one).
+     */
+    void schedule(Entry entry, int delay) {
+        delay = Math.max(1, delay);
+        int slot = (int) ((cursor + delay) & mask);
+        entry.rounds = (delay - 1) / slots.length;
+        entry.next = slots[slot];
+        slots[slot] = entry;
+        size++;
+    }
+
+    /**
+     * Moves to the next tick and runs every session due in it, rescheduling those that continue.
+     */
+    void advance() {
+        cursor++;
+        int slot = (int) (cursor & mask);
+        // Detached first: a period that is a multiple of the wheel size lands back in this slot
+        Entry entry = slots[slot];
+        slots[slot] = null;
+
+        while (entry != null) {
+            Entry next = entry.next;
+            if (entry.rounds > 0) {
+                entry.rounds--;
+                entry.next = slots[slot];
+                slots[slot] = entry;
+            } else {
+                size--;
+                if (ticker.test(entry.session)) {
+                    schedule(entry, entry.period);
+                }
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * Unlinks up to count entries, starting with those due soonest, and passes them to the sink.
+     */
+    int removeUpTo(int count, Consumer<Entry> sink) {
+        int removed = 0;
+        for (int i = 1; i <= slots.length && removed < count; i++) {
+            int slot = (int) ((cursor + i) & mask);
+            while (slots[slot] != null && removed < count) {
+                Entry entry = slots[slot];
+                slots[slot] = entry.next;
+                entry.next = null;
+                size--;
+                removed++;
+                sink.accept(entry);
+            }
+        }
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int slotCount() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,96 @@
+package com.transcendence.game.pong;
+
+import java.util.Arrays;
+
+/**
+ * A match hosted by {@link PongEngine}: its players, lifecycle and simulation.
+ * Lifecycle fields are volatile because message threads join and leave while the game loop runs it.
+ */
+final class LivePongMatch {
+
+    enum Status { WAITING, RUNNING, FINISHED }
+
+    // Snapshots kept for delta encoding; must outlast the keyframe interval
+    static final int HISTORY = 64;
+
+    final String id;
+    final String destination;
+    final PongPlayer left;
+    final PongSimulation simulation;
+    final long createdAtNanos;
+
+    volatile PongPlayer right;
+    volatile Status status = Status.WAITING;
+    volatile long startedAtNanos;
+    // Set by a player who leaves; the game loop ends the match in the other player's favour
+    volatile PongPlayer forfeitedBy;
+    // Latest snapshot tick each player has decoded, -1 until the first ack
+    volatile long leftAck = -1;
+    volatile long rightAck = -1;
+    // Handed to new spectators so they can decode deltas before the next keyframe
+    volatile byte[] lastKeyframe;
+
+    // Recent quantized snapshots, owned by the game loop; deltas are encoded against them
+    final int[] history = new int[HISTORY * PongSnapshotCodec.FIELDS];
+    final long[] historyTicks = new long[HISTORY];
+    final byte[] scratch = new byte[PongSnapshotCodec.MAX_FRAME_SIZE];
+    private int historyHead;
+    long keyframeTick = -1;
+    int keyframeOffset;
+    int sinceKeyframe;
+
+    LivePongMatch(String id, PongPlayer left, long seed, long createdAtNanos) {
+        this.id = id;
+        this.destination = PongEngine.SNAPSHOT_TOPIC_PREFIX + id;
+        this.left = left;
+        this.simulation = new PongSimulation(seed);
+        this.createdAtNanos = createdAtNanos;
+        Arrays.fill(historyTicks, -1);
+    }
+
+    /**
+     * Stores the current state as the snapshot for tick and returns its offset in history.
+     */
+    int record(long tick) {
+        int slot = historyHead;
+        historyHead = (slot + 1) % HISTORY;
+        historyTicks[slot] = tick;
+        PongSnapshotCodec.capture(simulation, history, slot * PongSnapshotCodec.FIELDS);
+        return slot * PongSnapshotCodec.FIELDS;
+    }
+
+    /**
+     * The history offset of the snapshot for tick, or -1 once it has been overwritten.
+     */
+    int historyOffset(long tick) {
+        if (tick < 0) {
+            return -1;
+        }
+        for (int slot = 0; slot < HISTORY; slot++) {
+            if (historyTicks[slot] == tick) {
+                return slot * PongSnapshotCodec.FIELDS;
+            }
+        }
+        return -1;
+    }
+
+    void acknowledge(String username, long tick) {
+        if (left.username().equals(username)) {
+            leftAck = Math.max(leftAck, tick);
+        } else {
+            PongPlayer guest = right;
+            if (guest != null && guest.username().equals(username)) {
+                rightAck = Math.max(rightAck, tick);
+            }
+        }
+    }
+
+    boolean isPlayer(String username) {
+        PongPlayer guest = right;
+        return left.username().equals(username) || (guest != null && guest.username().equals(username));
+    }
+
+    PongPlayer opponentOf(String username) {
+        return left.username().equals(username) ? right : left;
+    }
+}
@@ -0,0 +1,243 @@
+package com.transcendence.game.pong;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Players waiting for an opponent, bucketed by skill band in a skip list. A pairing attempt
+ * probes bands outwards from the player's own, nearest first, and stops once a band is further
+ * away than the widest tolerance, so it costs O(log n) lookups plus the few tickets looked at in
+ * those bands, and never scans the queue.
+ *
+ * <p>Two players can be paired when their skill gap is within the tolerance of either one.
+ * Tolerance starts at initialTolerance and widens by widenPerSecond while a player waits,
+ * up to maxTolerance. Bands are never removed; an empty band costs one probe.
+ */
+final class MatchmakingQueue {
+
+    private static final int WAITING = 0;
+    private static final int SEEKING = 1;
+    private static final int CLAIMED = 2;
+    private static final int CANCELLED = 3;
+
+    static final class Ticket {
+        final PongPlayer player;
+        // The STOMP session that queued; closing another of the user's tabs leaves the ticket alone
+        final String sessionId;
+        final int skill;
+        final long enqueuedAt;
+        // SEEKING while its own offer or a sweep looks for a partner, WAITING in between.
+        // Pairing and cancelling both leave WAITING by CAS, so only one of them can win;
+        // CLAIMED and CANCELLED are final
+        private final AtomicInteger state = new AtomicInteger(SEEKING);
+
+        Ticket(PongPlayer player, String sessionId, int skill, long enqueuedAt) {
+            this.player = player;
+            this.sessionId = sessionId;
+            this.skill = skill;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * Two paired players, the one who waited longer first.
+     */
+    record Pairing(Ticket first, Ticket second) {
+
+        int skillGap() {
+            return Math.abs(first.skill - second.skill);
+        }
+    }
+
+    private final int bandWidth;
+    private final int initialTolerance;
+    private final int widenPerSecond;
+    private final int maxTolerance;
+
+    private final ConcurrentSkipListMap<Integer, ConcurrentLinkedDeque<Ticket>> bands = new ConcurrentSkipListMap<>();
+    private final Map<String, Ticket> byUser = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    MatchmakingQueue(int bandWidth, int initialTolerance, int widenPerSecond, int maxTolerance) {
+        this.bandWidth = Math.max(1, bandWidth);
+        this.initialTolerance = Math.max(0, initialTolerance);
+        this.widenPerSecond = Math.max(0, widenPerSecond);
+        this.maxTolerance = Math.max(this.initialTolerance, maxTolerance);
+    }
+
+    /**
+     * Pairs the player with the closest waiting opponent in tolerance, or queues them.
+     * Returns null when queued, or when the player is already waiting.
+     */
+    Pairing offer(PongPlayer player, String sessionId, int skill, long now) {
+        Ticket ticket = new Ticket(player, sessionId, skill, now);
+        if (byUser.putIfAbsent(player.username(), ticket) != null) {
+            return null;
+        }
+
+        Ticket partner = claimPartner(ticket, now);
+        if (partner != null) {
+            ticket.state.set(CLAIMED);
+            return paired(partner, ticket);
+        }
+
+        bandFor(skill).add(ticket);
+        waiting.incrementAndGet();
+        // Linked before it becomes claimable or cancellable
+        ticket.state.set(WAITING);
+        return null;
+    }
+
+    /**
+     * Retries everyone still waiting with their widened tolerance. Also pairs two players
+     * who queued at the same moment and missed each other.
+     */
+    List<Pairing> sweep(long now) {
+        List<Pairing> pairings = new ArrayList<>();
+
+        for (ConcurrentLinkedDeque<Ticket> band : bands.values()) {
+            for (Ticket ticket : band) {
+                if (!ticket.state.compareAndSet(WAITING, SEEKING)) {
+                    continue;
+                }
+
+                Ticket partner = claimPartner(ticket, now);
+                if (partner == null) {
+                    // Never left its band, so it keeps its place in line
+                    ticket.state.set(WAITING);
+                    continue;
+                }
+
+                ticket.state.set(CLAIMED);
+                band.remove(ticket);
+                waiting.decrementAndGet();
+                pairings.add(ticket.enqueuedAt <= partner.enqueuedAt
+                        ? paired(ticket, partner) : paired(partner, ticket));
+            }
+        }
+        return pairings;
+    }
+
+    /**
+     * Takes the player out of the queue. False when they were not waiting, including when
+     * they have just been paired: the pairing stands and the match starts.
+     */
+    boolean cancel(String username) {
+        Ticket ticket = byUser.get(username);
+        return ticket != null && cancel(ticket);
+    }
+
+    /**
+     * Like {@link #cancel(String)}, but only when the player queued from this session.
+     */
+    boolean cancelSession(String username, String sessionId) {
+        Ticket ticket = byUser.get(username);
+        return ticket != null && sessionId != null && sessionId.equals(ticket.sessionId) && cancel(ticket);
+    }
+
+    private boolean cancel(Ticket ticket) {
+        while (true) {
+            int state = ticket.state.get();
+            if (state == WAITING && ticket.state.compareAndSet(WAITING, CANCELLED)) {
+                byUser.remove(ticket.player.username(), ticket);
+                unlink(ticket);
+                return true;
+            }
+            if (state == CLAIMED || state == CANCELLED) {
+                return false;
+            }
+            // A search for a partner is a few non-blocking probes; wait for its outcome
+            if (state == SEEKING) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    boolean isQueued(String username) {
+        return byUser.containsKey(username);
+    }
+
+    int size() {
+        return waiting.get();
+    }
+
+    int tolerance(Ticket ticket, long now) {
+        long waitedSeconds = TimeUnit.NANOSECONDS.toSeconds(Math.max(0, now - ticket.enqueuedAt));
+        return (int) Math.min(maxTolerance, initialTolerance + waitedSeconds * widenPerSecond);
+    }
+
+    // Probes the nearest non-empty bands first, alternating above and below
+    private Ticket claimPartner(Ticket seeker, long now) {
+        int home = bandOf(seeker.skill);
+        int seekerTolerance = tolerance(seeker, now);
+        // No one tolerates more than maxTolerance, so bands further out than that cannot match
+        int reach = maxTolerance / bandWidth + 1;
+
+        Integer up = bands.ceilingKey(home);
+        Integer down = bands.lowerKey(home);
+        while (up != null || down != null) {
+            boolean takeUp = down == null || (up != null && up - home <= home - down);
+            int band = takeUp ? up : down;
+            if (Math.abs(band - home) > reach) {
+                return null;
+            }
+
+            Ticket partner = claimIn(bands.get(band), seeker, seekerTolerance, now);
+            if (partner != null) {
+                return partner;
+            }
+
+            if (takeUp) {
+                up = bands.higherKey(up);
+            } else {
+                down = bands.lowerKey(down);
+            }
+        }
+        return null;
+    }
+
+    // Oldest first within a band
+    private Ticket claimIn(ConcurrentLinkedDeque<Ticket> band, Ticket seeker, int seekerTolerance, long now) {
+        for (Iterator<Ticket> it = band.iterator(); it.hasNext(); ) {
+            Ticket candidate = it.next();
+            if (candidate == seeker) {
+                continue;
+            }
+            int gap = Math.abs(candidate.skill - seeker.skill);
+            if (gap <= Math.max(seekerTolerance, tolerance(candidate, now))
+                    && candidate.state.compareAndSet(WAITING, CLAIMED)) {
+                it.remove();
+                waiting.decrementAndGet();
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void unlink(Ticket ticket) {
+        if (bandFor(ticket.skill).remove(ticket)) {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private Pairing paired(Ticket first, Ticket second) {
+        byUser.remove(first.player.username(), first);
+        byUser.remove(second.player.username(), second);
+        return new Pairing(first, second);
+    }
+
+    private ConcurrentLinkedDeque<Ticket> bandFor(int skill) {
+        return bands.computeIfAbsent(bandOf(skill), band -> new ConcurrentLinkedDeque<>());
+    }
+
+    private int bandOf(int skill) {
+        return Math.floorDiv(skill, bandWidth);
+    }
+}
@@ -0,0 +1,133 @@
+package com.transcendence.game.pong;
+
+import com.transcendence.entity.UserStats;
+import com.transcendence.game.pong.dto.PongMatchEventDTO;
+import com.transcendence.stats.UserStatsRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pairs players who queue for online Pong by skill and starts their match on {@link PongEngine}.
+ * Skill is the player's UserStats xp, which also decides their level. Queue events go to
+ * /user/queue/matchmaking; the match itself then follows on /user/queue/pong.
+ */
+@Slf4j
+@Service
+public class MatchmakingService {
+
+    static final String QUEUE_DESTINATION = "/queue/matchmaking";
+
+    private final MatchmakingQueue queue;
+    private final UserStatsRepository userStatsRepository;
+    private final PongEngine pongEngine;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Timer waitTimer;
+    private final DistributionSummary skillGap;
+
+    public MatchmakingService(UserStatsRepository userStatsRepository,
+                              PongEngine pongEngine,
+                              SimpMessagingTemplate messagingTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${matchmaking.band-width:100}") int bandWidth,
+                              @Value("${matchmaking.initial-tolerance:100}") int initialTolerance,
+                              @Value("${matchmaking.widen-per-second:50}") int widenPerSecond,
+                              @Value("${matchmaking.max-tolerance:2000}") int maxTolerance) {
+        this.queue = new MatchmakingQueue(bandWidth, initialTolerance, widenPerSecond, maxTolerance);
+        this.userStatsRepository = userStatsRepository;
+        this.pongEngine = pongEngine;
+        this.messagingTemplate = messagingTemplate;
+
+        this.waitTimer = Timer.builder("matchmaking.wait")
+                .description("Time from joining the matchmaking queue to being paired")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.skillGap = DistributionSummary.builder("matchmaking.skill.gap")
+                .description("Skill difference between paired players; lower is a fairer match")
+                .register(meterRegistry);
+        Gauge.builder("matchmaking.queue.depth", queue, MatchmakingQueue::size)
+                .description("Players waiting for an opponent")
+                .register(meterRegistry);
+    }
+
+    public void enqueue(PongPlayer player, String sessionId) {
+        int skill = skillOf(player);
+        MatchmakingQueue.Pairing pairing = queue.offer(player, sessionId, skill, System.nanoTime());
+
+        if (pairing != null) {
+            start(pairing, System.nanoTime());
+        } else if (queue.isQueued(player.username())) {
+            log.debug("{} queued for Pong with skill {}", player.username(), skill);
+            notify(player.username(), new PongMatchEventDTO("queued", null, null, null, 0, 0, null, null));
+        }
+    }
+
+    public void cancel(String username) {
+        if (queue.cancel(username)) {
+            notify(username, new PongMatchEventDTO("cancelled", null, null, null, 0, 0, null, null));
+        }
+    }
+
+    // A player who drops would otherwise stay queued and be matched with someone.
+    // Only the session that queued counts: the user may still be online in another tab
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (user != null && queue.cancelSession(user.getName(), event.getSessionId())) {
+            log.debug("{} left the Pong queue by disconnecting", user.getName());
+        }
+    }
+
+    // Tolerances widen while players wait, so the queue is retried regularly
+    @Scheduled(fixedDelayString = "${matchmaking.sweep-interval-ms:500}")
+    public void sweep() {
+        long now = System.nanoTime();
+        for (MatchmakingQueue.Pairing pairing : queue.sweep(now)) {
+            start(pairing, now);
+        }
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    private void start(MatchmakingQueue.Pairing pairing, long now) {
+        waitTimer.record(now - pairing.first().enqueuedAt, TimeUnit.NANOSECONDS);
+        waitTimer.record(now - pairing.second().enqueuedAt, TimeUnit.NANOSECONDS);
+        skillGap.record(pairing.skillGap());
+
+        PongPlayer left = pairing.first().player;
+        PongPlayer right = pairing.second().player;
+        LivePongMatch match = pongEngine.start(left, right);
+
+        log.info("Matched {} and {} (skill gap {}) in match {}",
+                left.username(), right.username(), pairing.skillGap(), match.id);
+        notify(left.username(), new PongMatchEventDTO("matched", match.id, "left", right.username(), 0, 0, null, null));
+        notify(right.username(), new PongMatchEventDTO("matched", match.id, "right", left.username(), 0, 0, null, null));
+    }
+
+    private int skillOf(PongPlayer player) {
+        if (player.userId() == null) {
+            return 0;
+        }
+        return userStatsRepository.findByUserId(player.userId())
+                .map(UserStats::getXp)
+                .orElse(0);
+    }
+
+    private void notify(String username, PongMatchEventDTO event) {
+        messagingTemplate.convertAndSendToUser(username, QUEUE_DESTINATION, event);
+    }
+}
@@ -2,14 +2,19 @@ package com.transcendence.game.pong;
 
 import com.transcendence.game.pong.dto.PongHistoryResponse;
 import com.transcendence.game.pong.dto.PongScoreRequest;
+import com.transcendence.security.details.AuthenticatedUser;
+import com.transcendence.stats.StatsVersionTracker;
 import com.transcendence.stats.dto.SaveScoreResponse;
 import com.transcendence.user.UserRepository;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 
@@ -21,15 +26,30 @@ public class PongController {
 
     private final PongService pongService;
     private final UserRepository userRepository;
-
-    public PongController(PongService pongService, UserRepository userRepository) {
+    private final StatsVersionTracker versionTracker;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public PongController(PongService pongService,
+                          UserRepository userRepository,
+                          StatsVersionTracker versionTracker,
+                          @Value("${game.history.page-size:20}") int defaultPageSize,
+                          @Value("${game.history.max-page-size:100}") int maxPageSize) {
         this.pongService = pongService;
         this.userRepository = userRepository;
+        this.versionTracker = versionTracker;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     private Long getAuthenticatedUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
+        // JWT-authenticated requests already carry the id, no lookup needed
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+
         // The principal is the UserDetails object loaded during JWT validation
         String username = ((UserDetails) authentication.getPrincipal()).getUsername();
 
@@ -60,17 +80,39 @@ public class PongController {
     }
 
 
-    // GET /api/pong/history
+    // GET /api/pong/history?size=20&cursor=...
     @GetMapping("/history")
-    public ResponseEntity<PongHistoryResponse> getHistory() {
+    public ResponseEntity<PongHistoryResponse> getHistory(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest
+    ) {
         Long userId = getAuthenticatedUserId();
 
         log.info("Fetching Pong history for user {}", userId);
 
-        PongHistoryResponse response = pongService.getHistory(userId);
+        int pageSize = Math.min(Math.max(size != null ? size : defaultPageSize, 1), maxPageSize);
+
+        // History only changes together with the player's stats, so their version identifies it
+        String etag = versionTracker.userETag(userId,
+                "pong-history." + pageSize + (cursor == null ? "" : "." + cursor));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        PongHistoryResponse response;
+        try {
+            response = pongService.getHistory(userId, cursor, pageSize);
+        } catch (IllegalArgumentException e) {
+            // Malformed cursor
+            return ResponseEntity.badRequest().build();
+        }
 
         log.info("Retrieved {} Pong matches", response.getHistory().size());
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
     }
 }
@@ -0,0 +1,368 @@
+package com.transcendence.game.pong;
+
+import com.transcendence.config.AsyncConfig;
+import com.transcendence.game.loop.GameLoopScheduler;
+import com.transcendence.game.pong.dto.PongMatchEventDTO;
+import com.transcendence.game.pong.dto.PongScoreRequest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-authoritative Pong. Each running match is a session on the shared {@link GameLoopScheduler},
+ * stepped at pong.engine.tick-rate with a snapshot every pong.engine.snapshot-every ticks.
+ * Players create, join, steer and leave matches over STOMP (see PongMatchController);
+ * finished matches are saved for both players through PongService, off the loop thread.
+ *
+ * <p>Snapshots are binary {@link PongSnapshotCodec} frames. Each player gets a delta against the
+ * last snapshot they acknowledged on /user/queue/pong.state. Spectators all share one frame per
+ * snapshot on /topic/pong.{matchId}: a keyframe every pong.engine.keyframe-every snapshots and
+ * deltas against it in between, encoded once however many are watching. A new spectator gets the
+ * latest keyframe on /user/queue/pong.spectate.{matchId}. The two destinations are not ordered
+ * with respect to each other, so a spectator applies a topic delta only once it holds the keyframe
+ * at the delta's base tick, from either destination, and skips deltas that arrive before it.
+ */
+@Slf4j
+@Service
+public class PongEngine {
+
+    static final String SNAPSHOT_TOPIC_PREFIX = "/topic/pong.";
+    static final String EVENT_QUEUE = "/queue/pong";
+    static final String STATE_QUEUE = "/queue/pong.state";
+    // Per match, so catch-up keyframes never mix with a player's own state or another match
+    static final String SPECTATE_QUEUE_PREFIX = "/queue/pong.spectate.";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PongService pongService;
+    private final GameLoopScheduler gameLoop;
+    private final Executor resultExecutor;
+
+    // Loop ticks per simulation step, and the simulated time each step covers
+    private final int period;
+    private final double tickSeconds;
+    private final int snapshotEvery;
+    private final int keyframeEvery;
+    private final long waitingTimeoutNanos;
+
+    private final Map<String, LivePongMatch> matches = new ConcurrentHashMap<>();
+
+    public PongEngine(SimpMessagingTemplate messagingTemplate,
+                      PongService pongService,
+                      GameLoopScheduler gameLoop,
+                      @Qualifier(AsyncConfig.STATS_EXECUTOR) Executor resultExecutor,
+                      MeterRegistry meterRegistry,
+                      @Value("${pong.engine.tick-rate:60}") int tickRate,
+                      @Value("${pong.engine.snapshot-every:2}") int snapshotEvery,
+                      @Value("${pong.engine.keyframe-every:30}") int keyframeEvery,
+                      @Value("${pong.engine.waiting-timeout-ms:120000}") long waitingTimeoutMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.pongService = pongService;
+        this.gameLoop = gameLoop;
+        this.resultExecutor = resultExecutor;
+        this.period = gameLoop.periodFor(tickRate);
+        this.tickSeconds = (double) period / gameLoop.tickRate();
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+        // Deltas reference the keyframe, so it has to stay in the match history
+        this.keyframeEvery = Math.min(Math.max(1, keyframeEvery), LivePongMatch.HISTORY / 2);
+        this.waitingTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(waitingTimeoutMs);
+
+        Gauge.builder("pong.engine.matches", matches, Map::size)
+                .description("Pong matches waiting for a player or in progress")
+                .register(meterRegistry);
+    }
+
+    // ==================== Player actions (message threads) ====================
+
+    public LivePongMatch create(PongPlayer host) {
+        LivePongMatch match = newMatch(host);
+
+        log.info("Pong match {} created by {}", match.id, host.username());
+        notify(host, event("created", match, "left", null));
+        return match;
+    }
+
+    /**
+     * Starts a match between two players paired elsewhere, e.g. by matchmaking.
+     */
+    public LivePongMatch start(PongPlayer left, PongPlayer right) {
+        LivePongMatch match = newMatch(left);
+        synchronized (match) {
+            seat(match, right);
+        }
+        launch(match);
+        return match;
+    }
+
+    public void join(String matchId, PongPlayer guest) {
+        LivePongMatch match = matches.get(matchId);
+        if (match == null || match.left.username().equals(guest.username())) {
+            notify(guest, error(matchId, "Match not found"));
+            return;
+        }
+
+        synchronized (match) {
+            if (match.status != LivePongMatch.Status.WAITING) {
+                notify(guest, error(matchId, "Match already started"));
+                return;
+            }
+            seat(match, guest);
+        }
+        launch(match);
+    }
+
+    private LivePongMatch newMatch(PongPlayer host) {
+        String id = UUID.randomUUID().toString().substring(0, 8);
+        LivePongMatch match = new LivePongMatch(id, host, ThreadLocalRandom.current().nextLong(), System.nanoTime());
+        matches.put(id, match);
+        return match;
+    }
+
+    private static void seat(LivePongMatch match, PongPlayer guest) {
+        match.right = guest;
+        match.status = LivePongMatch.Status.RUNNING;
+        match.startedAtNanos = System.nanoTime();
+    }
+
+    private void launch(LivePongMatch match) {
+        gameLoop.schedule(() -> step(match), period);
+
+        PongPlayer guest = match.right;
+        log.info("Pong match {} started: {} vs {}", match.id, match.left.username(), guest.username());
+        notify(match.left, event("started", match, "left", guest.username()));
+        notify(guest, event("started", match, "right", match.left.username()));
+    }
+
+    public void input(String matchId, String username, int direction) {
+        LivePongMatch match = matches.get(matchId);
+        if (match == null || match.status != LivePongMatch.Status.RUNNING) {
+            return;
+        }
+
+        int clamped = Integer.signum(direction);
+        if (match.left.username().equals(username)) {
+            match.simulation.leftInput = clamped;
+        } else if (match.right != null && match.right.username().equals(username)) {
+            match.simulation.rightInput = clamped;
+        }
+    }
+
+    public void acknowledge(String matchId, String username, long tick) {
+        LivePongMatch match = matches.get(matchId);
+        if (match != null) {
+            match.acknowledge(username, tick);
+        }
+    }
+
+    public void spectate(String matchId, String username) {
+        LivePongMatch match = matches.get(matchId);
+        if (match == null) {
+            notify(username, error(matchId, "Match not found"));
+            return;
+        }
+
+        PongPlayer guest = match.right;
+        PongSimulation s = match.simulation;
+        notify(username, new PongMatchEventDTO("spectating", matchId, null, null, s.leftScore, s.rightScore, null,
+                match.left.username() + " vs " + (guest != null ? guest.username() : "...")));
+        byte[] keyframe = match.lastKeyframe;
+        if (keyframe != null) {
+            sendBinary(userDestination(username, SPECTATE_QUEUE_PREFIX + matchId), keyframe);
+        }
+    }
+
+    public void leave(String matchId, String username) {
+        LivePongMatch match = matches.get(matchId);
+        if (match == null || !match.isPlayer(username)) {
+            return;
+        }
+
+        synchronized (match) {
+            if (match.status == LivePongMatch.Status.WAITING) {
+                match.status = LivePongMatch.Status.FINISHED;
+                matches.remove(matchId);
+                return;
+            }
+        }
+        // Running: the loop ends it at the next tick
+        match.forfeitedBy = match.left.username().equals(username) ? match.left : match.right;
+    }
+
+    LivePongMatch match(String matchId) {
+        return matches.get(matchId);
+    }
+
+    // ==================== Game loop (shard threads) ====================
+
+    /**
+     * One simulation step of a running match, on its game loop shard. False once the match is over.
+     */
+    boolean step(LivePongMatch match) {
+        PongSimulation simulation = match.simulation;
+        int events = match.forfeitedBy != null ? PongSimulation.GAME_OVER : simulation.step(tickSeconds);
+
+        boolean scored = (events & (PongSimulation.POINT | PongSimulation.GAME_OVER)) != 0;
+        if (scored || simulation.tick % snapshotEvery == 0) {
+            publishSnapshot(match);
+        }
+        if ((events & PongSimulation.GAME_OVER) != 0) {
+            finish(match);
+            return false;
+        }
+        return true;
+    }
+
+    private void publishSnapshot(LivePongMatch match) {
+        long tick = match.simulation.tick;
+        int offset = match.record(tick);
+        int[] history = match.history;
+        byte[] out = match.scratch;
+
+        int length;
+        if (match.keyframeTick < 0 || ++match.sinceKeyframe >= keyframeEvery) {
+            match.keyframeTick = tick;
+            match.keyframeOffset = offset;
+            match.sinceKeyframe = 0;
+            length = PongSnapshotCodec.encodeKeyframe(tick, history, offset, out);
+        } else {
+            length = PongSnapshotCodec.encodeDelta(match.keyframeTick, history, match.keyframeOffset,
+                    tick, history, offset, out);
+        }
+        byte[] shared = Arrays.copyOf(out, length);
+        if (match.keyframeTick == tick) {
+            match.lastKeyframe = shared;
+        }
+        sendBinary(match.destination, shared);
+
+        sendState(match, match.left, match.leftAck, tick, offset, shared);
+        sendState(match, match.right, match.rightAck, tick, offset, shared);
+    }
+
+    // Falls back to the spectator frame until the player has acknowledged a snapshot still in history
+    private void sendState(LivePongMatch match, PongPlayer player, long ackTick, long tick, int offset, byte[] shared) {
+        byte[] frame = shared;
+        int base = match.historyOffset(ackTick);
+        if (base >= 0 && ackTick < tick) {
+            int length = PongSnapshotCodec.encodeDelta(ackTick, match.history, base,
+                    tick, match.history, offset, match.scratch);
+            frame = Arrays.copyOf(match.scratch, length);
+        }
+        sendBinary(userDestination(player.username(), STATE_QUEUE), frame);
+    }
+
+    private void sendBinary(String destination, byte[] frame) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        Message<byte[]> message = MessageBuilder.createMessage(frame, accessor.getMessageHeaders());
+        messagingTemplate.send(destination, message);
+    }
+
+    private void finish(LivePongMatch match) {
+        match.status = LivePongMatch.Status.FINISHED;
+        matches.remove(match.id);
+
+        PongSimulation s = match.simulation;
+        PongPlayer forfeited = match.forfeitedBy;
+        boolean leftWon = forfeited != null ? forfeited == match.right : s.leftScore > s.rightScore;
+        PongPlayer winner = leftWon ? match.left : match.right;
+        int durationSeconds = (int) TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - match.startedAtNanos);
+
+        log.info("Pong match {} finished {}-{}, winner {}", match.id, s.leftScore, s.rightScore, winner.username());
+
+        PongMatchEventDTO finished = new PongMatchEventDTO("finished", match.id, null, null,
+                s.leftScore, s.rightScore, winner.username(), forfeited != null ? "forfeit" : null);
+        notify(match.left, finished);
+        notify(match.right, finished);
+
+        int leftScore = s.leftScore;
+        int rightScore = s.rightScore;
+        resultExecutor.execute(() -> {
+            saveResult(match.left, match.right, leftScore, rightScore, leftWon, durationSeconds);
+            saveResult(match.right, match.left, rightScore, leftScore, !leftWon, durationSeconds);
+        });
+    }
+
+    private void saveResult(PongPlayer player, PongPlayer opponent, int score, int opponentScore, boolean won,
+                            int durationSeconds) {
+        if (player.userId() == null) {
+            return;
+        }
+
+        PongScoreRequest request = new PongScoreRequest();
+        request.setScore(score);
+        request.setOpponentScore(opponentScore);
+        request.setWinner(won ? "player" : "opponent");
+        request.setXpEarned(won ? 100 + score / 2 + (score - opponentScore) * 5 : 25 + score / 4);
+        request.setDuration(durationSeconds);
+        request.setIsPerfectGame(won && opponentScore == 0);
+
+        try {
+            pongService.saveScore(player.userId(), "two-player", request, opponent.userId());
+        } catch (RuntimeException e) {
+            log.error("Could not save Pong result for user {}", player.userId(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pong.engine.sweep-interval-ms:1000}")
+    public void expireWaiting() {
+        long now = System.nanoTime();
+        for (LivePongMatch match : matches.values()) {
+            if (match.status == LivePongMatch.Status.WAITING && now - match.createdAtNanos > waitingTimeoutNanos) {
+                synchronized (match) {
+                    if (match.status == LivePongMatch.Status.WAITING) {
+                        match.status = LivePongMatch.Status.FINISHED;
+                        matches.remove(match.id);
+                        notify(match.left, error(match.id, "Nobody joined in time"));
+                    }
+                }
+            }
+        }
+    }
+
+    // ==================== Messaging ====================
+
+    private void notify(PongPlayer player, PongMatchEventDTO event) {
+        notify(player.username(), event);
+    }
+
+    private void notify(String username, PongMatchEventDTO event) {
+        messagingTemplate.convertAndSendToUser(username, EVENT_QUEUE, event);
+    }
+
+    // Same resolution convertAndSendToUser applies, for payloads that skip conversion
+    private String userDestination(String username, String destination) {
+        return messagingTemplate.getUserDestinationPrefix()
+                + StringUtils.replace(username, "/", "%2F")
+                + destination;
+    }
+
+    private static PongMatchEventDTO event(String type, LivePongMatch match, String side, String opponent) {
+        return new PongMatchEventDTO(type, match.id, side, opponent, 0, 0, null, null);
+    }
+
+    private static PongMatchEventDTO error(String matchId, String message) {
+        return new PongMatchEventDTO("error", matchId, null, null, 0, 0, null, message);
+    }
+
+    public int activeMatches() {
+        return matches.size();
+    }
+}
@@ -0,0 +1,116 @@
+package com.transcendence.game.pong;
+
+import com.transcendence.config.WebSocketConfig;
+import com.transcendence.game.pong.dto.PongAckMessage;
+import com.transcendence.game.pong.dto.PongInputMessage;
+import com.transcendence.game.pong.dto.PongMatchEventDTO;
+import com.transcendence.game.pong.dto.PongMatchRequest;
+import com.transcendence.security.details.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+/**
+ * STOMP entry points for matchmaking and live Pong matches hosted by {@link PongEngine}.
+ * Matchmaking events arrive on /user/queue/matchmaking and match events on /user/queue/pong.
+ * Binary state goes to /user/queue/pong.state for players and /topic/pong.{matchId} for spectators,
+ * who first get a keyframe on /user/queue/pong.spectate.{matchId}.
+ *
+ * <p>Live matches and the matchmaking queue are held in this instance's memory. In relay mode
+ * (websocket.broker.mode=relay) the two players may be connected to different instances, so
+ * creating, queueing, joining and spectating are refused with an error event instead.
+ */
+@Controller
+public class PongMatchController {
+
+    static final String UNAVAILABLE = "Live matches are not available on this server";
+
+    private final PongEngine pongEngine;
+    private final MatchmakingService matchmakingService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final boolean liveMatches;
+
+    public PongMatchController(PongEngine pongEngine,
+                               MatchmakingService matchmakingService,
+                               SimpMessagingTemplate messagingTemplate,
+                               @Value("${websocket.broker.mode:simple}") String brokerMode) {
+        this.pongEngine = pongEngine;
+        this.matchmakingService = matchmakingService;
+        this.messagingTemplate = messagingTemplate;
+        this.liveMatches = !WebSocketConfig.RELAY_MODE.equalsIgnoreCase(brokerMode);
+    }
+
+    @MessageMapping("/pong.create")
+    public void create(Principal principal) {
+        if (!available(principal)) {
+            return;
+        }
+        pongEngine.create(player(principal));
+    }
+
+    @MessageMapping("/pong.queue")
+    public void queue(Principal principal, SimpMessageHeaderAccessor headerAccessor) {
+        if (!available(principal)) {
+            return;
+        }
+        matchmakingService.enqueue(player(principal), headerAccessor.getSessionId());
+    }
+
+    @MessageMapping("/pong.dequeue")
+    public void dequeue(Principal principal) {
+        matchmakingService.cancel(principal.getName());
+    }
+
+    @MessageMapping("/pong.join")
+    public void join(@Payload PongMatchRequest request, Principal principal) {
+        if (!available(principal)) {
+            return;
+        }
+        pongEngine.join(request.getMatchId(), player(principal));
+    }
+
+    @MessageMapping("/pong.input")
+    public void input(@Payload PongInputMessage input, Principal principal) {
+        pongEngine.input(input.getMatchId(), principal.getName(), input.getDirection());
+    }
+
+    @MessageMapping("/pong.ack")
+    public void acknowledge(@Payload PongAckMessage ack, Principal principal) {
+        pongEngine.acknowledge(ack.getMatchId(), principal.getName(), ack.getTick());
+    }
+
+    @MessageMapping("/pong.spectate")
+    public void spectate(@Payload PongMatchRequest request, Principal principal) {
+        if (!available(principal)) {
+            return;
+        }
+        pongEngine.spectate(request.getMatchId(), principal.getName());
+    }
+
+    @MessageMapping("/pong.leave")
+    public void leave(@Payload PongMatchRequest request, Principal principal) {
+        pongEngine.leave(request.getMatchId(), principal.getName());
+    }
+
+    // Input, acks and leaves need a match, and none can exist while live matches are refused
+    private boolean available(Principal principal) {
+        if (!liveMatches) {
+            messagingTemplate.convertAndSendToUser(principal.getName(), PongEngine.EVENT_QUEUE,
+                    new PongMatchEventDTO("error", null, null, null, 0, 0, null, UNAVAILABLE));
+        }
+        return liveMatches;
+    }
+
+    // WebSocket principals come from JwtChannelInterceptor and carry the user id
+    private static PongPlayer player(Principal principal) {
+        Long userId = principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof AuthenticatedUser user ? user.getId() : null;
+        return new PongPlayer(userId, principal.getName());
+    }
+}
@@ -1,15 +1,28 @@
 package com.transcendence.game.pong;
 
 import com.transcendence.entity.PongMatch;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface PongMatchRepository extends JpaRepository<PongMatch, Long> {
 
-    // Get match history for a user (most recent first)
-    List<PongMatch> findByUserIdOrderByCreatedAtDesc(Long userId);
+    // First page of a user's history (most recent first); id breaks created_at ties
+    List<PongMatch> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
+
+    // Next page: rows strictly older than the cursor key
+    @Query("SELECT m FROM PongMatch m WHERE m.userId = :userId "
+            + "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) "
+            + "ORDER BY m.createdAt DESC, m.id DESC")
+    List<PongMatch> findHistoryAfter(@Param("userId") Long userId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
 
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.transcendence.game.pong;
+
+/**
+ * A participant in a live match: the id results are saved under and the name messages are routed by.
+ */
+public record PongPlayer(Long userId, String username) {
+}
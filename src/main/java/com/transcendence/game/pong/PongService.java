@@ -3,9 +3,12 @@ package com.transcendence.game.pong;
 import com.transcendence.entity.PongMatch;
 import com.transcendence.entity.UserStats;
 import com.transcendence.game.pong.dto.*;
+import com.transcendence.game.HistoryCursor;
+import com.transcendence.rating.RatingService;
 import com.transcendence.stats.UserStatsService;
 import com.transcendence.stats.dto.SaveScoreResponse;
 import com.transcendence.stats.dto.UserStatsDto;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,15 +21,26 @@ public class PongService {
 
     private final PongMatchRepository pongMatchRepository;
     private final UserStatsService userStatsService;
+    private final RatingService ratingService;
 
     public PongService(PongMatchRepository pongMatchRepository,
-                       UserStatsService userStatsService) {
+                       UserStatsService userStatsService,
+                       RatingService ratingService) {
         this.pongMatchRepository = pongMatchRepository;
         this.userStatsService = userStatsService;
+        this.ratingService = ratingService;
     }
 
 
     public SaveScoreResponse saveScore(Long userId, String mode, PongScoreRequest request)
+    {
+        return saveScore(userId, mode, request, null);
+    }
+
+    /**
+     * Saves a result whose opponent is a known user (online matches), so both are rated against each other.
+     */
+    public SaveScoreResponse saveScore(Long userId, String mode, PongScoreRequest request, Long opponentId)
     {
         boolean won = "player".equals(request.getWinner());
         int xpEarned = request.getXpEarned();
@@ -44,11 +58,14 @@ public class PongService {
 
         pongMatchRepository.save(match);
 
+        UserStats.Rank rank = ratingService.record(match, opponentId);
+
         UserStats updatedStats = userStatsService.updateAfterGame(
                 userId,
                 won,
                 match.getDuration(),
-                xpEarned
+                xpEarned,
+                rank
         );
 
         return new SaveScoreResponse(
@@ -59,13 +76,35 @@ public class PongService {
         );
     }
 
-    public PongHistoryResponse getHistory(Long userId) {
-        List<PongMatch> matches = pongMatchRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    /**
+     * One page of the user's history, most recent first.
+     * Pass the previous response's nextCursor to continue; null starts from the newest entry.
+     */
+    @Transactional(readOnly = true)
+    public PongHistoryResponse getHistory(Long userId, String cursor, int pageSize) {
+        // One extra row tells us whether another page exists
+        PageRequest fetch = PageRequest.of(0, pageSize + 1);
 
-        List<PongHistoryItemDto> history = matches.stream()
+        List<PongMatch> matches;
+        if (cursor == null) {
+            matches = pongMatchRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, fetch);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            matches = pongMatchRepository.findHistoryAfter(userId, after.createdAt(), after.id(), fetch);
+        }
+
+        List<PongMatch> page = matches.size() > pageSize ? matches.subList(0, pageSize) : matches;
+
+        List<PongHistoryItemDto> history = page.stream()
                 .map(PongHistoryItemDto::fromEntity)
                 .toList();
 
-        return new PongHistoryResponse(history);
+        String nextCursor = null;
+        if (matches.size() > pageSize) {
+            PongMatch last = page.get(page.size() - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new PongHistoryResponse(history, nextCursor);
     }
 }
\ No newline at end of file
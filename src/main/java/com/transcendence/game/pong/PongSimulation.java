@@ -0,0 +1,129 @@
+package com.transcendence.game.pong;
+
+/**
+ * Physics of one Pong match, in the frontend's 800x500 court units with the same paddle,
+ * ball and speed-up settings as pages/pong.ts, but with speeds per second so the tick rate
+ * can change. All state is primitive fields and {@link #step} allocates nothing.
+ *
+ * <p>Inputs are written by message threads and read by the game loop; everything else
+ * belongs to the game loop thread.
+ */
+final class PongSimulation {
+
+    static final double WIDTH = 800;
+    static final double HEIGHT = 500;
+    static final double PADDLE_WIDTH = 15;
+    static final double PADDLE_HEIGHT = 100;
+    static final double PADDLE_INSET = 30;
+    static final double BALL_SIZE = 10;
+    // The frontend moves 6 and 4 units per frame at 60 fps
+    static final double PADDLE_SPEED = 360;
+    static final double BALL_SPEED = 240;
+    static final double SPEED_UP = 1.1;
+    // Keeps a long rally from moving the ball further than a paddle per tick
+    static final double MAX_BALL_SPEED = 1200;
+    static final int WINNING_SCORE = 5;
+
+    static final double LEFT_PADDLE_X = PADDLE_INSET;
+    static final double RIGHT_PADDLE_X = WIDTH - PADDLE_INSET - PADDLE_WIDTH;
+
+    // step() result bits
+    static final int HIT = 1;
+    static final int POINT = 2;
+    static final int GAME_OVER = 4;
+
+    double ballX;
+    double ballY;
+    double ballVX;
+    double ballVY;
+    double leftY;
+    double rightY;
+    int leftScore;
+    int rightScore;
+    long tick;
+
+    // -1 up, 0 still, 1 down
+    volatile int leftInput;
+    volatile int rightInput;
+
+    private long random;
+
+    PongSimulation(long seed) {
+        this.random = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+        leftY = (HEIGHT - PADDLE_HEIGHT) / 2;
+        rightY = (HEIGHT - PADDLE_HEIGHT) / 2;
+        ballVX = -BALL_SPEED;
+        serve();
+    }
+
+    /**
+     * Advances the match by dt seconds and reports what happened as HIT / POINT / GAME_OVER bits.
+     */
+    int step(double dt) {
+        tick++;
+        leftY = movePaddle(leftY, leftInput, dt);
+        rightY = movePaddle(rightY, rightInput, dt);
+
+        ballX += ballVX * dt;
+        ballY += ballVY * dt;
+
+        if (ballY < BALL_SIZE) {
+            ballY = BALL_SIZE;
+            ballVY = -ballVY;
+        } else if (ballY > HEIGHT - BALL_SIZE) {
+            ballY = HEIGHT - BALL_SIZE;
+            ballVY = -ballVY;
+        }
+
+        int events = 0;
+        if (ballVX < 0 && ballX - BALL_SIZE < LEFT_PADDLE_X + PADDLE_WIDTH && ballX > 0
+                && ballY > leftY && ballY < leftY + PADDLE_HEIGHT) {
+            ballVX = Math.min(-ballVX * SPEED_UP, MAX_BALL_SPEED);
+            events |= HIT;
+        } else if (ballVX > 0 && ballX + BALL_SIZE > RIGHT_PADDLE_X && ballX < WIDTH
+                && ballY > rightY && ballY < rightY + PADDLE_HEIGHT) {
+            ballVX = -Math.min(ballVX * SPEED_UP, MAX_BALL_SPEED);
+            events |= HIT;
+        }
+
+        if (ballX < 0) {
+            rightScore++;
+            serve();
+            events |= POINT;
+        } else if (ballX > WIDTH) {
+            leftScore++;
+            serve();
+            events |= POINT;
+        }
+
+        if (leftScore >= WINNING_SCORE || rightScore >= WINNING_SCORE) {
+            events |= GAME_OVER;
+        }
+        return events;
+    }
+
+    private static double movePaddle(double y, int input, double dt) {
+        double moved = y + input * PADDLE_SPEED * dt;
+        return Math.max(0, Math.min(moved, HEIGHT - PADDLE_HEIGHT));
+    }
+
+    // Like the frontend: from the centre, back towards the side the ball just left, at a random angle
+    private void serve() {
+        ballX = WIDTH / 2;
+        ballY = HEIGHT / 2;
+        ballVX = ballVX > 0 ? -BALL_SPEED : BALL_SPEED;
+        ballVY = (nextDouble() - 0.5) * BALL_SPEED;
+    }
+
+    // xorshift64*, so serving does not need a Random per match
+    private double nextDouble() {
+        random ^= random >>> 12;
+        random ^= random << 25;
+        random ^= random >>> 27;
+        return ((random * 0x2545F4914F6CDD1DL) >>> 11) * 0x1.0p-53;
+    }
+
+    boolean isOver() {
+        return leftScore >= WINNING_SCORE || rightScore >= WINNING_SCORE;
+    }
+}
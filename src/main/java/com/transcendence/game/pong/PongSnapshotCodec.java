@@ -0,0 +1,147 @@
+package com.transcendence.game.pong;
+
+/**
+ * Binary wire format for Pong state, sent as application/octet-stream STOMP frames.
+ * Positions are quantized to 1/32 of a court unit; all integers are unsigned LEB128 varints.
+ *
+ * <pre>
+ * keyframe: 0x01 tick ballX ballY leftY rightY leftScore rightScore
+ * delta:    0x02 tick (tick - baseTick) mask [zigzag(value - base) for each field set in mask]
+ * </pre>
+ *
+ * A delta can only be applied on top of the state the client holds for baseTick; clients that
+ * do not have it wait for the next keyframe.
+ */
+final class PongSnapshotCodec {
+
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+
+    // ballX, ballY, leftY, rightY, leftScore, rightScore
+    static final int FIELDS = 6;
+    static final double SCALE = 32;
+    // Type, tick, tick gap and mask, then six fields, every varint at its widest
+    static final int MAX_FRAME_SIZE = 1 + 10 + 10 + 1 + FIELDS * 5;
+
+    private PongSnapshotCodec() {
+    }
+
+    /**
+     * Quantizes the simulation into state[offset .. offset + FIELDS).
+     */
+    static void capture(PongSimulation simulation, int[] state, int offset) {
+        state[offset] = quantize(simulation.ballX);
+        state[offset + 1] = quantize(simulation.ballY);
+        state[offset + 2] = quantize(simulation.leftY);
+        state[offset + 3] = quantize(simulation.rightY);
+        state[offset + 4] = simulation.leftScore;
+        state[offset + 5] = simulation.rightScore;
+    }
+
+    static int quantize(double position) {
+        return (int) Math.round(position * SCALE);
+    }
+
+    static double dequantize(int value) {
+        return value / SCALE;
+    }
+
+    /**
+     * Writes a keyframe into out and returns its length.
+     */
+    static int encodeKeyframe(long tick, int[] state, int offset, byte[] out) {
+        int pos = 0;
+        out[pos++] = KEYFRAME;
+        pos = writeVarLong(out, pos, tick);
+        for (int i = 0; i < FIELDS; i++) {
+            pos = writeVarLong(out, pos, state[offset + i] & 0xFFFFFFFFL);
+        }
+        return pos;
+    }
+
+    /**
+     * Writes the changes from the base state into out and returns the length.
+     */
+    static int encodeDelta(long baseTick, int[] base, int baseOffset,
+                           long tick, int[] state, int offset, byte[] out) {
+        int pos = 0;
+        out[pos++] = DELTA;
+        pos = writeVarLong(out, pos, tick);
+        pos = writeVarLong(out, pos, tick - baseTick);
+
+        int maskPos = pos++;
+        int mask = 0;
+        for (int i = 0; i < FIELDS; i++) {
+            int change = state[offset + i] - base[baseOffset + i];
+            if (change != 0) {
+                mask |= 1 << i;
+                pos = writeVarLong(out, pos, ((change << 1) ^ (change >> 31)) & 0xFFFFFFFFL);
+            }
+        }
+        out[maskPos] = (byte) mask;
+        return pos;
+    }
+
+    /**
+     * Applies a frame: fills state from a keyframe, or patches base into state for a delta.
+     * Returns the frame's tick. Reference decoder for clients and tests.
+     */
+    static long decode(byte[] frame, int[] base, int[] state) {
+        int[] pos = {1};
+        long tick = readVarLong(frame, pos);
+
+        if (frame[0] == KEYFRAME) {
+            for (int i = 0; i < FIELDS; i++) {
+                state[i] = (int) readVarLong(frame, pos);
+            }
+            return tick;
+        }
+        if (frame[0] != DELTA) {
+            throw new IllegalArgumentException("Unknown snapshot frame type " + frame[0]);
+        }
+
+        readVarLong(frame, pos);
+        int mask = frame[pos[0]++];
+        for (int i = 0; i < FIELDS; i++) {
+            if ((mask & (1 << i)) != 0) {
+                int zigzag = (int) readVarLong(frame, pos);
+                state[i] = base[i] + ((zigzag >>> 1) ^ -(zigzag & 1));
+            } else {
+                state[i] = base[i];
+            }
+        }
+        return tick;
+    }
+
+    /**
+     * The tick a delta frame was encoded against, or -1 for a keyframe.
+     */
+    static long baseTick(byte[] frame) {
+        if (frame[0] != DELTA) {
+            return -1;
+        }
+        int[] pos = {1};
+        long tick = readVarLong(frame, pos);
+        return tick - readVarLong(frame, pos);
+    }
+
+    private static int writeVarLong(byte[] out, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static long readVarLong(byte[] in, int[] pos) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
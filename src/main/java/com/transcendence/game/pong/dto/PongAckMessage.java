@@ -0,0 +1,15 @@
+package com.transcendence.game.pong.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class PongAckMessage {
+
+    private String matchId;
+
+    private long tick; // latest snapshot the client has decoded
+}
@@ -13,9 +13,17 @@ public class PongHistoryResponse {
 
     private List<PongHistoryItemDto> history;
 
+    // Pass back as ?cursor= to fetch older matches; null when there are none
+    private String nextCursor;
+
     public PongHistoryResponse(List<PongHistoryItemDto> history) {
         this.history = history;
     }
+
+    public PongHistoryResponse(List<PongHistoryItemDto> history, String nextCursor) {
+        this.history = history;
+        this.nextCursor = nextCursor;
+    }
 }
 
 
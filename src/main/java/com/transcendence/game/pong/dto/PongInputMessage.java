@@ -0,0 +1,15 @@
+package com.transcendence.game.pong.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class PongInputMessage {
+
+    private String matchId;
+
+    private int direction; // -1 up, 0 stop, 1 down
+}
@@ -0,0 +1,23 @@
+package com.transcendence.game.pong.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Match lifecycle notice on /user/queue/pong: created, started, finished or error.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PongMatchEventDTO {
+
+    private String type;
+    private String matchId;
+    private String side;       // "left" or "right"
+    private String opponent;
+    private int leftScore;
+    private int rightScore;
+    private String winner;     // username, once finished
+    private String message;
+}
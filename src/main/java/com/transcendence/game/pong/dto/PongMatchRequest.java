@@ -0,0 +1,13 @@
+package com.transcendence.game.pong.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class PongMatchRequest {
+
+    private String matchId;
+}
@@ -1,9 +1,19 @@
 package com.transcendence.leaderboard;
 
+import com.transcendence.leaderboard.dto.LeaderboardPageDTO;
+import com.transcendence.leaderboard.dto.LeaderboardPlayerDTO;
 import com.transcendence.leaderboard.dto.LeaderboardResponseDTO;
+import com.transcendence.security.details.AuthenticatedUser;
+import com.transcendence.stats.StatsVersionTracker;
+import com.transcendence.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/leaderboard")
@@ -15,12 +25,46 @@ import org.springframework.web.bind.annotation.*;
 public class LeaderboardController {
 
     private final LeaderboardService leaderboardService;
+    private final UserRepository userRepository;
+    private final StatsVersionTracker versionTracker;
 
+    private Long getAuthenticatedUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        // JWT-authenticated requests already carry the id, no lookup needed
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+
+        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
+
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Authenticated user not found in database."))
+                .getId();
+    }
+
+    // Clients must revalidate every time, but a matching ETag costs a 304 with no body
+    private static <T> ResponseEntity<T> okWithETag(T body, String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(body);
+    }
+
+    // GET /api/leaderboard or /api/leaderboard?limit=10
     @GetMapping
-    public ResponseEntity<LeaderboardResponseDTO> getLeaderboard() {
+    public ResponseEntity<LeaderboardResponseDTO> getLeaderboard(@RequestParam(required = false) Integer limit,
+                                                                 WebRequest webRequest) {
+        String etag = versionTracker.leaderboardETag(limit == null ? "all" : "top" + limit);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
         try {
-            LeaderboardResponseDTO response = leaderboardService.getLeaderboard();
-            return ResponseEntity.ok(response);
+            LeaderboardResponseDTO response = limit == null
+                    ? leaderboardService.getLeaderboard()
+                    : leaderboardService.getTopPlayers(limit);
+            return okWithETag(response, etag);
         } catch (Exception e) {
             LeaderboardResponseDTO errorResponse = LeaderboardResponseDTO.builder()
                     .error("Failed to load leaderboard")
@@ -28,4 +72,52 @@ public class LeaderboardController {
             return ResponseEntity.status(500).body(errorResponse);
         }
     }
-}
\ No newline at end of file
+
+    // GET /api/leaderboard/rank/{userId}
+    @GetMapping("/rank/{userId}")
+    public ResponseEntity<LeaderboardPlayerDTO> getPlayerRank(@PathVariable Long userId, WebRequest webRequest) {
+        String etag = versionTracker.leaderboardETag("rank" + userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        return leaderboardService.getPlayerRank(userId)
+                .map(player -> okWithETag(player, etag))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // GET /api/leaderboard/page?size=20&cursor=...
+    @GetMapping("/page")
+    public ResponseEntity<LeaderboardPageDTO> getPage(
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        String etag = versionTracker.leaderboardETag("page" + size + (cursor == null ? "" : "." + cursor));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        try {
+            return okWithETag(leaderboardService.getPage(size, cursor), etag);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(LeaderboardPageDTO.builder().error(e.getMessage()).build());
+        }
+    }
+
+    // GET /api/leaderboard/around-me?radius=5
+    @GetMapping("/around-me")
+    public ResponseEntity<LeaderboardPageDTO> getAroundMe(@RequestParam(defaultValue = "5") int radius,
+                                                          WebRequest webRequest) {
+        Long userId = getAuthenticatedUserId();
+
+        String etag = versionTracker.leaderboardETag("around" + userId + "." + radius);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        return leaderboardService.getAroundPlayer(userId, radius)
+                .map(window -> okWithETag(window, etag))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
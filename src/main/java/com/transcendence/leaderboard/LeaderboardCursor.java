@@ -0,0 +1,38 @@
+package com.transcendence.leaderboard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key of the last row served plus its position,
+ * so the next page continues both the ordering and the numbering without an OFFSET or COUNT.
+ */
+record LeaderboardCursor(int xp, int level, long userId, int position) {
+
+    static LeaderboardCursor after(LeaderboardRow row, int position) {
+        return new LeaderboardCursor(row.getXp(), row.getLevel(), row.getUserId(), position);
+    }
+
+    String encode() {
+        String raw = xp + ":" + level + ":" + userId + ":" + position;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static LeaderboardCursor decode(String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if (parts.length == 4) {
+                return new LeaderboardCursor(
+                        Integer.parseInt(parts[0]),
+                        Integer.parseInt(parts[1]),
+                        Long.parseLong(parts[2]),
+                        Integer.parseInt(parts[3]));
+            }
+        } catch (IllegalArgumentException e) {
+            // Covers bad Base64 and NumberFormatException
+            throw new IllegalArgumentException("Malformed leaderboard cursor", e);
+        }
+        throw new IllegalArgumentException("Malformed leaderboard cursor");
+    }
+}
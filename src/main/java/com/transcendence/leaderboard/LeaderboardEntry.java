@@ -0,0 +1,64 @@
+package com.transcendence.leaderboard;
+
+import com.transcendence.entity.UserStats;
+
+/**
+ * Immutable leaderboard row held by {@link RankedLeaderboard}.
+ * Ordering is xp desc, level desc, then user id asc so every player has a stable position.
+ */
+record LeaderboardEntry(
+        long userId,
+        String username,
+        int level,
+        String rank,
+        int totalGames,
+        int wins,
+        int losses,
+        long xp,
+        int bestStreak,
+        double winRate
+) implements Comparable<LeaderboardEntry> {
+
+    static LeaderboardEntry from(UserStats stats) {
+        return new LeaderboardEntry(
+                stats.getUser().getId(),
+                stats.getUser().getUsername(),
+                stats.getLevel(),
+                stats.getRank().name(),
+                stats.getTotalGames(),
+                stats.getWins(),
+                stats.getLosses(),
+                stats.getXp().longValue(),
+                stats.getBestStreak(),
+                stats.getTotalGames() > 0 ? (stats.getWins() * 100.0) / stats.getTotalGames() : 0.0
+        );
+    }
+
+    static LeaderboardEntry from(LeaderboardRow row) {
+        return new LeaderboardEntry(
+                row.getUserId(),
+                row.getUsername(),
+                row.getLevel(),
+                row.getRank().name(),
+                row.getTotalGames(),
+                row.getWins(),
+                row.getLosses(),
+                row.getXp().longValue(),
+                row.getBestStreak(),
+                row.getWinRate()
+        );
+    }
+
+    @Override
+    public int compareTo(LeaderboardEntry other) {
+        int byXp = Long.compare(other.xp, xp);
+        if (byXp != 0) {
+            return byXp;
+        }
+        int byLevel = Integer.compare(other.level, level);
+        if (byLevel != 0) {
+            return byLevel;
+        }
+        return Long.compare(userId, other.userId);
+    }
+}
@@ -0,0 +1,58 @@
+package com.transcendence.leaderboard;
+
+import com.transcendence.entity.UserStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keyset queries over the leaderboard order (xp desc, level desc, user id asc).
+ * Backed by idx_user_stats_leaderboard from schema.sql.
+ */
+public interface LeaderboardRepository extends Repository<UserStats, Long> {
+
+    String SELECT_ROW = "SELECT u.id AS userId, u.username AS username, s.level AS level, s.rank AS rank, "
+            + "s.totalGames AS totalGames, s.wins AS wins, s.losses AS losses, s.xp AS xp, "
+            + "s.bestStreak AS bestStreak, "
+            + "CASE WHEN s.totalGames > 0 THEN (s.wins * 100.0) / s.totalGames ELSE 0.0 END AS winRate "
+            + "FROM UserStats s JOIN s.user u ";
+
+    String AFTER = "WHERE s.xp < :xp OR (s.xp = :xp AND (s.level < :level "
+            + "OR (s.level = :level AND s.user.id > :userId))) ";
+
+    String BEFORE = "WHERE s.xp > :xp OR (s.xp = :xp AND (s.level > :level "
+            + "OR (s.level = :level AND s.user.id < :userId))) ";
+
+    // Whole board in one statement; the join replaces the per-row eager User selects
+    @Query(SELECT_ROW + "ORDER BY s.xp DESC, s.level DESC, s.user.id ASC")
+    List<LeaderboardRow> findAllRanked();
+
+    @Query(SELECT_ROW + "ORDER BY s.xp DESC, s.level DESC, s.user.id ASC")
+    List<LeaderboardRow> findTop(Pageable pageable);
+
+    // Rows ranked below the given key, best first
+    @Query(SELECT_ROW + AFTER + "ORDER BY s.xp DESC, s.level DESC, s.user.id ASC")
+    List<LeaderboardRow> findAfter(@Param("xp") int xp,
+                                   @Param("level") int level,
+                                   @Param("userId") long userId,
+                                   Pageable pageable);
+
+    // Rows ranked above the given key, closest first
+    @Query(SELECT_ROW + BEFORE + "ORDER BY s.xp ASC, s.level ASC, s.user.id DESC")
+    List<LeaderboardRow> findBefore(@Param("xp") int xp,
+                                    @Param("level") int level,
+                                    @Param("userId") long userId,
+                                    Pageable pageable);
+
+    @Query("SELECT COUNT(s) FROM UserStats s " + BEFORE)
+    long countAhead(@Param("xp") int xp,
+                    @Param("level") int level,
+                    @Param("userId") long userId);
+
+    @Query(SELECT_ROW + "WHERE s.user.id = :userId")
+    Optional<LeaderboardRow> findRowByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,30 @@
+package com.transcendence.leaderboard;
+
+import com.transcendence.entity.UserStats;
+
+/**
+ * Closed projection over user_stats JOIN users with only the columns a leaderboard row needs.
+ */
+public interface LeaderboardRow {
+
+    Long getUserId();
+
+    String getUsername();
+
+    Integer getLevel();
+
+    UserStats.Rank getRank();
+
+    Integer getTotalGames();
+
+    Integer getWins();
+
+    Integer getLosses();
+
+    Integer getXp();
+
+    Integer getBestStreak();
+
+    // Computed in the query as wins * 100 / total games, 0 when no games were played
+    Double getWinRate();
+}
@@ -1,8 +1,19 @@
-
 package com.transcendence.leaderboard;
 
+import com.transcendence.leaderboard.dto.LeaderboardPageDTO;
+import com.transcendence.leaderboard.dto.LeaderboardPlayerDTO;
 import com.transcendence.leaderboard.dto.LeaderboardResponseDTO;
 
+import java.util.Optional;
+
 public interface LeaderboardService {
     LeaderboardResponseDTO getLeaderboard();
-}
\ No newline at end of file
+
+    LeaderboardResponseDTO getTopPlayers(int limit);
+
+    Optional<LeaderboardPlayerDTO> getPlayerRank(Long userId);
+
+    LeaderboardPageDTO getPage(int size, String cursor);
+
+    Optional<LeaderboardPageDTO> getAroundPlayer(Long userId, int radius);
+}
@@ -1,53 +1,231 @@
 package com.transcendence.leaderboard;
 
+import com.transcendence.config.AsyncConfig;
+import com.transcendence.config.WebSocketConfig;
+import com.transcendence.leaderboard.dto.LeaderboardPageDTO;
 import com.transcendence.leaderboard.dto.LeaderboardPlayerDTO;
 import com.transcendence.leaderboard.dto.LeaderboardResponseDTO;
-import com.transcendence.entity.UserStats;
-import com.transcendence.stats.UserStatsRepository;
-import lombok.RequiredArgsConstructor;
+import com.transcendence.stats.UserStatsUpdatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
+/**
+ * Top lists and single ranks come from an in-memory ranking kept current from committed stats updates.
+ * That only sees commits made on this instance, so in relay mode (websocket.broker.mode=relay), where
+ * several instances write stats, they are read from the database like the paged views.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class LeaderboardServiceImpl implements LeaderboardService {
 
-    private final UserStatsRepository userStatsRepository;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_WINDOW_RADIUS = 25;
+
+    private final LeaderboardRepository leaderboardRepository;
+
+    // Seeded once from the database, then kept current from committed stats updates
+    private final RankedLeaderboard ranking = new RankedLeaderboard();
+    private volatile boolean seeded;
+
+    private final boolean inMemory;
+
+    public LeaderboardServiceImpl(LeaderboardRepository leaderboardRepository,
+                                  @Value("${websocket.broker.mode:simple}") String brokerMode) {
+        this.leaderboardRepository = leaderboardRepository;
+        this.inMemory = !WebSocketConfig.RELAY_MODE.equalsIgnoreCase(brokerMode);
+    }
+
+    // Loads every player, so it runs off the startup thread; early readers seed on demand instead
+    @Async(AsyncConfig.STATS_EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (inMemory) {
+            ensureSeeded();
+        }
+    }
+
+    // Only committed results move players; a rolled-back game never reaches the board
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatsUpdated(UserStatsUpdatedEvent event) {
+        if (!inMemory) {
+            return;
+        }
+        ranking.upsert(LeaderboardEntry.from(event.stats()));
+    }
 
     @Override
     public LeaderboardResponseDTO getLeaderboard() {
+        return getTopPlayers(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public LeaderboardResponseDTO getTopPlayers(int limit) {
+        List<LeaderboardPlayerDTO> leaderboard;
+        if (inMemory) {
+            ensureSeeded();
+            List<LeaderboardEntry> topPlayers = ranking.top(Math.max(0, limit));
 
-        List<UserStats> topPlayers = userStatsRepository.findAllByOrderByXpDescLevelDesc();
+            leaderboard = new ArrayList<>(topPlayers.size());
+            for (int i = 0; i < topPlayers.size(); i++) {
+                leaderboard.add(convertToDTO(topPlayers.get(i), i + 1));
+            }
+        } else {
+            List<LeaderboardRow> rows = limit <= 0 ? List.of()
+                    : limit == Integer.MAX_VALUE ? leaderboardRepository.findAllRanked()
+                    : leaderboardRepository.findTop(PageRequest.of(0, limit));
 
-        List<LeaderboardPlayerDTO> leaderboard = topPlayers.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+            leaderboard = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                leaderboard.add(convertToDTO(rows.get(i), i + 1));
+            }
+        }
 
         return LeaderboardResponseDTO.builder()
                 .leaderboard(leaderboard)
                 .build();
     }
 
-    private LeaderboardPlayerDTO convertToDTO(UserStats stats) {
-        // Calculate win rate as percentage
-        double winRate = 0.0;
-        if (stats.getTotalGames() > 0) {
-            winRate = (stats.getWins() * 100.0) / stats.getTotalGames();
+    @Override
+    public Optional<LeaderboardPlayerDTO> getPlayerRank(Long userId) {
+        if (!inMemory) {
+            return leaderboardRepository.findRowByUserId(userId).map(row -> convertToDTO(row,
+                    (int) leaderboardRepository.countAhead(row.getXp(), row.getLevel(), userId) + 1));
         }
+        ensureSeeded();
+
+        LeaderboardEntry entry = ranking.get(userId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        return Optional.of(convertToDTO(entry, ranking.rankOf(userId)));
+    }
+
+    @Override
+    public LeaderboardPageDTO getPage(int size, String cursor) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // One extra row tells us whether another page exists
+        PageRequest fetch = PageRequest.of(0, pageSize + 1);
+
+        LeaderboardCursor after = cursor == null ? null : LeaderboardCursor.decode(cursor);
+        List<LeaderboardRow> rows = after == null
+                ? leaderboardRepository.findTop(fetch)
+                : leaderboardRepository.findAfter(after.xp(), after.level(), after.userId(), fetch);
+
+        int firstPosition = after == null ? 1 : after.position() + 1;
+        return toPage(rows, pageSize, firstPosition, null);
+    }
+
+    @Override
+    public Optional<LeaderboardPageDTO> getAroundPlayer(Long userId, int radius) {
+        int window = Math.min(Math.max(radius, 0), MAX_WINDOW_RADIUS);
+
+        Optional<LeaderboardRow> me = leaderboardRepository.findRowByUserId(userId);
+        if (me.isEmpty()) {
+            return Optional.empty();
+        }
+        LeaderboardRow row = me.get();
+        int xp = row.getXp();
+        int level = row.getLevel();
+
+        int myPosition = (int) leaderboardRepository.countAhead(xp, level, userId) + 1;
+
+        List<LeaderboardRow> above = window == 0 ? List.of()
+                : leaderboardRepository.findBefore(xp, level, userId, PageRequest.of(0, window));
+        List<LeaderboardRow> below = leaderboardRepository.findAfter(xp, level, userId, PageRequest.of(0, window + 1));
+
+        // findBefore returns the closest rows first, so flip them back into leaderboard order
+        List<LeaderboardRow> rows = new ArrayList<>(above.size() + 1 + below.size());
+        for (int i = above.size() - 1; i >= 0; i--) {
+            rows.add(above.get(i));
+        }
+        rows.add(row);
+        rows.addAll(below);
+
+        int served = above.size() + 1 + window;
+        return Optional.of(toPage(rows, served, myPosition - above.size(), myPosition));
+    }
+
+    private LeaderboardPageDTO toPage(List<LeaderboardRow> rows, int limit, int firstPosition, Integer myPosition) {
+        int count = Math.min(rows.size(), limit);
+
+        List<LeaderboardPlayerDTO> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(convertToDTO(rows.get(i), firstPosition + i));
+        }
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            nextCursor = LeaderboardCursor.after(rows.get(count - 1), firstPosition + count - 1).encode();
+        }
+
+        return LeaderboardPageDTO.builder()
+                .players(players)
+                .nextCursor(nextCursor)
+                .myPosition(myPosition)
+                .build();
+    }
+
+    private void ensureSeeded() {
+        if (seeded) {
+            return;
+        }
+        synchronized (ranking) {
+            if (seeded) {
+                return;
+            }
+            List<LeaderboardRow> rows = leaderboardRepository.findAllRanked();
+
+            // upsert keeps whichever is newer if a game committed while we were reading
+            for (LeaderboardRow row : rows) {
+                ranking.upsert(LeaderboardEntry.from(row));
+            }
+            seeded = true;
+            log.info("Leaderboard seeded with {} players", rows.size());
+        }
+    }
+
+    private LeaderboardPlayerDTO convertToDTO(LeaderboardEntry entry, int position) {
+        return LeaderboardPlayerDTO.builder()
+                .id(entry.userId())
+                .username(entry.username())
+                .position(position)
+                .level(entry.level())
+                .rank(entry.rank())
+                .totalGames(entry.totalGames())
+                .wins(entry.wins())
+                .losses(entry.losses())
+                .xp(entry.xp())
+                .bestStreak(entry.bestStreak())
+                .winRate(entry.winRate())
+                .build();
+    }
 
+    private LeaderboardPlayerDTO convertToDTO(LeaderboardRow row, int position) {
         return LeaderboardPlayerDTO.builder()
-                .id(stats.getUser().getId())
-                .username(stats.getUser().getUsername())
-                .level(stats.getLevel())
-                .rank(stats.getRank().name()) // Convert enum to String
-                .totalGames(stats.getTotalGames())
-                .wins(stats.getWins())
-                .losses(stats.getLosses())
-                .xp(stats.getXp().longValue())
-                .bestStreak(stats.getBestStreak())
-                .winRate(winRate)
+                .id(row.getUserId())
+                .username(row.getUsername())
+                .position(position)
+                .level(row.getLevel())
+                .rank(row.getRank().name())
+                .totalGames(row.getTotalGames())
+                .wins(row.getWins())
+                .losses(row.getLosses())
+                .xp(row.getXp().longValue())
+                .bestStreak(row.getBestStreak())
+                .winRate(row.getWinRate())
                 .build();
     }
 }
@@ -0,0 +1,226 @@
+package com.transcendence.leaderboard;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory order-statistic treap of leaderboard entries.
+ * Top-k reads are O(k), rank lookups and updates O(log n) expected; readers share a lock
+ * and only block while a game result is being applied.
+ */
+class RankedLeaderboard {
+
+    private static final class Node {
+        final LeaderboardEntry entry;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(LeaderboardEntry entry) {
+            this.entry = entry;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, LeaderboardEntry> byUserId = new HashMap<>();
+    private Node root;
+
+    /**
+     * Inserts or repositions a player. Entries older than the one already held
+     * (fewer games played) are ignored, so late or out-of-order updates cannot roll a player back.
+     */
+    boolean upsert(LeaderboardEntry entry) {
+        lock.writeLock().lock();
+        try {
+            LeaderboardEntry current = byUserId.get(entry.userId());
+            if (current != null) {
+                if (entry.totalGames() < current.totalGames()) {
+                    return false;
+                }
+                root = remove(root, current);
+            }
+            byUserId.put(entry.userId(), entry);
+            root = insert(root, new Node(entry));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            LeaderboardEntry current = byUserId.remove(userId);
+            if (current != null) {
+                root = remove(root, current);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            byUserId.clear();
+            root = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** The first {@code k} entries in leaderboard order. */
+    List<LeaderboardEntry> top(int k) {
+        lock.readLock().lock();
+        try {
+            List<LeaderboardEntry> result = new ArrayList<>(Math.min(k, size(root)));
+            Deque<Node> stack = new ArrayDeque<>();
+            Node node = root;
+
+            while ((node != null || !stack.isEmpty()) && result.size() < k) {
+                while (node != null) {
+                    stack.push(node);
+                    node = node.left;
+                }
+                node = stack.pop();
+                result.add(node.entry);
+                node = node.right;
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 1-based position of the player, or 0 if the player is not on the board. */
+    int rankOf(long userId) {
+        lock.readLock().lock();
+        try {
+            LeaderboardEntry entry = byUserId.get(userId);
+            if (entry == null) {
+                return 0;
+            }
+
+            int before = 0;
+            Node node = root;
+            while (node != null) {
+                int cmp = entry.compareTo(node.entry);
+                if (cmp < 0) {
+                    node = node.left;
+                } else {
+                    before += size(node.left);
+                    if (cmp == 0) {
+                        return before + 1;
+                    }
+                    before++;
+                    node = node.right;
+                }
+            }
+            throw new IllegalStateException("Leaderboard index out of sync for user " + userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    LeaderboardEntry get(long userId) {
+        lock.readLock().lock();
+        try {
+            return byUserId.get(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- treap internals (callers hold the write lock) ----
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            Node[] parts = split(node, added.entry);
+            added.left = parts[0];
+            added.right = parts[1];
+            return update(added);
+        }
+        if (added.entry.compareTo(node.entry) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return update(node);
+    }
+
+    private static Node remove(Node node, LeaderboardEntry entry) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = entry.compareTo(node.entry);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, entry);
+        } else {
+            node.right = remove(node.right, entry);
+        }
+        return update(node);
+    }
+
+    // Splits into (< key, >= key)
+    private static Node[] split(Node node, LeaderboardEntry key) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (node.entry.compareTo(key) < 0) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            return new Node[]{update(node), parts[1]};
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        return new Node[]{parts[0], update(node)};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+}
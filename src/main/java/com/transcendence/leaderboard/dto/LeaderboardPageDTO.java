@@ -0,0 +1,22 @@
+package com.transcendence.leaderboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardPageDTO {
+
+    private List<LeaderboardPlayerDTO> players;
+    // Pass back as ?cursor= to fetch the next page; null on the last page
+    private String nextCursor;
+    // Set for the around-me window: the caller's own position
+    private Integer myPosition;
+    private String error;
+}
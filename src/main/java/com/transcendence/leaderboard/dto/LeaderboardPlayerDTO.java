@@ -14,6 +14,7 @@ public class LeaderboardPlayerDTO {
 
     private Long id;
     private String username;
+    private Integer position;
     private Integer level;
     private String rank;
     private Integer totalGames;
@@ -0,0 +1,123 @@
+package com.transcendence.rating;
+
+/**
+ * The Glicko-2 rating system (Glickman, "Example of the Glicko-2 system", 2013).
+ * Ratings and deviations are kept on the familiar 1500 / 350 scale and converted to the
+ * Glicko-2 scale only inside the update.
+ */
+final class Glicko2 {
+
+    static final double DEFAULT_RATING = 1500;
+    static final double DEFAULT_RD = 350;
+    static final double DEFAULT_VOLATILITY = 0.06;
+
+    private static final double SCALE = 173.7178;
+    private static final double CONVERGENCE = 0.000001;
+
+    // Constrains how fast volatility changes; Glickman suggests 0.3 to 1.2
+    private final double tau;
+
+    Glicko2(double tau) {
+        this.tau = tau;
+    }
+
+    /**
+     * Adds one game to the player's current period, scored 1 for a win and 0 for a loss,
+     * against an opponent's rating for that period, then recomputes the player's rating.
+     * The player must have been moved into the period with {@link RatingState#open}.
+     */
+    void addGame(RatingState player, double opponentRating, double opponentRd, double score) {
+        double mu = toMu(player.baseRating);
+        double opponentMu = toMu(opponentRating);
+        double g = g(toPhi(opponentRd));
+        double expected = 1 / (1 + Math.exp(-g * (mu - opponentMu)));
+
+        player.varianceInverse += g * g * expected * (1 - expected);
+        player.improvement += g * (score - expected);
+        player.games++;
+        settle(player);
+    }
+
+    // Steps 3 to 8 of the paper, from the period's base rating and the sums of its games
+    private void settle(RatingState player) {
+        double mu = toMu(player.baseRating);
+        double phi = toPhi(player.baseRd);
+        double v = 1 / player.varianceInverse;
+        double delta = v * player.improvement;
+
+        double sigma = volatility(phi, player.baseVolatility, v, delta);
+        double phiStar = Math.sqrt(phi * phi + sigma * sigma);
+        double newPhi = 1 / Math.sqrt(1 / (phiStar * phiStar) + player.varianceInverse);
+        double newMu = mu + newPhi * newPhi * player.improvement;
+
+        player.rating = newMu * SCALE + DEFAULT_RATING;
+        player.rd = Math.min(DEFAULT_RD, newPhi * SCALE);
+        player.volatility = sigma;
+    }
+
+    // Step 5: the Illinois variant of regula falsi on f(x), x = ln(sigma'^2)
+    private double volatility(double phi, double sigma, double v, double delta) {
+        double a = Math.log(sigma * sigma);
+        double phi2 = phi * phi;
+        double delta2 = delta * delta;
+
+        double lower = a;
+        double upper;
+        if (delta2 > phi2 + v) {
+            upper = Math.log(delta2 - phi2 - v);
+        } else {
+            int k = 1;
+            while (f(a - k * tau, a, phi2, v, delta2) < 0) {
+                k++;
+            }
+            upper = a - k * tau;
+        }
+
+        double fLower = f(lower, a, phi2, v, delta2);
+        double fUpper = f(upper, a, phi2, v, delta2);
+        while (Math.abs(upper - lower) > CONVERGENCE) {
+            double c = lower + (lower - upper) * fLower / (fUpper - fLower);
+            double fC = f(c, a, phi2, v, delta2);
+            if (fC * fUpper <= 0) {
+                lower = upper;
+                fLower = fUpper;
+            } else {
+                fLower /= 2;
+            }
+            upper = c;
+            fUpper = fC;
+        }
+        return Math.exp(lower / 2);
+    }
+
+    private double f(double x, double a, double phi2, double v, double delta2) {
+        double ex = Math.exp(x);
+        double denominator = phi2 + v + ex;
+        return ex * (delta2 - phi2 - v - ex) / (2 * denominator * denominator) - (x - a) / (tau * tau);
+    }
+
+    /**
+     * A deviation after the given number of periods without games (step 6 applied alone).
+     * Never exceeds the deviation of a new player.
+     */
+    static double inflate(double rd, double volatility, long idlePeriods) {
+        if (idlePeriods <= 0) {
+            return rd;
+        }
+        double phi = toPhi(rd);
+        double inflated = Math.sqrt(phi * phi + idlePeriods * volatility * volatility) * SCALE;
+        return Math.min(DEFAULT_RD, inflated);
+    }
+
+    private static double g(double phi) {
+        return 1 / Math.sqrt(1 + 3 * phi * phi / (Math.PI * Math.PI));
+    }
+
+    private static double toMu(double rating) {
+        return (rating - DEFAULT_RATING) / SCALE;
+    }
+
+    private static double toPhi(double rd) {
+        return rd / SCALE;
+    }
+}
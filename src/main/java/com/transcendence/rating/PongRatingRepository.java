@@ -0,0 +1,160 @@
+package com.transcendence.rating;
+
+import com.transcendence.entity.PongMatch;
+import com.transcendence.entity.UserStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * pong_ratings and pong_match_opponents from schema.sql, on plain JDBC so that the batch
+ * recompute can stream the whole match history and write ratings back in batches.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PongRatingRepository {
+
+    private static final String COLUMNS = "rating, rd, volatility, games, period, base_rating, base_rd, "
+            + "base_volatility, variance_inverse, improvement";
+
+    private static final String SELECT = "SELECT mode, " + COLUMNS + " FROM pong_ratings ";
+
+    private static final String UPSERT = "INSERT INTO pong_ratings (user_id, mode, " + COLUMNS + ", updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (user_id, mode) DO UPDATE SET rating = excluded.rating, rd = excluded.rd, "
+            + "volatility = excluded.volatility, games = excluded.games, period = excluded.period, "
+            + "base_rating = excluded.base_rating, base_rd = excluded.base_rd, "
+            + "base_volatility = excluded.base_volatility, variance_inverse = excluded.variance_inverse, "
+            + "improvement = excluded.improvement, updated_at = excluded.updated_at";
+
+    // Oldest first; id orders matches saved within the same millisecond
+    private static final String HISTORY = "SELECT m.user_id, m.mode, m.winner, m.created_at, o.opponent_id "
+            + "FROM pong_matches m LEFT JOIN pong_match_opponents o ON o.match_id = m.id "
+            + "ORDER BY m.created_at, m.id";
+
+    private static final String UPDATE_RANK = "UPDATE user_stats SET rank = ? WHERE user_id = ?";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Receives one row of the match history: one player's side of a match.
+     */
+    @FunctionalInterface
+    interface MatchRow {
+        void accept(long userId, PongMatch.Mode mode, boolean won, Long opponentId, long playedAt);
+    }
+
+    Map<PongMatch.Mode, RatingState> findByUser(long userId) {
+        Map<PongMatch.Mode, RatingState> ratings = new EnumMap<>(PongMatch.Mode.class);
+        jdbcTemplate.query(SELECT + "WHERE user_id = ?",
+                rs -> {
+                    ratings.put(PongMatch.Mode.fromValue(rs.getString("mode")), map(rs));
+                },
+                userId);
+        return ratings;
+    }
+
+    Optional<RatingState> find(long userId, PongMatch.Mode mode) {
+        List<RatingState> found = jdbcTemplate.query(SELECT + "WHERE user_id = ? AND mode = ?",
+                (rs, row) -> map(rs), userId, mode.getValue());
+        return found.stream().findFirst();
+    }
+
+    void save(long userId, PongMatch.Mode mode, RatingState state, long now) {
+        jdbcTemplate.update(UPSERT, row(userId, mode, state, now));
+    }
+
+    /**
+     * Remembers who a two-player match was against; pong_matches itself has no column for it.
+     */
+    void linkOpponent(long matchId, long opponentId) {
+        jdbcTemplate.update("INSERT OR REPLACE INTO pong_match_opponents (match_id, opponent_id) VALUES (?, ?)",
+                matchId, opponentId);
+    }
+
+    /**
+     * Streams the whole match history in time order without building entities.
+     */
+    void forEachMatch(MatchRow consumer) {
+        jdbcTemplate.query(HISTORY, rs -> {
+            // wasNull() refers to the last column read, so check it before reading another;
+            // local two-player matches have no opponent row
+            long opponentId = rs.getLong("opponent_id");
+            Long opponent = rs.wasNull() ? null : opponentId;
+            consumer.accept(
+                    rs.getLong("user_id"),
+                    PongMatch.Mode.fromValue(rs.getString("mode")),
+                    PongMatch.Winner.player.name().equals(rs.getString("winner")),
+                    opponent,
+                    rs.getTimestamp("created_at").getTime());
+        });
+    }
+
+    /**
+     * Swaps every stored rating for the replayed ones. Call inside a transaction.
+     */
+    void replaceAll(RatingReplay replay, long now) {
+        jdbcTemplate.update("DELETE FROM pong_ratings");
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < replay.players(); i++) {
+            RatingState state = replay.state(i);
+            if (state.games == 0) {
+                continue;
+            }
+            batch.add(row(replay.userId(i), replay.mode(i), state, now));
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(UPSERT, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT, batch);
+        }
+    }
+
+    void updateRanks(Map<Long, UserStats.Rank> ranks) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (Map.Entry<Long, UserStats.Rank> entry : ranks.entrySet()) {
+            batch.add(new Object[]{entry.getValue().name(), entry.getKey()});
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(UPDATE_RANK, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_RANK, batch);
+        }
+    }
+
+    private static Object[] row(long userId, PongMatch.Mode mode, RatingState state, long now) {
+        return new Object[]{userId, mode.getValue(), state.rating, state.rd, state.volatility, state.games,
+                state.period, state.baseRating, state.baseRd, state.baseVolatility, state.varianceInverse,
+                state.improvement, now};
+    }
+
+    private static RatingState map(ResultSet rs) throws SQLException {
+        RatingState state = new RatingState();
+        state.rating = rs.getDouble("rating");
+        state.rd = rs.getDouble("rd");
+        state.volatility = rs.getDouble("volatility");
+        state.games = rs.getInt("games");
+        state.period = rs.getLong("period");
+        state.baseRating = rs.getDouble("base_rating");
+        state.baseRd = rs.getDouble("base_rd");
+        state.baseVolatility = rs.getDouble("base_volatility");
+        state.varianceInverse = rs.getDouble("variance_inverse");
+        state.improvement = rs.getDouble("improvement");
+        return state;
+    }
+}
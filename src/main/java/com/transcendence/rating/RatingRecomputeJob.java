@@ -0,0 +1,109 @@
+package com.transcendence.rating;
+
+import com.transcendence.entity.UserStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds every rating from the full pong_matches history, for when the rating algorithm or
+ * its settings change. The history is streamed over JDBC into {@link RatingReplay}, replayed
+ * period by period on a fork/join pool, and written back with batched statements in one
+ * transaction, together with the ranks it implies.
+ *
+ * <p>Enable rating.recompute-on-startup to run it once at boot, before the leaderboard loads.
+ * Results saved while it runs are overwritten, so run it when no games are being played.
+ */
+@Slf4j
+@Component
+public class RatingRecomputeJob implements ApplicationRunner {
+
+    private final PongRatingRepository ratingRepository;
+    private final RatingService ratingService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean onStartup;
+    private final int parallelism;
+
+    private final Timer recomputeTimer;
+
+    public RatingRecomputeJob(PongRatingRepository ratingRepository,
+                              RatingService ratingService,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${rating.recompute-on-startup:false}") boolean onStartup,
+                              @Value("${rating.recompute.parallelism:0}") int parallelism) {
+        this.ratingRepository = ratingRepository;
+        this.ratingService = ratingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.onStartup = onStartup;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+
+        this.recomputeTimer = Timer.builder("rating.recompute")
+                .description("Time to rebuild all ratings from the match history")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (onStartup) {
+            recompute();
+        }
+    }
+
+    /**
+     * Replays all matches and replaces the stored ratings. Returns the number of ratings written.
+     */
+    public int recompute() {
+        long start = System.nanoTime();
+
+        RatingReplay replay = ratingService.newReplay();
+        ratingRepository.forEachMatch((userId, mode, won, opponentId, playedAt) ->
+                replay.add(userId, mode, won, opponentId, ratingService.periodOf(playedAt)));
+        long loaded = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            replay.run(pool);
+        } finally {
+            pool.shutdown();
+        }
+        long replayed = System.nanoTime();
+
+        Map<Long, Double> best = new HashMap<>();
+        int rated = 0;
+        for (int i = 0; i < replay.players(); i++) {
+            RatingState state = replay.state(i);
+            if (state.games > 0) {
+                best.merge(replay.userId(i), state.conservativeRating(), Math::max);
+                rated++;
+            }
+        }
+        Map<Long, UserStats.Rank> ranks = new HashMap<>(best.size() * 2);
+        best.forEach((userId, rating) -> ranks.put(userId, RatingService.rankFor(rating)));
+
+        long now = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            ratingRepository.replaceAll(replay, now);
+            ratingRepository.updateRanks(ranks);
+        });
+
+        long elapsed = System.nanoTime() - start;
+        recomputeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Recomputed {} ratings for {} users from {} matches in {} ms (load {} ms, replay {} ms, write {} ms)",
+                rated, ranks.size(), replay.games(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+                TimeUnit.NANOSECONDS.toMillis(loaded - start), TimeUnit.NANOSECONDS.toMillis(replayed - loaded),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - replayed));
+        return rated;
+    }
+}
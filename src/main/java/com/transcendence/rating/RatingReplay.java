@@ -0,0 +1,218 @@
+package com.transcendence.rating;
+
+import com.transcendence.entity.PongMatch;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Replays a match history into fresh ratings, one rating period after another.
+ *
+ * <p>Periods depend on each other and run in order. Inside a period every player's update reads
+ * only the ratings everyone had when it opened, so the players of a period are updated in
+ * parallel on a fork/join pool. Games are kept in primitive arrays, one entry per pong_matches
+ * row, so a million of them take a few dozen megabytes.
+ */
+final class RatingReplay {
+
+    static final int UNKNOWN_OPPONENT = -1;
+    static final int COMPUTER = -2;
+
+    // Below this many players a period is not worth forking
+    private static final int PARALLEL_THRESHOLD = 256;
+    private static final int PLAYERS_PER_TASK = 64;
+
+    private final Glicko2 glicko;
+    private final double computerRating;
+    private final double computerRd;
+
+    // A player is one user in one mode
+    private final Map<Long, Integer> playerIndex = new HashMap<>();
+    private long[] userIds = new long[256];
+    private PongMatch.Mode[] modes = new PongMatch.Mode[256];
+    private int players;
+
+    private int[] player = new int[1024];
+    private int[] opponent = new int[1024];
+    private boolean[] won = new boolean[1024];
+    private long[] period = new long[1024];
+    private int games;
+
+    private RatingState[] states;
+
+    RatingReplay(Glicko2 glicko, double computerRating, double computerRd) {
+        this.glicko = glicko;
+        this.computerRating = computerRating;
+        this.computerRd = computerRd;
+    }
+
+    /**
+     * Adds one player's side of a match. Games must arrive in time order.
+     * One-player games are against the computer; two-player games without a recorded
+     * opponent (local matches on one keyboard) are against an unrated player.
+     */
+    void add(long userId, PongMatch.Mode mode, boolean playerWon, Long opponentId, long atPeriod) {
+        if (games > 0 && atPeriod < period[games - 1]) {
+            throw new IllegalArgumentException("Games must be added in time order");
+        }
+        if (games == player.length) {
+            int capacity = games * 2;
+            player = Arrays.copyOf(player, capacity);
+            opponent = Arrays.copyOf(opponent, capacity);
+            won = Arrays.copyOf(won, capacity);
+            period = Arrays.copyOf(period, capacity);
+        }
+
+        player[games] = indexOf(userId, mode);
+        if (mode == PongMatch.Mode.ONE_PLAYER) {
+            opponent[games] = COMPUTER;
+        } else {
+            opponent[games] = opponentId != null ? indexOf(opponentId, mode) : UNKNOWN_OPPONENT;
+        }
+        won[games] = playerWon;
+        period[games] = atPeriod;
+        games++;
+    }
+
+    void run(ForkJoinPool pool) {
+        states = new RatingState[players];
+        for (int i = 0; i < players; i++) {
+            states[i] = new RatingState();
+        }
+
+        // (player << 32 | game) sorts a period's games by player, keeping each player's in time order
+        long[] keys = new long[games];
+        int[] runs = new int[games + 1];
+
+        int from = 0;
+        while (from < games) {
+            int to = from + 1;
+            while (to < games && period[to] == period[from]) {
+                to++;
+            }
+            int count = to - from;
+            for (int i = 0; i < count; i++) {
+                keys[i] = (long) player[from + i] << 32 | (from + i);
+            }
+            if (count >= PARALLEL_THRESHOLD) {
+                Arrays.parallelSort(keys, 0, count);
+            } else {
+                Arrays.sort(keys, 0, count);
+            }
+
+            // Everyone who plays moves into the period before anyone reads their opening rating
+            int runCount = 0;
+            long at = period[from];
+            for (int i = 0; i < count; i++) {
+                int p = (int) (keys[i] >>> 32);
+                if (i == 0 || p != (int) (keys[i - 1] >>> 32)) {
+                    runs[runCount++] = i;
+                    states[p].open(at);
+                }
+            }
+            runs[runCount] = count;
+
+            if (runCount >= PARALLEL_THRESHOLD) {
+                pool.invoke(new PeriodTask(keys, runs, 0, runCount, at));
+            } else {
+                settle(keys, runs, 0, runCount, at);
+            }
+            from = to;
+        }
+    }
+
+    private void settle(long[] keys, int[] runs, int fromRun, int toRun, long at) {
+        for (int r = fromRun; r < toRun; r++) {
+            for (int i = runs[r]; i < runs[r + 1]; i++) {
+                int game = (int) keys[i];
+                RatingState state = states[player[game]];
+                int against = opponent[game];
+
+                double rating;
+                double rd;
+                if (against == COMPUTER) {
+                    rating = computerRating;
+                    rd = computerRd;
+                } else if (against == UNKNOWN_OPPONENT) {
+                    rating = Glicko2.DEFAULT_RATING;
+                    rd = Glicko2.DEFAULT_RD;
+                } else {
+                    rating = states[against].baseRatingAt(at);
+                    rd = states[against].baseRdAt(at);
+                }
+                glicko.addGame(state, rating, rd, won[game] ? 1 : 0);
+            }
+        }
+    }
+
+    private final class PeriodTask extends RecursiveAction {
+
+        private final long[] keys;
+        private final int[] runs;
+        private final int fromRun;
+        private final int toRun;
+        private final long at;
+
+        PeriodTask(long[] keys, int[] runs, int fromRun, int toRun, long at) {
+            this.keys = keys;
+            this.runs = runs;
+            this.fromRun = fromRun;
+            this.toRun = toRun;
+            this.at = at;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRun - fromRun <= PLAYERS_PER_TASK) {
+                settle(keys, runs, fromRun, toRun, at);
+                return;
+            }
+            int middle = (fromRun + toRun) >>> 1;
+            invokeAll(new PeriodTask(keys, runs, fromRun, middle, at),
+                    new PeriodTask(keys, runs, middle, toRun, at));
+        }
+    }
+
+    private int indexOf(long userId, PongMatch.Mode mode) {
+        long key = userId << 1 | mode.ordinal();
+        Integer index = playerIndex.get(key);
+        if (index != null) {
+            return index;
+        }
+        if (players == userIds.length) {
+            userIds = Arrays.copyOf(userIds, players * 2);
+            modes = Arrays.copyOf(modes, players * 2);
+        }
+        userIds[players] = userId;
+        modes[players] = mode;
+        playerIndex.put(key, players);
+        return players++;
+    }
+
+    int games() {
+        return games;
+    }
+
+    int players() {
+        return players;
+    }
+
+    long userId(int index) {
+        return userIds[index];
+    }
+
+    PongMatch.Mode mode(int index) {
+        return modes[index];
+    }
+
+    /**
+     * The replayed rating of a player; only valid after {@link #run}. Opponents who never
+     * saved a game of their own keep the default rating and have no games.
+     */
+    RatingState state(int index) {
+        return states[index];
+    }
+}
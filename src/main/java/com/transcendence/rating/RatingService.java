@@ -0,0 +1,102 @@
+package com.transcendence.rating;
+
+import com.transcendence.entity.PongMatch;
+import com.transcendence.entity.UserStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Glicko-2 ratings per user and Pong mode, updated in the transaction that saves each result.
+ * One-player games are rated against the computer at a fixed rating; two-player games against
+ * the opponent's two-player rating when the server knows who they were (online matches), else
+ * against an unrated player. The player's rank follows their best conservative rating.
+ */
+@Service
+@Transactional
+public class RatingService {
+
+    private final PongRatingRepository ratingRepository;
+    private final Glicko2 glicko;
+    private final long periodMillis;
+    private final double computerRating;
+    private final double computerRd;
+
+    public RatingService(PongRatingRepository ratingRepository,
+                         @Value("${rating.tau:0.5}") double tau,
+                         @Value("${rating.period-hours:24}") long periodHours,
+                         @Value("${rating.computer.rating:1500}") double computerRating,
+                         @Value("${rating.computer.rd:60}") double computerRd) {
+        this.ratingRepository = ratingRepository;
+        this.glicko = new Glicko2(tau);
+        this.periodMillis = TimeUnit.HOURS.toMillis(Math.max(1, periodHours));
+        this.computerRating = computerRating;
+        this.computerRd = computerRd;
+    }
+
+    /**
+     * Rates a just-saved match and returns the player's new rank.
+     * opponentId is the other player's user id for an online two-player match, otherwise null.
+     */
+    public UserStats.Rank record(PongMatch match, Long opponentId) {
+        long userId = match.getUserId();
+        PongMatch.Mode mode = match.getMode();
+        long playedAt = match.getCreatedAt() != null
+                ? match.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        long period = periodOf(playedAt);
+
+        double opponentRating = Glicko2.DEFAULT_RATING;
+        double opponentRd = Glicko2.DEFAULT_RD;
+        if (mode == PongMatch.Mode.ONE_PLAYER) {
+            opponentRating = computerRating;
+            opponentRd = computerRd;
+        } else if (opponentId != null) {
+            ratingRepository.linkOpponent(match.getId(), opponentId);
+            RatingState opponent = ratingRepository.find(opponentId, mode).orElseGet(RatingState::new);
+            opponentRating = opponent.baseRatingAt(period);
+            opponentRd = opponent.baseRdAt(period);
+        }
+
+        Map<PongMatch.Mode, RatingState> ratings = ratingRepository.findByUser(userId);
+        RatingState rating = ratings.computeIfAbsent(mode, m -> new RatingState());
+        rating.open(period);
+        glicko.addGame(rating, opponentRating, opponentRd, match.isPlayerWin() ? 1 : 0);
+        ratingRepository.save(userId, mode, rating, System.currentTimeMillis());
+
+        double best = Double.NEGATIVE_INFINITY;
+        for (RatingState state : ratings.values()) {
+            best = Math.max(best, state.conservativeRating());
+        }
+        return rankFor(best);
+    }
+
+    RatingReplay newReplay() {
+        return new RatingReplay(glicko, computerRating, computerRd);
+    }
+
+    long periodOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, periodMillis);
+    }
+
+    // Conservative rating = rating - 2 RD, so a new player (1500 +- 350) starts as a Novice
+    static UserStats.Rank rankFor(double conservativeRating) {
+        if (conservativeRating >= 1900) {
+            return UserStats.Rank.Master;
+        }
+        if (conservativeRating >= 1700) {
+            return UserStats.Rank.Expert;
+        }
+        if (conservativeRating >= 1500) {
+            return UserStats.Rank.Pro;
+        }
+        if (conservativeRating >= 1300) {
+            return UserStats.Rank.Amateur;
+        }
+        return UserStats.Rank.Novice;
+    }
+}
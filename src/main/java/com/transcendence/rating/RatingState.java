@@ -0,0 +1,73 @@
+package com.transcendence.rating;
+
+/**
+ * One player's Glicko-2 rating in one game mode, as stored in pong_ratings.
+ *
+ * <p>Glicko-2 rates all games of a rating period together against the ratings everyone had when
+ * the period opened. The state therefore keeps that opening rating (base*) next to the current
+ * one, plus the two sums the period's games contribute; each new game adds to the sums and the
+ * current rating is recomputed from base and sums. Replaying a period game by game or all at
+ * once gives the same result, which is what lets the live update and the batch recompute agree.
+ */
+final class RatingState {
+
+    static final long NO_PERIOD = Long.MIN_VALUE;
+
+    double rating = Glicko2.DEFAULT_RATING;
+    double rd = Glicko2.DEFAULT_RD;
+    double volatility = Glicko2.DEFAULT_VOLATILITY;
+    int games;
+
+    // The period the player last played in, and their rating when it opened
+    long period = NO_PERIOD;
+    double baseRating = Glicko2.DEFAULT_RATING;
+    double baseRd = Glicko2.DEFAULT_RD;
+    double baseVolatility = Glicko2.DEFAULT_VOLATILITY;
+
+    // Sums over the period's games, on the Glicko-2 scale: 1/v and delta/v
+    double varianceInverse;
+    double improvement;
+
+    /**
+     * The rating opponents play against in the given period.
+     */
+    double baseRatingAt(long at) {
+        if (period == NO_PERIOD) {
+            return Glicko2.DEFAULT_RATING;
+        }
+        return at > period ? rating : baseRating;
+    }
+
+    /**
+     * The deviation opponents play against in the given period; it grows with every idle period.
+     */
+    double baseRdAt(long at) {
+        if (period == NO_PERIOD) {
+            return Glicko2.DEFAULT_RD;
+        }
+        return at > period ? Glicko2.inflate(rd, volatility, at - period - 1) : baseRd;
+    }
+
+    /**
+     * Moves the player into the given period before one of its games is added.
+     * A game stamped before the current period (clock skew) counts towards the current one.
+     */
+    void open(long at) {
+        if (period != NO_PERIOD && at <= period) {
+            return;
+        }
+        baseRating = baseRatingAt(at);
+        baseRd = baseRdAt(at);
+        baseVolatility = period == NO_PERIOD ? Glicko2.DEFAULT_VOLATILITY : volatility;
+        varianceInverse = 0;
+        improvement = 0;
+        period = at;
+    }
+
+    /**
+     * Lower bound of the player's likely strength; an uncertain rating counts for less.
+     */
+    double conservativeRating() {
+        return rating - 2 * rd;
+    }
+}
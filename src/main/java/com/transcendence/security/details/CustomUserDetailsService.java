@@ -2,32 +2,62 @@ package com.transcendence.security.details;
 
 import com.transcendence.user.UserRepository;
 import com.transcendence.entity.User;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserIdentityCache identityCache;
+    // Users allowed to operate the server, e.g. /actuator/stomp; nobody by default
+    private final Set<String> adminUsernames;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    UserIdentityCache identityCache,
+                                    @Value("${security.admin-usernames:}") Set<String> adminUsernames) {
         this.userRepository = userRepository;
+        this.identityCache = identityCache;
+        this.adminUsernames = adminUsernames != null ? Set.copyOf(adminUsernames) : Set.of();
     }
 
+    // Used by the login flow: always reads the current password hash from the database
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    public AuthenticatedUser loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
         // Map your User entity to Spring Security's UserDetails object.
-        return new org.springframework.security.core.userdetails.User(
+        AuthenticatedUser userDetails = new AuthenticatedUser(
+                user.getId(),
                 user.getUsername(),
                 user.getPasswordHash(),
-                Collections.emptyList()
+                authoritiesFor(user.getUsername())
         );
+
+        // A fresh read is a good moment to refresh the cached identity
+        identityCache.put(userDetails);
+
+        return userDetails;
+    }
+
+    // Used on every authenticated request: identity only, served from the cache when possible
+    public AuthenticatedUser loadPrincipal(String username) throws UsernameNotFoundException {
+        return identityCache.get(username, this::loadUserByUsername);
+    }
+
+    // Carried into the token's roles claim, so it takes effect from the next login
+    private List<GrantedAuthority> authoritiesFor(String username) {
+        return adminUsernames.contains(username)
+                ? List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))
+                : Collections.emptyList();
     }
 }
@@ -0,0 +1,97 @@
+package com.transcendence.security.details;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Short-lived username -> identity (id + authorities) cache in front of UserRepository.
+ * Entries expire after the configured TTL, which is the only invalidation: usernames never change,
+ * users are never deleted, and roles only change with security.admin-usernames, which takes a restart.
+ */
+@Component
+public class UserIdentityCache {
+
+    private record Entry(AuthenticatedUser identity, long expiresAtNanos) {
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Map<String, Entry> identities = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserIdentityCache(MeterRegistry meterRegistry,
+                             @Value("${security.principal-cache.ttl-ms:300000}") long ttlMs,
+                             @Value("${security.principal-cache.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.maxEntries = maxEntries;
+
+        this.hits = Counter.builder("security.principal.cache")
+                .tag("result", "hit")
+                .description("Principal lookups served from the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("security.principal.cache")
+                .tag("result", "miss")
+                .description("Principal lookups that queried the database")
+                .register(meterRegistry);
+        Gauge.builder("security.principal.cache.size", identities, Map::size)
+                .description("Identities currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached identity for the username, calling the loader on a miss or after expiry.
+     * Exceptions from the loader (e.g. unknown user) propagate and nothing is cached.
+     */
+    public AuthenticatedUser get(String username, Function<String, AuthenticatedUser> loader) {
+        long now = System.nanoTime();
+        Entry entry = identities.get(username);
+
+        if (entry != null && now - entry.expiresAtNanos() < 0) {
+            hits.increment();
+            return entry.identity();
+        }
+
+        misses.increment();
+        AuthenticatedUser identity = loader.apply(username).withoutPassword();
+        put(identity, now);
+        return identity;
+    }
+
+    public void put(AuthenticatedUser identity) {
+        put(identity.withoutPassword(), System.nanoTime());
+    }
+
+    public int size() {
+        return identities.size();
+    }
+
+    private void put(AuthenticatedUser identity, long now) {
+        if (identities.size() >= maxEntries) {
+            evict(now);
+        }
+        identities.put(identity.getUsername(), new Entry(identity, now + ttlNanos));
+    }
+
+    // Drop expired entries first; if still full, shed an arbitrary tenth of the cache
+    private void evict(long now) {
+        identities.values().removeIf(entry -> now - entry.expiresAtNanos() >= 0);
+
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<String> keys = identities.keySet().iterator();
+        while (identities.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.transcendence.security.jwt;
 
-import com.transcendence.auth.BlacklistedTokenRepository;
+import com.transcendence.auth.TokenRevocationService;
 import com.transcendence.security.details.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,20 +16,21 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtTokenProvider tokenProvider;
+    private final JwtVerificationCache verificationCache;
     private final CustomUserDetailsService customUserDetailsService;
-    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final TokenRevocationService revocationService;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
+    public JwtAuthenticationFilter(JwtVerificationCache verificationCache,
                                CustomUserDetailsService customUserDetailsService,
-                                   BlacklistedTokenRepository blacklistedTokenRepository) {
-    this.tokenProvider = tokenProvider;
+                                   TokenRevocationService revocationService) {
+    this.verificationCache = verificationCache;
     this.customUserDetailsService = customUserDetailsService;
-    this.blacklistedTokenRepository = blacklistedTokenRepository;
+    this.revocationService = revocationService;
     }
 
     private String getJwtFromRequest(HttpServletRequest request) {
@@ -49,15 +51,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt)) {
-                if (blacklistedTokenRepository.existsByToken(jwt)) {
+                if (revocationService.isRevoked(jwt)) {
                     logger.warn("Blacklisted token access attempted");
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     return;
                 }
 
-                if (tokenProvider.validateToken(jwt)) {
-                    String username = tokenProvider.getUsernameFromToken(jwt);
-                    UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+                // One cached lookup replaces separate validate + parse passes over the signature
+                Optional<Claims> claims = verificationCache.verify(jwt);
+
+                if (claims.isPresent()) {
+                    // Current tokens carry the user id; older ones fall back to the cached user lookup
+                    UserDetails userDetails = JwtClaims.toPrincipal(claims.get())
+                            .orElseGet(() -> customUserDetailsService.loadPrincipal(claims.get().getSubject()));
 
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
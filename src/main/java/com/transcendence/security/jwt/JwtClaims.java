@@ -0,0 +1,46 @@
+package com.transcendence.security.jwt;
+
+import com.transcendence.security.details.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom claims carried by issued tokens, and the mapping from verified claims back to a principal.
+ * Tokens issued before these claims existed only have a subject and map to empty.
+ */
+public final class JwtClaims {
+
+    public static final String USER_ID = "uid";
+    public static final String ROLES = "roles";
+
+    private JwtClaims() {
+    }
+
+    public static List<String> roles(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+    }
+
+    public static Optional<AuthenticatedUser> toPrincipal(Claims claims) {
+        // jjwt may deserialize small numbers as Integer, so accept any Number
+        if (!(claims.get(USER_ID) instanceof Number userId) || claims.getSubject() == null) {
+            return Optional.empty();
+        }
+
+        List<SimpleGrantedAuthority> authorities = List.of();
+        if (claims.get(ROLES) instanceof Collection<?> roles) {
+            authorities = roles.stream()
+                    .map(String::valueOf)
+                    .map(SimpleGrantedAuthority::new)
+                    .toList();
+        }
+
+        return Optional.of(new AuthenticatedUser(userId.longValue(), claims.getSubject(), null, authorities));
+    }
+}
@@ -1,5 +1,6 @@
 package com.transcendence.security.jwt;
 
+import com.transcendence.security.details.AuthenticatedUser;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -23,9 +24,29 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long jwtExpirationInMs;
 
+    // Key and parser are immutable and thread-safe, so they are built once and reused
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
+
     // Get the signing key from the secret string
     private SecretKey key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser parser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            parser = Jwts.parser()
+                    .verifyWith(key())
+                    .build();
+            jwtParser = parser;
+        }
+        return parser;
     }
 
     public String generateToken(Authentication authentication) {
@@ -46,29 +67,36 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(username)
                 .issuedAt(now)
-                .expiration(expiryDate)
+                .expiration(expiryDate);
+
+        // Identity claims let consumers authenticate the token without a user lookup
+        if (principal instanceof AuthenticatedUser user && user.getId() != null) {
+            builder.claim(JwtClaims.USER_ID, user.getId())
+                    .claim(JwtClaims.ROLES, JwtClaims.roles(user.getAuthorities()));
+        }
+
+        return builder
                 .signWith(key())
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key())
-                .build()
+    // Verifies the signature and expiry, throwing JwtException if the token is not valid
+    public Claims parseClaims(String token) {
+        return parser()
                 .parseSignedClaims(token)
                 .getPayload();
-        return claims.getSubject();
+    }
+
+    public String getUsernameFromToken(String token) {
+        return parseClaims(token).getSubject();
     }
 
     public boolean validateToken(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(key())
-                    .build()
-                    .parseSignedClaims(authToken);
+            parseClaims(authToken);
             return true;
         } catch (JwtException ex) {
             log.error("Invalid JWT token: {}", ex.getMessage());
@@ -79,11 +107,7 @@ public class JwtTokenProvider {
     }
 
     public LocalDateTime getExpiryDateFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims claims = parseClaims(token);
 
         // Convert the java.util.Date to LocalDateTime
         return claims.getExpiration()
@@ -0,0 +1,116 @@
+package com.transcendence.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of already verified tokens, keyed by the token digest.
+ * A hit skips the HMAC check and claims parsing; entries are dropped once the token expires.
+ */
+@Slf4j
+@Component
+public class JwtVerificationCache {
+
+    private final JwtTokenProvider tokenProvider;
+    private final int maxEntries;
+
+    private final Map<String, Claims> verifiedTokens = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public JwtVerificationCache(JwtTokenProvider tokenProvider,
+                                MeterRegistry meterRegistry,
+                                @Value("${jwt.cache.max-entries:10000}") int maxEntries) {
+        this.tokenProvider = tokenProvider;
+        this.maxEntries = maxEntries;
+
+        this.hits = Counter.builder("jwt.verification.cache")
+                .tag("result", "hit")
+                .description("JWT verifications served from the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("jwt.verification.cache")
+                .tag("result", "miss")
+                .description("JWT verifications that required signature validation")
+                .register(meterRegistry);
+        Gauge.builder("jwt.verification.cache.size", verifiedTokens, Map::size)
+                .description("Verified tokens currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the claims of a valid, unexpired token, or empty if the token
+     * is malformed, badly signed or expired.
+     */
+    public Optional<Claims> verify(String token) {
+        if (!StringUtils.hasText(token)) {
+            return Optional.empty();
+        }
+
+        String key = TokenDigest.sha256(token);
+        Claims cached = verifiedTokens.get(key);
+
+        if (cached != null) {
+            if (!isExpired(cached, System.currentTimeMillis())) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+            verifiedTokens.remove(key, cached);
+        }
+
+        misses.increment();
+
+        Claims claims;
+        try {
+            claims = tokenProvider.parseClaims(token);
+        } catch (JwtException ex) {
+            log.error("Invalid JWT token: {}", ex.getMessage());
+            return Optional.empty();
+        } catch (IllegalArgumentException ex) {
+            log.error("Invalid token: {}", ex.getMessage());
+            return Optional.empty();
+        }
+
+        if (verifiedTokens.size() >= maxEntries) {
+            evict();
+        }
+        verifiedTokens.put(key, claims);
+
+        return Optional.of(claims);
+    }
+
+    public int size() {
+        return verifiedTokens.size();
+    }
+
+    // Drop expired entries first; if the cache is still full, shed an arbitrary tenth of it
+    private void evict() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(claims -> isExpired(claims, now));
+
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<String> keys = verifiedTokens.keySet().iterator();
+        while (verifiedTokens.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static boolean isExpired(Claims claims, long now) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= now;
+    }
+}
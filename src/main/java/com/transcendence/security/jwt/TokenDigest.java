@@ -0,0 +1,35 @@
+package com.transcendence.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * SHA-256 fingerprint of a raw JWT, used as a compact key for in-memory token lookups
+ * so caches never hold the bearer token itself.
+ */
+public final class TokenDigest {
+
+    // MessageDigest is not thread-safe, so keep one instance per thread
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private TokenDigest() {
+    }
+
+    public static byte[] sha256Bytes(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static String sha256(String token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256Bytes(token));
+    }
+}
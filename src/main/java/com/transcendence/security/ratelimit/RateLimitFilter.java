@@ -0,0 +1,51 @@
+package com.transcendence.security.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies RateLimiter policies to authenticated HTTP requests and answers 429 with Retry-After.
+ * Runs inside the security chain after JwtAuthenticationFilter, see SecurityConfig.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        RateLimiter.Policy policy = rateLimiter.forRequest(request.getMethod(), request.getRequestURI());
+
+        if (policy != null) {
+            Object userKey = RateLimiter.userKey(SecurityContextHolder.getContext().getAuthentication());
+            long waitNanos = rateLimiter.tryAcquire(policy, userKey);
+
+            if (waitNanos > 0) {
+                long retryAfterMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader("Retry-After", String.valueOf((retryAfterMs + 999) / 1000));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"error\":\"Too many requests\",\"policy\":\"" + policy.name()
+                        + "\",\"retryAfterMs\":" + retryAfterMs + "}");
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
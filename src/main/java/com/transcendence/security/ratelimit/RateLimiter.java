@@ -0,0 +1,191 @@
+package com.transcendence.security.ratelimit;
+
+import com.transcendence.security.details.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory per-user token buckets, one set per policy. Each policy is sized under
+ * ratelimit.&lt;name&gt;.capacity / refill-per-second and bound to STOMP destinations
+ * (ratelimit.&lt;name&gt;.destinations) or POST paths (ratelimit.&lt;name&gt;.paths).
+ *
+ * <p>A bucket is kept as the single timestamp at which it would be full again, so taking
+ * a token is one compare-and-set with no locks: the bucket has a token while that
+ * timestamp is no more than capacity refill intervals ahead of now.
+ *
+ * <p>Buckets are not shared between instances. In relay mode a user whose requests reach N
+ * instances gets up to N times the configured budget, so size the policies per instance.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    public static final String CHAT = "chat";
+    public static final String SCORE = "score";
+
+    private final Map<String, Policy> byDestination = new HashMap<>();
+    private final Map<String, Policy> byPath = new HashMap<>();
+    private final Map<String, Policy> policies = new HashMap<>();
+
+    public RateLimiter(Environment environment, MeterRegistry meterRegistry) {
+        if (!environment.getProperty("ratelimit.enabled", Boolean.class, true)) {
+            log.info("Rate limiting disabled");
+            return;
+        }
+
+        register(environment, meterRegistry, CHAT, 10, 2, "/app/chat.sendMessage", "");
+        register(environment, meterRegistry, SCORE, 5, 0.5, "", "/api/pong/score,/api/arkanoid/score");
+    }
+
+    private void register(Environment environment, MeterRegistry meterRegistry, String name,
+                          int capacity, double refillPerSecond, String destinations, String paths) {
+        String prefix = "ratelimit." + name + ".";
+        Policy policy = new Policy(name,
+                Math.max(1, environment.getProperty(prefix + "capacity", Integer.class, capacity)),
+                environment.getProperty(prefix + "refill-per-second", Double.class, refillPerSecond),
+                meterRegistry);
+        policies.put(name, policy);
+
+        for (String destination : StringUtils.commaDelimitedListToSet(
+                environment.getProperty(prefix + "destinations", destinations))) {
+            byDestination.put(destination.trim(), policy);
+        }
+        for (String path : StringUtils.commaDelimitedListToSet(environment.getProperty(prefix + "paths", paths))) {
+            byPath.put(path.trim(), policy);
+        }
+
+        log.info("Rate limit {}: {} burst, {}/s", name, policy.capacity, policy.refillPerSecond);
+    }
+
+    /**
+     * The policy for a STOMP SEND destination, or null when it is not limited.
+     */
+    public Policy forDestination(String destination) {
+        return destination != null ? byDestination.get(destination) : null;
+    }
+
+    /**
+     * The policy for an HTTP request, or null when it is not limited. Only writes are limited.
+     */
+    public Policy forRequest(String method, String path) {
+        return "POST".equals(method) ? byPath.get(path) : null;
+    }
+
+    public Policy policy(String name) {
+        return policies.get(name);
+    }
+
+    /**
+     * Takes a token for the user. Returns 0 when allowed, otherwise the nanoseconds until one is available.
+     * Callers without a user key are not limited here; they fail authentication instead.
+     */
+    public long tryAcquire(Policy policy, Object userKey) {
+        return userKey != null ? policy.tryAcquire(userKey, System.nanoTime()) : 0;
+    }
+
+    /**
+     * The user id when the principal carries one, otherwise the username; null for anonymous callers.
+     */
+    public static Object userKey(Object principal) {
+        if (principal instanceof Authentication authentication) {
+            Object inner = authentication.getPrincipal();
+            return inner instanceof UserDetails || inner instanceof Principal ? userKey(inner) : null;
+        }
+        if (principal instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        if (principal instanceof UserDetails user) {
+            return user.getUsername();
+        }
+        if (principal instanceof Principal user) {
+            return user.getName();
+        }
+        return null;
+    }
+
+    // A bucket that has refilled completely holds no state worth keeping
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Policy policy : policies.values()) {
+            policy.evictFull(now);
+        }
+    }
+
+    public static final class Policy {
+
+        private final String name;
+        private final int capacity;
+        private final double refillPerSecond;
+        private final long intervalNanos;
+        private final long burstNanos;
+        // userKey -> time at which the bucket is full again
+        private final Map<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final Counter allowed;
+        private final Counter rejected;
+
+        Policy(String name, int capacity, double refillPerSecond, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(refillPerSecond, 1e-6));
+            this.burstNanos = intervalNanos * capacity;
+            this.allowed = requestCounter(meterRegistry, name, "allowed");
+            this.rejected = requestCounter(meterRegistry, name, "rejected");
+            Gauge.builder("ratelimit.buckets", buckets, Map::size)
+                    .tag("policy", name)
+                    .description("Users with a partly used rate limit bucket")
+                    .register(meterRegistry);
+        }
+
+        private static Counter requestCounter(MeterRegistry meterRegistry, String policy, String outcome) {
+            return Counter.builder("ratelimit.requests")
+                    .tag("policy", policy)
+                    .tag("outcome", outcome)
+                    .description("Requests checked against a per-user rate limit")
+                    .register(meterRegistry);
+        }
+
+        long tryAcquire(Object userKey, long now) {
+            AtomicLong fullAt = buckets.computeIfAbsent(userKey, key -> new AtomicLong(Long.MIN_VALUE));
+
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long wait = next - now - burstNanos;
+                if (wait > 0) {
+                    rejected.increment();
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    allowed.increment();
+                    return 0;
+                }
+            }
+        }
+
+        // A caller still holding a just-evicted bucket spends a token nobody sees; that is at most one extra request
+        void evictFull(long now) {
+            buckets.values().removeIf(fullAt -> fullAt.get() != Long.MIN_VALUE && fullAt.get() - now <= 0);
+        }
+
+        public String name() {
+            return name;
+        }
+    }
+}
@@ -1,100 +1,152 @@
 package com.transcendence.security.websocket;
 
-import com.transcendence.auth.BlacklistedTokenRepository;
-import com.transcendence.security.jwt.JwtTokenProvider;
+import com.transcendence.auth.TokenRevocationService;
+import com.transcendence.chat.dto.ChatMessageDTO;
+import com.transcendence.security.jwt.JwtClaims;
+import com.transcendence.security.jwt.JwtVerificationCache;
+import com.transcendence.security.ratelimit.RateLimiter;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.messaging.Message;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.stereotype.Component;
 
 import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtChannelInterceptor implements ChannelInterceptor {
 
-    private final JwtTokenProvider tokenProvider;
-    private final BlacklistedTokenRepository blacklistRepository;
+    private final JwtVerificationCache verificationCache;
+    private final TokenRevocationService revocationService;
+    private final RateLimiter rateLimiter;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Timer authSuccess;
+    private final Timer authFailure;
+
+    public JwtChannelInterceptor(JwtVerificationCache verificationCache,
+                                 TokenRevocationService revocationService,
+                                 RateLimiter rateLimiter,
+                                 // Lazy: the template is built from the channels this interceptor is registered on
+                                 @Lazy SimpMessagingTemplate messagingTemplate,
+                                 MeterRegistry meterRegistry) {
+        this.verificationCache = verificationCache;
+        this.revocationService = revocationService;
+        this.rateLimiter = rateLimiter;
+        this.messagingTemplate = messagingTemplate;
+        this.authSuccess = authTimer(meterRegistry, "success");
+        this.authFailure = authTimer(meterRegistry, "failure");
+    }
+
+    private static Timer authTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("stomp.auth")
+                .tag("outcome", outcome)
+                .description("Time to authenticate a STOMP CONNECT frame")
+                .register(meterRegistry);
+    }
 
+    // Per-frame logging lives in StompMetricsInterceptor's switchable trace; only failures are logged here
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
 
         if (accessor == null) {
-            log.warn("StompHeaderAccessor is null!");
             return message;
         }
 
-        log.info("=== WebSocket Message Intercepted ===");
-        log.info("Command: {}", accessor.getCommand());
-        log.info("Session ID: {}", accessor.getSessionId());
-        log.info("Current User: {}", accessor.getUser());
-        log.info("Session Attributes: {}", accessor.getSessionAttributes());
-
         if (StompCommand.CONNECT.equals(accessor.getCommand())) {
-            log.info("Processing CONNECT frame");
-            String authHeader = accessor.getFirstNativeHeader("Authorization");
-            log.info("Authorization header present: {}", authHeader != null);
-
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
-
-                if (tokenProvider.validateToken(token) && !blacklistRepository.existsByToken(token)) {
-                    String username = tokenProvider.getUsernameFromToken(token);
-                    log.info("✓ Authentication successful for user: {}", username);
-
-                    Principal principal = () -> username;
-                    accessor.setUser(principal);
-
-                    if (accessor.getSessionAttributes() != null) {
-                        accessor.getSessionAttributes().put("username", username);
-                        log.info("✓ Stored username in session attributes");
-                    } else {
-                        log.error("✗ Session attributes is NULL!");
-                    }
-                } else {
-                    log.error("✗ Token validation failed or token is blacklisted");
-                    throw new AccessDeniedException("Invalid or blacklisted token");
-                }
-            } else {
-                log.error("✗ No valid Authorization header");
-                throw new AccessDeniedException("No authorization header found");
+            long start = System.nanoTime();
+            boolean authenticated = false;
+            try {
+                authenticate(accessor);
+                authenticated = true;
+            } finally {
+                (authenticated ? authSuccess : authFailure).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             }
-        } else {
-            // For all other commands
-            log.info("Processing {} frame", accessor.getCommand());
-
-            if (accessor.getUser() == null) {
-                log.warn("Principal is null, attempting to restore from session");
-
-                if (accessor.getSessionAttributes() != null) {
-                    String username = (String) accessor.getSessionAttributes().get("username");
-                    log.info("Username from session: {}", username);
-
-                    if (username != null) {
-                        Principal principal = () -> username;
-                        accessor.setUser(principal);
-                        log.info("✓ Restored Principal for user: {}", username);
-                    } else {
-                        log.error("✗ No username found in session attributes!");
-                        log.error("Available session keys: {}", accessor.getSessionAttributes().keySet());
-                    }
-                } else {
-                    log.error("✗ Session attributes is NULL for non-CONNECT frame!");
-                }
+        } else if (accessor.getUser() == null && accessor.getSessionAttributes() != null) {
+            // Restore the principal for frames that arrive without one
+            String username = (String) accessor.getSessionAttributes().get("username");
+
+            if (username != null) {
+                Principal principal = () -> username;
+                accessor.setUser(principal);
             } else {
-                log.info("✓ Principal already set: {}", accessor.getUser().getName());
+                log.warn("No principal for {} frame on session {}", accessor.getCommand(), accessor.getSessionId());
             }
         }
 
-        log.info("=== End Intercept (User: {}) ===", accessor.getUser());
+        if (StompCommand.SEND.equals(accessor.getCommand()) && !withinRateLimit(accessor)) {
+            // Dropped; throwing would send an ERROR frame, which closes the whole session
+            return null;
+        }
+
         return message;
     }
-}
\ No newline at end of file
+
+    // Over the limit, the sender is told on /user/queue/errors, like other rejected messages
+    private boolean withinRateLimit(StompHeaderAccessor accessor) {
+        RateLimiter.Policy policy = rateLimiter.forDestination(accessor.getDestination());
+        if (policy == null) {
+            return true;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(policy, RateLimiter.userKey(accessor.getUser()));
+        if (waitNanos <= 0) {
+            return true;
+        }
+
+        long retryAfterMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        log.warn("Rate limit {} exceeded on session {}", policy.name(), accessor.getSessionId());
+        messagingTemplate.convertAndSendToUser(accessor.getUser().getName(), "/queue/errors", ChatMessageDTO.builder()
+                .sender("System")
+                .content("You are sending messages too fast, try again in " + retryAfterMs + " ms")
+                .type("RATE_LIMITED")
+                .timestamp(LocalDateTime.now())
+                .build());
+        return false;
+    }
+
+    private void authenticate(StompHeaderAccessor accessor) {
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            log.warn("STOMP CONNECT without a bearer token (session: {})", accessor.getSessionId());
+            throw new AccessDeniedException("No authorization header found");
+        }
+
+        String token = authHeader.substring(7);
+        Optional<Claims> claims = verificationCache.verify(token);
+
+        if (claims.isEmpty() || revocationService.isRevoked(token)) {
+            log.warn("STOMP CONNECT with an invalid or revoked token (session: {})", accessor.getSessionId());
+            throw new AccessDeniedException("Invalid or blacklisted token");
+        }
+
+        String username = claims.get().getSubject();
+
+        // Current tokens yield a full principal (id + roles) from the claims alone
+        Principal principal = JwtClaims.toPrincipal(claims.get())
+                .<Principal>map(user -> new UsernamePasswordAuthenticationToken(
+                        user, null, user.getAuthorities()))
+                .orElse(() -> username);
+        accessor.setUser(principal);
+
+        if (accessor.getSessionAttributes() != null) {
+            accessor.getSessionAttributes().put("username", username);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.transcendence.stats;
+
+import com.transcendence.config.WebSocketConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic versions for data derived from user_stats, used to build strong ETags.
+ * The global version moves on any stats change (leaderboard views), the per-user version
+ * only when that player's stats or game history change. Versions are bumped after commit,
+ * so a reader can never cache pre-commit data under a new version.
+ *
+ * <p>Versions only see commits made on this instance. In relay mode (websocket.broker.mode=relay)
+ * other instances write stats too, so no ETags are issued and every request is answered in full.
+ */
+@Component
+public class StatsVersionTracker {
+
+    // Versions restart at 0 on boot; the epoch keeps ETags from a previous run from matching
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong leaderboardVersion = new AtomicLong();
+    private final Map<Long, AtomicLong> userVersions = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+
+    @Autowired
+    public StatsVersionTracker(@Value("${websocket.broker.mode:simple}") String brokerMode) {
+        this(!WebSocketConfig.RELAY_MODE.equalsIgnoreCase(brokerMode));
+    }
+
+    StatsVersionTracker(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Runs after the other after-commit listeners (e.g. the in-memory leaderboard) have applied the change
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatsUpdated(UserStatsUpdatedEvent event) {
+        bumpUser(event.stats().getUser().getId());
+    }
+
+    public void bumpUser(Long userId) {
+        userVersions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+        leaderboardVersion.incrementAndGet();
+    }
+
+    public long leaderboardVersion() {
+        return leaderboardVersion.get();
+    }
+
+    public long userVersion(Long userId) {
+        AtomicLong version = userVersions.get(userId);
+        return version == null ? 0 : version.get();
+    }
+
+    /** ETag for a leaderboard view; {@code variant} distinguishes differently shaped responses. Null in relay mode. */
+    public String leaderboardETag(String variant) {
+        if (!enabled) {
+            return null;
+        }
+        return "\"lb-" + epoch + "-" + leaderboardVersion() + "-" + variant + "\"";
+    }
+
+    /** ETag for a per-user view such as game history. Null in relay mode. */
+    public String userETag(Long userId, String variant) {
+        if (!enabled) {
+            return null;
+        }
+        return "\"u" + userId + "-" + epoch + "-" + userVersion(userId) + "-" + variant + "\"";
+    }
+}
@@ -4,14 +4,10 @@ import com.transcendence.entity.UserStats;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
 
     Optional<UserStats> findByUserId(Long userId);
-
-    // This sorts by XP descending, then by level descending
-    List<UserStats> findAllByOrderByXpDescLevelDesc();
 }
\ No newline at end of file
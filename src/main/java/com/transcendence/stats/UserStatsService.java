@@ -2,6 +2,7 @@ package com.transcendence.stats;
 
 import com.transcendence.entity.User;
 import com.transcendence.entity.UserStats;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -10,9 +11,12 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserStatsService {
 
     private final UserStatsRepository userStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserStatsService(UserStatsRepository userStatsRepository) {
+    public UserStatsService(UserStatsRepository userStatsRepository,
+                            ApplicationEventPublisher eventPublisher) {
         this.userStatsRepository = userStatsRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public UserStats createInitialStats(User user) {
@@ -29,10 +33,19 @@ public class UserStatsService {
                 .xp(0)
                 .build();
 
-        return userStatsRepository.save(stats);
+        UserStats saved = userStatsRepository.save(stats);
+        eventPublisher.publishEvent(new UserStatsUpdatedEvent(saved));
+        return saved;
     }
 
     public UserStats updateAfterGame(Long userId, boolean won, int duration, int xpEarned) {
+        return updateAfterGame(userId, won, duration, xpEarned, null);
+    }
+
+    /**
+     * As above, also setting the rank from the player's rating; a null rank keeps the current one.
+     */
+    public UserStats updateAfterGame(Long userId, boolean won, int duration, int xpEarned, UserStats.Rank rank) {
 
         UserStats stats = userStatsRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("User stats not found"));
@@ -55,8 +68,14 @@ public class UserStatsService {
         int newLevel = (int) Math.floor(Math.sqrt(newXp / 100.0)) + 1;
         stats.setLevel(newLevel);
 
-        stats.setRank(UserStats.Rank.Novice);
+        if (rank != null) {
+            stats.setRank(rank);
+        } else if (stats.getRank() == null) {
+            stats.setRank(UserStats.Rank.Novice);
+        }
 
-        return userStatsRepository.save(stats);
+        UserStats saved = userStatsRepository.save(stats);
+        eventPublisher.publishEvent(new UserStatsUpdatedEvent(saved));
+        return saved;
     }
 }
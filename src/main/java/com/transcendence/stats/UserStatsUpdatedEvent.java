@@ -0,0 +1,10 @@
+package com.transcendence.stats;
+
+import com.transcendence.entity.UserStats;
+
+/**
+ * Published whenever a player's stats row is created or changed.
+ * Listeners that keep derived views (e.g. the leaderboard) should react after commit.
+ */
+public record UserStatsUpdatedEvent(UserStats stats) {
+}
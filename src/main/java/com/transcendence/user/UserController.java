@@ -2,6 +2,7 @@ package com.transcendence.user;
 
 import com.transcendence.entity.User;
 import com.transcendence.entity.UserStats;
+import com.transcendence.security.details.AuthenticatedUser;
 import com.transcendence.stats.dto.UserStatsDto;
 import com.transcendence.user.dto.AchievementsResponse;
 import com.transcendence.user.dto.UserMeResponse;
@@ -28,6 +29,11 @@ public class UserController {
     private Long getAuthenticatedUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
+        // JWT-authenticated requests already carry the id, no lookup needed
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+
         String username = ((UserDetails) authentication.getPrincipal()).getUsername();
 
         // Look up the actual User ID (Long) from the repository
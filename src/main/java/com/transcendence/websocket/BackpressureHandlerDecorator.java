@@ -0,0 +1,69 @@
+package com.transcendence.websocket;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands the STOMP handler a {@link BackpressureSession} in place of each raw session,
+ * and the same instance on every later callback for that session.
+ */
+final class BackpressureHandlerDecorator extends WebSocketHandlerDecorator {
+
+    // Tomcat's limit for one blocking write, in milliseconds (default 20s)
+    static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final OutboundBackpressure backpressure;
+    private final Map<String, BackpressureSession> sessions = new ConcurrentHashMap<>();
+
+    BackpressureHandlerDecorator(WebSocketHandler delegate, OutboundBackpressure backpressure) {
+        super(delegate);
+        this.backpressure = backpressure;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            jakarta.websocket.Session container = nativeSession.getNativeSession(jakarta.websocket.Session.class);
+            if (container != null) {
+                container.getUserProperties().put(BLOCKING_SEND_TIMEOUT, (long) backpressure.sendTimeLimitMs());
+            }
+        }
+
+        BackpressureSession decorated = new BackpressureSession(session, backpressure);
+        sessions.put(session.getId(), decorated);
+        backpressure.register(decorated);
+        super.afterConnectionEstablished(decorated);
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        super.handleMessage(decorated(session), message);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        super.handleTransportError(decorated(session), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        BackpressureSession decorated = sessions.remove(session.getId());
+        if (decorated != null) {
+            backpressure.unregister(decorated);
+            decorated.discardBuffer();
+        }
+        super.afterConnectionClosed(decorated != null ? decorated : session, closeStatus);
+    }
+
+    private WebSocketSession decorated(WebSocketSession session) {
+        BackpressureSession decorated = sessions.get(session.getId());
+        return decorated != null ? decorated : session;
+    }
+}
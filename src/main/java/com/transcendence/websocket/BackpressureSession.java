@@ -0,0 +1,263 @@
+package com.transcendence.websocket;
+
+import com.transcendence.websocket.OutboundBackpressure.Overflow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-session send buffer. sendMessage only queues the frame and, if no drain is running,
+ * starts one on the outbound executor; the drain writes frames to the client in order.
+ * Frames without a destination (CONNECTED, RECEIPT, ERROR, heart-beats) are never dropped.
+ * A write that runs past the send-time limit is cut short by closing the session, see
+ * {@link OutboundBackpressure#closeStalledSessions()}.
+ */
+@Slf4j
+final class BackpressureSession extends WebSocketSessionDecorator {
+
+    private final OutboundBackpressure backpressure;
+
+    // All guarded by lock
+    private final Object lock = new Object();
+    private final Queue<Frame> buffer = new ArrayDeque<>();
+    private final Map<String, Frame> conflatable = new HashMap<>();
+    private long bufferedBytes;
+    private long sendStartedAt;
+    private boolean draining;
+    private boolean closed;
+
+    BackpressureSession(WebSocketSession delegate, OutboundBackpressure backpressure) {
+        super(delegate);
+        this.backpressure = backpressure;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        String destination = destinationOf(message);
+        Overflow overflow = destination != null ? backpressure.overflowFor(destination) : null;
+        int size = message.getPayloadLength();
+        boolean disconnect = false;
+
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+
+            if (overflow == Overflow.CONFLATE) {
+                Frame queued = conflatable.get(destination);
+                if (queued != null) {
+                    // The newer frame supersedes the queued one and keeps its place in line
+                    resize(size - queued.size);
+                    queued.message = message;
+                    queued.size = size;
+                    backpressure.evicted(Overflow.CONFLATE);
+                    return;
+                }
+            }
+
+            // CONFLATE still queues when behind: one frame per destination keeps it bounded
+            if (overflow == Overflow.DROP && isBehind(size)) {
+                backpressure.evicted(Overflow.DROP);
+                return;
+            }
+            if (overflow == Overflow.DISCONNECT && isBehind(size)) {
+                closed = true;
+                disconnect = true;
+                clear();
+            } else {
+                Frame frame = new Frame(destination, message, size);
+                buffer.add(frame);
+                resize(size);
+                if (overflow == Overflow.CONFLATE) {
+                    conflatable.put(destination, frame);
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+        }
+
+        if (disconnect) {
+            disconnect(destination + " fell behind");
+        } else {
+            startDrain();
+        }
+    }
+
+    private boolean isBehind(int size) {
+        // An empty buffer always accepts one frame, however large
+        if (bufferedBytes > 0 && bufferedBytes + size > backpressure.bufferSizeLimit()) {
+            return true;
+        }
+        return sendStartedAt != 0 && System.nanoTime() - sendStartedAt > backpressure.sendTimeLimitNanos();
+    }
+
+    private void startDrain() {
+        try {
+            backpressure.outboundExecutor().execute(this::drain);
+        } catch (RejectedExecutionException ex) {
+            // Draining here would block the broker thread that is sending
+            synchronized (lock) {
+                closed = true;
+                draining = false;
+                clear();
+            }
+            disconnect("no outbound thread was free");
+        }
+    }
+
+    /**
+     * Closes the session if its current write has run past the send-time limit. Closing the
+     * underlying socket fails the blocked write, which frees the outbound thread.
+     */
+    boolean closeIfStalled(long now) {
+        synchronized (lock) {
+            if (closed || sendStartedAt == 0 || now - sendStartedAt <= backpressure.sendTimeLimitNanos()) {
+                return false;
+            }
+            closed = true;
+            clear();
+        }
+        disconnect("a send stalled");
+        return true;
+    }
+
+    private void drain() {
+        while (true) {
+            WebSocketMessage<?> message;
+            int size;
+            synchronized (lock) {
+                Frame frame = buffer.poll();
+                if (frame == null || closed) {
+                    draining = false;
+                    return;
+                }
+                if (frame.destination != null) {
+                    conflatable.remove(frame.destination, frame);
+                }
+                message = frame.message;
+                size = frame.size;
+                sendStartedAt = System.nanoTime();
+            }
+
+            long start = System.nanoTime();
+            try {
+                getDelegate().sendMessage(message);
+            } catch (IOException | RuntimeException ex) {
+                log.debug("Send to session {} failed: {}", getId(), ex.getMessage());
+            } finally {
+                backpressure.sendTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                synchronized (lock) {
+                    sendStartedAt = 0;
+                    resize(-size);
+                }
+            }
+        }
+    }
+
+    private void disconnect(String reason) {
+        backpressure.evicted(Overflow.DISCONNECT);
+        log.warn("Closing slow WebSocket session {} ({})", getId(), reason);
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException ex) {
+            log.debug("Closing session {} failed: {}", getId(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Releases whatever is still queued once the session has closed.
+     */
+    void discardBuffer() {
+        synchronized (lock) {
+            closed = true;
+            clear();
+        }
+    }
+
+    private void clear() {
+        // A frame being sent right now is released by the drain
+        for (Frame frame : buffer) {
+            resize(-frame.size);
+        }
+        buffer.clear();
+        conflatable.clear();
+    }
+
+    private void resize(long delta) {
+        bufferedBytes += delta;
+        backpressure.buffered(delta);
+    }
+
+    long bufferedBytes() {
+        synchronized (lock) {
+            return bufferedBytes;
+        }
+    }
+
+    /**
+     * The destination header of an outbound STOMP frame, or null for frames that have none.
+     */
+    static String destinationOf(WebSocketMessage<?> message) {
+        String headers;
+        if (message instanceof TextMessage text) {
+            headers = text.getPayload();
+        } else if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload().duplicate();
+            byte[] head = new byte[Math.min(payload.remaining(), 1024)];
+            payload.get(head);
+            headers = new String(head, StandardCharsets.UTF_8);
+        } else {
+            return null;
+        }
+
+        // Headers run from the line after the command to the first empty line
+        int lineStart = headers.indexOf('\n') + 1;
+        while (lineStart > 0 && lineStart < headers.length()) {
+            int lineEnd = headers.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = headers.length();
+            }
+            String line = headers.substring(lineStart, lineEnd);
+            if (line.endsWith("\r")) {
+                line = line.substring(0, line.length() - 1);
+            }
+            if (line.isEmpty()) {
+                return null;
+            }
+            if (line.startsWith("destination:")) {
+                return line.substring("destination:".length());
+            }
+            lineStart = lineEnd + 1;
+        }
+        return null;
+    }
+
+    private static final class Frame {
+
+        private final String destination;
+        private WebSocketMessage<?> message;
+        private int size;
+
+        Frame(String destination, WebSocketMessage<?> message, int size) {
+            this.destination = destination;
+            this.message = message;
+            this.size = size;
+        }
+    }
+}
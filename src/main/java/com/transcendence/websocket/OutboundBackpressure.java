@@ -0,0 +1,185 @@
+package com.transcendence.websocket;
+
+import com.transcendence.config.AsyncConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbound policy for WebSocket sessions. Each session gets a bounded send buffer drained
+ * by the outbound executor, so a slow client never blocks broker threads. When a session's
+ * buffer is full, or its current send has run past the send-time limit, the destination of the
+ * next frame decides what happens: drop it, conflate it with the queued frame for the same
+ * destination, or disconnect the session.
+ *
+ * <p>A write is bounded by the send-time limit twice over: the container's blocking send timeout
+ * is set to it, and a watchdog closes any session whose current write has run longer.
+ *
+ * <p>Rules are "prefix=strategy" pairs in websocket.outbound.overflow-rules; the longest
+ * matching prefix wins and everything else uses websocket.outbound.default-overflow.
+ */
+@Slf4j
+@Component
+public class OutboundBackpressure {
+
+    public enum Overflow { DROP, CONFLATE, DISCONNECT }
+
+    private final Executor outboundExecutor;
+    private final int bufferSizeLimit;
+    private final int sendTimeLimitMs;
+    private final long sendTimeLimitNanos;
+    private final Overflow defaultOverflow;
+    private final List<Rule> rules;
+
+    private final Set<BackpressureSession> sessions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final Map<Overflow, Counter> evictions = new EnumMap<>(Overflow.class);
+    private final Timer sendTimer;
+
+    public OutboundBackpressure(MeterRegistry meterRegistry,
+                                @Qualifier(AsyncConfig.WEBSOCKET_OUTBOUND_EXECUTOR) Executor outboundExecutor,
+                                @Value("${websocket.outbound.buffer-size-limit:524288}") int bufferSizeLimit,
+                                @Value("${websocket.outbound.send-time-limit-ms:10000}") int sendTimeLimitMs,
+                                @Value("${websocket.outbound.default-overflow:disconnect}") String defaultOverflow,
+                                @Value("${websocket.outbound.overflow-rules:}") String overflowRules) {
+        this.outboundExecutor = outboundExecutor;
+        this.bufferSizeLimit = Math.max(1, bufferSizeLimit);
+        this.sendTimeLimitMs = Math.max(1, sendTimeLimitMs);
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(this.sendTimeLimitMs);
+        this.defaultOverflow = overflow(defaultOverflow);
+        this.rules = parseRules(overflowRules);
+
+        for (Overflow overflow : Overflow.values()) {
+            evictions.put(overflow, Counter.builder("websocket.outbound.evictions")
+                    .tag("strategy", overflow.name().toLowerCase(Locale.ROOT))
+                    .description("Outbound frames dropped or replaced, and sessions closed, because a client fell behind")
+                    .register(meterRegistry));
+        }
+        this.sendTimer = Timer.builder("websocket.outbound.send")
+                .description("Time to write one frame to a WebSocket client")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.buffered", bufferedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .description("Bytes waiting in WebSocket send buffers across all sessions")
+                .register(meterRegistry);
+
+        log.info("WebSocket outbound: {} byte buffer, {} ms send limit, rules {}, otherwise {}",
+                this.bufferSizeLimit, this.sendTimeLimitMs, rules, this.defaultOverflow);
+    }
+
+    private static Overflow overflow(String value) {
+        return Overflow.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static List<Rule> parseRules(String overflowRules) {
+        List<Rule> parsed = new ArrayList<>();
+        for (String pair : StringUtils.commaDelimitedListToStringArray(overflowRules)) {
+            if (!StringUtils.hasText(pair)) {
+                continue;
+            }
+            int separator = pair.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid overflow rule (expected prefix=strategy): " + pair);
+            }
+            parsed.add(new Rule(pair.substring(0, separator).trim(), overflow(pair.substring(separator + 1))));
+        }
+        parsed.sort(Comparator.comparingInt((Rule rule) -> rule.prefix().length()).reversed());
+        return List.copyOf(parsed);
+    }
+
+    /**
+     * Registered through WebSocketTransportRegistration.addDecoratorFactory.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new BackpressureHandlerDecorator(handler, this);
+    }
+
+    // Rules are few and sorted longest first; clients choose destinations, so results are not cached
+    Overflow overflowFor(String destination) {
+        for (Rule rule : rules) {
+            if (destination.startsWith(rule.prefix())) {
+                return rule.overflow();
+            }
+        }
+        return defaultOverflow;
+    }
+
+    void register(BackpressureSession session) {
+        sessions.add(session);
+    }
+
+    void unregister(BackpressureSession session) {
+        sessions.remove(session);
+    }
+
+    // Frees outbound threads held by clients that stopped reading
+    @Scheduled(fixedDelayString = "${websocket.outbound.watchdog-interval-ms:1000}")
+    public void closeStalledSessions() {
+        long now = System.nanoTime();
+        for (BackpressureSession session : sessions) {
+            if (session.closeIfStalled(now)) {
+                sessions.remove(session);
+            }
+        }
+    }
+
+    Executor outboundExecutor() {
+        return outboundExecutor;
+    }
+
+    public int bufferSizeLimit() {
+        return bufferSizeLimit;
+    }
+
+    public int sendTimeLimitMs() {
+        return sendTimeLimitMs;
+    }
+
+    long sendTimeLimitNanos() {
+        return sendTimeLimitNanos;
+    }
+
+    Timer sendTimer() {
+        return sendTimer;
+    }
+
+    void buffered(long delta) {
+        bufferedBytes.addAndGet(delta);
+    }
+
+    void evicted(Overflow overflow) {
+        evictions.get(overflow).increment();
+    }
+
+    public long bufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    private record Rule(String prefix, Overflow overflow) {
+
+        @Override
+        public String toString() {
+            return prefix + "=" + overflow;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.transcendence.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/stomp: shows the busiest open sessions and the current trace switches.
+ * POST {"user": ..., "session": ..., "sampleRate": ...} turns tracing on; DELETE turns it all off.
+ */
+@Component
+@Endpoint(id = "stomp")
+@RequiredArgsConstructor
+public class StompEndpoint {
+
+    private static final int BUSIEST_SESSIONS = 20;
+
+    private final StompMetricsInterceptor metricsInterceptor;
+    private final StompTraceSettings traceSettings;
+
+    @ReadOperation
+    public Map<String, Object> stomp() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("openSessions", metricsInterceptor.openSessions());
+        body.put("busiestSessions", metricsInterceptor.busiestSessions(BUSIEST_SESSIONS));
+        body.put("trace", traceState());
+        return body;
+    }
+
+    @WriteOperation
+    public Map<String, Object> trace(@Nullable String user, @Nullable String session, @Nullable Double sampleRate) {
+        if (user != null) {
+            traceSettings.traceUser(user);
+        }
+        if (session != null) {
+            traceSettings.traceSession(session);
+        }
+        if (sampleRate != null) {
+            traceSettings.setSampleRate(sampleRate);
+        }
+        return traceState();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> clearTrace() {
+        traceSettings.clear();
+        return traceState();
+    }
+
+    private Map<String, Object> traceState() {
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("users", traceSettings.tracedUsers());
+        trace.put("sessions", traceSettings.tracedSessions());
+        trace.put("sampleRate", traceSettings.sampleRate());
+        return trace;
+    }
+}
@@ -0,0 +1,168 @@
+package com.transcendence.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts inbound STOMP frames by command, measures their payload sizes and tracks
+ * per-session frame rates. Meters are looked up once, so the per-frame cost is a few
+ * counter increments; nothing is logged unless StompTraceSettings selects the frame.
+ */
+@Slf4j
+@Component
+public class StompMetricsInterceptor implements ChannelInterceptor {
+
+    private static final String OTHER = "OTHER";
+
+    private final StompTraceSettings traceSettings;
+
+    private final Map<StompCommand, Counter> frames = new EnumMap<>(StompCommand.class);
+    private final Map<StompCommand, DistributionSummary> payloadSizes = new EnumMap<>(StompCommand.class);
+    private final Counter otherFrames;
+    private final DistributionSummary sessionFrames;
+    private final DistributionSummary sessionRates;
+
+    private final Map<String, SessionActivity> sessions = new ConcurrentHashMap<>();
+
+    public StompMetricsInterceptor(MeterRegistry meterRegistry, StompTraceSettings traceSettings) {
+        this.traceSettings = traceSettings;
+
+        for (StompCommand command : StompCommand.values()) {
+            frames.put(command, frameCounter(meterRegistry, command.name()));
+            payloadSizes.put(command, DistributionSummary.builder("stomp.frames.payload")
+                    .tag("command", command.name())
+                    .baseUnit("bytes")
+                    .description("Payload size of inbound STOMP frames")
+                    .register(meterRegistry));
+        }
+        this.otherFrames = frameCounter(meterRegistry, OTHER);
+
+        this.sessionFrames = DistributionSummary.builder("stomp.session.frames")
+                .description("Inbound frames sent by a STOMP session over its lifetime")
+                .register(meterRegistry);
+        this.sessionRates = DistributionSummary.builder("stomp.session.rate")
+                .baseUnit("frames/s")
+                .description("Average inbound frame rate of a STOMP session over its lifetime")
+                .register(meterRegistry);
+        Gauge.builder("stomp.sessions", sessions, Map::size)
+                .description("Open STOMP sessions")
+                .register(meterRegistry);
+    }
+
+    private static Counter frameCounter(MeterRegistry meterRegistry, String command) {
+        return Counter.builder("stomp.frames")
+                .tag("command", command)
+                .description("Inbound STOMP frames by command")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, SimpMessageHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        StompCommand command = accessor instanceof StompHeaderAccessor stomp ? stomp.getCommand() : null;
+        int size = message.getPayload() instanceof byte[] bytes ? bytes.length : 0;
+        String sessionId = accessor.getSessionId();
+
+        if (command != null) {
+            frames.get(command).increment();
+            payloadSizes.get(command).record(size);
+        } else {
+            otherFrames.increment();
+        }
+
+        if (sessionId != null) {
+            boolean disconnect = command == StompCommand.DISCONNECT
+                    || accessor.getMessageType() == SimpMessageType.DISCONNECT;
+            track(sessionId, disconnect, accessor.getUser());
+        }
+
+        if (traceSettings.shouldTrace(sessionId, username(accessor.getUser()))) {
+            log.info("STOMP {} session={} user={} destination={} bytes={}",
+                    command != null ? command : accessor.getMessageType(),
+                    sessionId, username(accessor.getUser()), accessor.getDestination(), size);
+        }
+
+        return message;
+    }
+
+    private void track(String sessionId, boolean disconnect, Principal user) {
+        if (disconnect) {
+            SessionActivity activity = sessions.remove(sessionId);
+            if (activity != null) {
+                long frameCount = activity.frames.sum() + 1;
+                sessionFrames.record(frameCount);
+                sessionRates.record(activity.rate(frameCount));
+            }
+            return;
+        }
+
+        SessionActivity activity = sessions.computeIfAbsent(sessionId, id -> new SessionActivity());
+        activity.frames.increment();
+        if (activity.username == null && user != null) {
+            activity.username = user.getName();
+        }
+    }
+
+    /**
+     * The busiest open sessions by frame count, for the stomp actuator endpoint.
+     */
+    public List<SessionSummary> busiestSessions(int limit) {
+        return sessions.entrySet().stream()
+                .map(entry -> entry.getValue().summary(entry.getKey()))
+                .sorted(Comparator.comparingLong(SessionSummary::frames).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public int openSessions() {
+        return sessions.size();
+    }
+
+    private static String username(Principal user) {
+        return user != null ? user.getName() : null;
+    }
+
+    public record SessionSummary(String sessionId, String username, long frames, double framesPerSecond) {
+    }
+
+    private static final class SessionActivity {
+
+        private final long connectedAt = System.nanoTime();
+        private final LongAdder frames = new LongAdder();
+        private volatile String username;
+
+        double rate(long frameCount) {
+            double seconds = (System.nanoTime() - connectedAt) / 1e9;
+            return seconds > 0 ? frameCount / seconds : frameCount;
+        }
+
+        SessionSummary summary(String sessionId) {
+            long frameCount = frames.sum();
+            return new SessionSummary(sessionId, username, frameCount, rate(frameCount));
+        }
+    }
+}
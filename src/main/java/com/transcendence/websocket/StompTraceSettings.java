@@ -0,0 +1,66 @@
+package com.transcendence.websocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runtime switches for per-frame STOMP tracing: specific users, specific sessions,
+ * and a random sample of all frames. Everything is off by default and can be changed
+ * through the stomp actuator endpoint without a restart.
+ */
+@Component
+public class StompTraceSettings {
+
+    private final Set<String> users = ConcurrentHashMap.newKeySet();
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    private volatile double sampleRate;
+
+    public StompTraceSettings(@Value("${stomp.trace.sample-rate:0}") double sampleRate) {
+        setSampleRate(sampleRate);
+    }
+
+    public boolean shouldTrace(String sessionId, String username) {
+        if (sessionId != null && sessions.contains(sessionId)) {
+            return true;
+        }
+        if (username != null && users.contains(username)) {
+            return true;
+        }
+        double rate = sampleRate;
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    public void traceUser(String username) {
+        users.add(username);
+    }
+
+    public void traceSession(String sessionId) {
+        sessions.add(sessionId);
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = Math.min(Math.max(sampleRate, 0), 1);
+    }
+
+    public void clear() {
+        users.clear();
+        sessions.clear();
+        sampleRate = 0;
+    }
+
+    public Set<String> tracedUsers() {
+        return Set.copyOf(users);
+    }
+
+    public Set<String> tracedSessions() {
+        return Set.copyOf(sessions);
+    }
+
+    public double sampleRate() {
+        return sampleRate;
+    }
+}
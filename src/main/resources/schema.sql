@@ -0,0 +1,34 @@
+-- Indexes the application relies on that are not part of the original database file.
+-- Runs on every startup (spring.sql.init.mode=always), so every statement must be idempotent.
+
+-- Leaderboard keyset order: xp desc, level desc, user id asc
+CREATE INDEX IF NOT EXISTS idx_user_stats_leaderboard ON user_stats (xp DESC, level DESC, user_id);
+
+-- Game history keyset order: newest first per user, id breaks created_at ties
+CREATE INDEX IF NOT EXISTS idx_pong_matches_user_created ON pong_matches (user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_arkanoid_scores_user_created ON arkanoid_scores (user_id, created_at DESC, id DESC);
+
+-- Glicko-2 ratings per user and mode. base_* is the rating when the current period opened,
+-- variance_inverse and improvement sum that period's games (see RatingState)
+CREATE TABLE IF NOT EXISTS pong_ratings (
+    user_id          INTEGER NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    mode             TEXT    NOT NULL,
+    rating           REAL    NOT NULL,
+    rd               REAL    NOT NULL,
+    volatility       REAL    NOT NULL,
+    games            INTEGER NOT NULL,
+    period           INTEGER NOT NULL,
+    base_rating      REAL    NOT NULL,
+    base_rd          REAL    NOT NULL,
+    base_volatility  REAL    NOT NULL,
+    variance_inverse REAL    NOT NULL,
+    improvement      REAL    NOT NULL,
+    updated_at       INTEGER NOT NULL,
+    PRIMARY KEY (user_id, mode)
+);
+
+-- Who an online two-player match was against; local matches on one keyboard have no row
+CREATE TABLE IF NOT EXISTS pong_match_opponents (
+    match_id    INTEGER PRIMARY KEY REFERENCES pong_matches (id) ON DELETE CASCADE,
+    opponent_id INTEGER NOT NULL
+);
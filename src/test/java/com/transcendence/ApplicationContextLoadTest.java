@@ -0,0 +1,50 @@
+package com.transcendence;
+
+import com.transcendence.chat.OnlineUsersService;
+import com.transcendence.leaderboard.LeaderboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the whole application against a copy of the bundled SQLite database, so wiring errors
+ * (ambiguous constructors, proxies that hide listener methods, ...) fail the build.
+ * TranscendenceApplicationTests needs the docker profile's certificates and stays excluded.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.sqlite.JDBC",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.community.dialect.SQLiteDialect",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.mode=always",
+        "jwt.secret=aVeryLongAndSecureSecretKeyThatIsAtLeast256BitsLongAndIsBASE64Encoded",
+        "jwt.expiration=86400000"
+})
+class ApplicationContextLoadTest {
+
+    @DynamicPropertySource
+    static void sqliteDatabase(DynamicPropertyRegistry registry) throws IOException {
+        Path database = Files.createTempFile("context-load", ".db");
+        database.toFile().deleteOnExit();
+        Files.copy(Path.of("data", "ft_transcendence.db"), database, StandardCopyOption.REPLACE_EXISTING);
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + database);
+    }
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void contextLoads() {
+        assertThat(context.getBean(OnlineUsersService.class)).isNotNull();
+        assertThat(context.getBean(LeaderboardService.class)).isNotNull();
+    }
+}
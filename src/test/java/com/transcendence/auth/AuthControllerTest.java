@@ -8,6 +8,7 @@ import com.transcendence.entity.User;
 import com.transcendence.security.details.CustomUserDetailsService;
 import com.transcendence.security.jwt.JwtAuthenticationFilter;
 import com.transcendence.security.jwt.JwtTokenProvider;
+import com.transcendence.security.ratelimit.RateLimiter;
 import com.transcendence.user.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
@@ -57,6 +58,9 @@ class AuthControllerTest {
     @MockBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @MockBean
+    private RateLimiter rateLimiter;
+
     private RegisterRequest mockRegisterRequest;
     private LoginRequest mockLoginRequest;
     private User mockUser;
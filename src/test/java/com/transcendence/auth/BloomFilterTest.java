@@ -0,0 +1,47 @@
+package com.transcendence.auth;
+
+import com.transcendence.security.jwt.TokenDigest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_shouldNeverReturnFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(1000, 0.01);
+
+        for (int i = 0; i < 1000; i++) {
+            filter.put(TokenDigest.sha256Bytes("revoked-" + i));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain(TokenDigest.sha256Bytes("revoked-" + i))).isTrue();
+        }
+    }
+
+    @Test
+    void mightContain_shouldKeepFalsePositivesNearConfiguredRate() {
+        BloomFilter filter = BloomFilter.create(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(TokenDigest.sha256Bytes("revoked-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(TokenDigest.sha256Bytes("active-" + i))) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(300); // 1% target, generous bound
+    }
+
+    @Test
+    void create_shouldSizeForExpectedInsertions() {
+        BloomFilter filter = BloomFilter.create(10000, 0.01);
+
+        assertThat(filter.bitSize()).isGreaterThan(90000);
+        assertThat(filter.hashCount()).isEqualTo(7);
+    }
+}
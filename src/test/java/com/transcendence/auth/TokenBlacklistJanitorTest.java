@@ -0,0 +1,77 @@
+package com.transcendence.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenBlacklistJanitorTest {
+
+    @Mock
+    private BlacklistedTokenRepository blacklistRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenBlacklistJanitor janitor;
+
+    private final LocalDateTime cutoff = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        janitor = new TokenBlacklistJanitor(blacklistRepository, meterRegistry, 2, 10);
+    }
+
+    // ====================================================================
+    // 1. Test purgeExpiredTokens - batching
+    // ====================================================================
+
+    @Test
+    void purgeExpiredTokens_shouldDeleteInBatchesUntilExhausted() {
+        when(blacklistRepository.findExpiredTokens(eq(cutoff), any(Pageable.class)))
+                .thenReturn(List.of("a", "b"))
+                .thenReturn(List.of("c", "d"))
+                .thenReturn(List.of("e"));
+
+        int purged = janitor.purgeExpiredTokens(cutoff);
+
+        assertThat(purged).isEqualTo(5);
+        verify(blacklistRepository).deleteAllByIdInBatch(List.of("a", "b"));
+        verify(blacklistRepository).deleteAllByIdInBatch(List.of("c", "d"));
+        verify(blacklistRepository).deleteAllByIdInBatch(List.of("e"));
+        assertThat(meterRegistry.get("jwt.blacklist.purged").counter().count()).isEqualTo(5.0);
+        assertThat(meterRegistry.get("jwt.blacklist.purge.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void purgeExpiredTokens_whenNothingExpired_shouldNotDelete() {
+        when(blacklistRepository.findExpiredTokens(eq(cutoff), any(Pageable.class))).thenReturn(List.of());
+
+        int purged = janitor.purgeExpiredTokens(cutoff);
+
+        assertThat(purged).isZero();
+        verify(blacklistRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void purgeExpiredTokens_shouldStopAfterMaxBatchesPerRun() {
+        when(blacklistRepository.findExpiredTokens(eq(cutoff), any(Pageable.class)))
+                .thenReturn(List.of("a", "b"));
+
+        int purged = janitor.purgeExpiredTokens(cutoff);
+
+        assertThat(purged).isEqualTo(20);
+        verify(blacklistRepository, times(10)).deleteAllByIdInBatch(any());
+    }
+}
@@ -0,0 +1,124 @@
+package com.transcendence.auth;
+
+import com.transcendence.entity.BlacklistedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private BlacklistedTokenRepository blacklistRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationService revocationService;
+
+    private static final String REVOKED_TOKEN = "revoked.jwt.token";
+    private static final String ACTIVE_TOKEN = "active.jwt.token";
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        revocationService = new TokenRevocationService(blacklistRepository, meterRegistry, 1000, 0.01);
+    }
+
+    private double checks(String outcome) {
+        return meterRegistry.get("jwt.revocation.checks").tag("outcome", outcome).counter().count();
+    }
+
+    // ====================================================================
+    // 1. Test loadRevokedTokens
+    // ====================================================================
+
+    @Test
+    void loadRevokedTokens_shouldMakeStoredRevocationsVisibleWithoutDatabaseLookups() {
+        BlacklistedToken stored = BlacklistedToken.builder()
+                .token(REVOKED_TOKEN)
+                .expiryDate(LocalDateTime.now().plusHours(1))
+                .build();
+        when(blacklistRepository.findByExpiryDateAfter(any(LocalDateTime.class))).thenReturn(List.of(stored));
+
+        revocationService.loadRevokedTokens();
+
+        assertThat(revocationService.isRevoked(REVOKED_TOKEN)).isTrue();
+        assertThat(revocationService.revokedCount()).isEqualTo(1);
+        verify(blacklistRepository, never()).existsByToken(anyString());
+    }
+
+    // ====================================================================
+    // 2. Test isRevoked
+    // ====================================================================
+
+    @Test
+    void isRevoked_forUnknownToken_shouldAnswerFromBloomFilter() {
+        assertThat(revocationService.isRevoked(ACTIVE_TOKEN)).isFalse();
+
+        verify(blacklistRepository, never()).existsByToken(anyString());
+        assertThat(checks("bloom_negative")).isEqualTo(1.0);
+    }
+
+    // ====================================================================
+    // 3. Test revoke
+    // ====================================================================
+
+    @Test
+    void revoke_shouldPersistAndTakeEffectImmediately() {
+        revocationService.revoke(REVOKED_TOKEN, LocalDateTime.now().plusHours(1));
+
+        verify(blacklistRepository, times(1)).save(any(BlacklistedToken.class));
+        assertThat(revocationService.isRevoked(REVOKED_TOKEN)).isTrue();
+        assertThat(revocationService.isRevoked(ACTIVE_TOKEN)).isFalse();
+        assertThat(checks("memory_revoked")).isEqualTo(1.0);
+    }
+
+    // ====================================================================
+    // 4. Test refreshFromDatabase
+    // ====================================================================
+
+    @Test
+    void refreshFromDatabase_shouldPickUpRevocationsFromOtherInstances() {
+        revocationService.revoke(ACTIVE_TOKEN, LocalDateTime.now().plusHours(1));
+        // Revoked elsewhere: this instance's Bloom filter does not know it yet
+        assertThat(revocationService.isRevoked(REVOKED_TOKEN)).isFalse();
+
+        BlacklistedToken stored = BlacklistedToken.builder()
+                .token(REVOKED_TOKEN)
+                .expiryDate(LocalDateTime.now().plusHours(1))
+                .build();
+        when(blacklistRepository.findByExpiryDateAfter(any(LocalDateTime.class))).thenReturn(List.of(stored));
+
+        revocationService.refreshFromDatabase();
+
+        assertThat(revocationService.isRevoked(REVOKED_TOKEN)).isTrue();
+        // Local revocations the query may have missed are kept
+        assertThat(revocationService.isRevoked(ACTIVE_TOKEN)).isTrue();
+        assertThat(revocationService.revokedCount()).isEqualTo(2);
+    }
+
+    // ====================================================================
+    // 5. Test evictExpired
+    // ====================================================================
+
+    @Test
+    void evictExpired_shouldDropExpiredRevocations() {
+        revocationService.revoke(REVOKED_TOKEN, LocalDateTime.now().minusSeconds(1));
+        revocationService.revoke(ACTIVE_TOKEN, LocalDateTime.now().plusHours(1));
+
+        revocationService.evictExpired();
+
+        assertThat(revocationService.revokedCount()).isEqualTo(1);
+        assertThat(revocationService.isRevoked(ACTIVE_TOKEN)).isTrue();
+    }
+}
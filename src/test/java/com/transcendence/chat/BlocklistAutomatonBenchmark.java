@@ -0,0 +1,63 @@
+package com.transcendence.chat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of moderating one chat message against 10k patterns. Not picked up by the default
+ * test run; run with: mvn test -Dtest=BlocklistAutomatonBenchmark
+ */
+class BlocklistAutomatonBenchmark {
+
+    private static final int PATTERNS = 10_000;
+    private static final int WARMUP = 500_000;
+    private static final int MEASURED = 2_000_000;
+
+    @Test
+    void maskCostPerMessage() {
+        Random random = new Random(42);
+        List<String> patterns = new ArrayList<>(PATTERNS);
+        for (int i = 0; i < PATTERNS; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int j = 4 + random.nextInt(8); j > 0; j--) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            patterns.add(word.toString());
+        }
+
+        long buildStart = System.nanoTime();
+        BlocklistAutomaton automaton = BlocklistAutomaton.compile(patterns);
+        long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+
+        String clean = "hey everyone, good game yesterday! anyone up for a rematch of pong later tonight? gg wp";
+        String dirty = clean + " " + patterns.get(17);
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += automaton.mask(clean).length() + automaton.mask(dirty).length();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) {
+            sink += automaton.mask(clean).length();
+        }
+        double cleanNs = (System.nanoTime() - start) / (double) MEASURED;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) {
+            sink += automaton.mask(dirty).length();
+        }
+        double dirtyNs = (System.nanoTime() - start) / (double) MEASURED;
+
+        System.out.printf("%d patterns, %d states, built in %d ms%n", PATTERNS, automaton.stateCount(), buildMs);
+        System.out.printf("clean %d chars: %.0f ns/message, masked %d chars: %.0f ns/message%n",
+                clean.length(), cleanNs, dirty.length(), dirtyNs);
+
+        assertThat(sink).isPositive();
+    }
+}
@@ -0,0 +1,51 @@
+package com.transcendence.chat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlocklistAutomatonTest {
+
+    @Test
+    void mask_shouldReplaceWholeWordsIgnoringCase() {
+        BlocklistAutomaton automaton = BlocklistAutomaton.compile(List.of("darn", "heck"));
+
+        assertThat(automaton.mask("Darn it, what the HECK")).isEqualTo("**** it, what the ****");
+    }
+
+    @Test
+    void mask_shouldNotMatchInsideLongerWords() {
+        BlocklistAutomaton automaton = BlocklistAutomaton.compile(List.of("ass"));
+
+        assertThat(automaton.mask("first class passage")).isEqualTo("first class passage");
+        assertThat(automaton.mask("ass.")).isEqualTo("***.");
+    }
+
+    @Test
+    void mask_shouldHandleOverlappingAndPhrasePatterns() {
+        BlocklistAutomaton automaton = BlocklistAutomaton.compile(List.of("bad", "bad word", "word"));
+
+        assertThat(automaton.mask("a bad word here")).isEqualTo("a *** **** here");
+        assertThat(automaton.mask("badword")).isEqualTo("badword");
+    }
+
+    @Test
+    void mask_shouldReturnSameInstanceWhenClean() {
+        BlocklistAutomaton automaton = BlocklistAutomaton.compile(List.of("darn"));
+        String message = "nothing to see here";
+
+        assertThat(automaton.mask(message)).isSameAs(message);
+        assertThat(automaton.matches(message)).isFalse();
+    }
+
+    @Test
+    void compile_shouldIgnoreBlankPatterns() {
+        BlocklistAutomaton automaton = BlocklistAutomaton.compile(List.of("", "   ", " Darn "));
+
+        assertThat(automaton.patternCount()).isEqualTo(1);
+        assertThat(automaton.matches("oh darn")).isTrue();
+        assertThat(BlocklistAutomaton.EMPTY.mask("oh darn")).isEqualTo("oh darn");
+    }
+}
@@ -0,0 +1,115 @@
+package com.transcendence.chat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transcendence.chat.dto.ChatMessageDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ChatHistoryBufferTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private ChatService chatService;
+    private ObjectMapper objectMapper;
+    private ChatHistoryBuffer buffer;
+
+    @BeforeEach
+    void setup() {
+        chatService = mock(ChatService.class);
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        buffer = new ChatHistoryBuffer(chatService, objectMapper, 3);
+    }
+
+    private static ChatMessageDTO message(String content, int minute) {
+        return new ChatMessageDTO("alice", content, NOW.plusMinutes(minute), "CHAT");
+    }
+
+    private static List<String> contents(List<ChatMessageDTO> messages) {
+        return messages.stream().map(ChatMessageDTO::getContent).toList();
+    }
+
+    // ====================================================================
+    // 1. Test seed
+    // ====================================================================
+
+    @Test
+    void seed_shouldLoadCapacityAndStoreOldestFirst() {
+        when(chatService.getRecentMessages(3))
+                .thenReturn(List.of(message("c", 3), message("b", 2), message("a", 1)));
+
+        buffer.seed();
+
+        verify(chatService).getRecentMessages(3);
+        assertThat(contents(buffer.snapshot())).containsExactly("a", "b", "c");
+    }
+
+    // ====================================================================
+    // 2. Test append
+    // ====================================================================
+
+    @Test
+    void append_whenFull_shouldDropOldestMessage() {
+        for (int i = 1; i <= 5; i++) {
+            buffer.append(message("m" + i, i));
+        }
+
+        assertThat(contents(buffer.snapshot())).containsExactly("m3", "m4", "m5");
+    }
+
+    @Test
+    void append_withJoinOrLeave_shouldNotBeRetained() {
+        buffer.append(message("hello", 1));
+        buffer.append(new ChatMessageDTO("System", "bob joined the chat", NOW, "JOIN"));
+        buffer.append(new ChatMessageDTO("System", "bob left the chat", NOW, "LEAVE"));
+
+        assertThat(contents(buffer.snapshot())).containsExactly("hello");
+    }
+
+    // ====================================================================
+    // 3. Test historyPayload
+    // ====================================================================
+
+    @Test
+    void historyPayload_shouldBeJsonArrayInChronologicalOrder() throws Exception {
+        buffer.append(message("first", 1));
+        buffer.append(message("second", 2));
+
+        Message<byte[]> payload = buffer.historyPayload();
+        JsonNode json = objectMapper.readTree(payload.getPayload());
+
+        assertThat(payload.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+        assertThat(json.isArray()).isTrue();
+        assertThat(json).hasSize(2);
+        assertThat(json.get(0).get("content").asText()).isEqualTo("first");
+        assertThat(json.get(1).get("sender").asText()).isEqualTo("alice");
+    }
+
+    @Test
+    void historyPayload_shouldBeReusedUntilNextAppend() {
+        buffer.append(message("first", 1));
+
+        Message<byte[]> first = buffer.historyPayload();
+        Message<byte[]> repeat = buffer.historyPayload();
+
+        buffer.append(message("second", 2));
+        Message<byte[]> afterAppend = buffer.historyPayload();
+
+        assertThat(repeat).isSameAs(first);
+        assertThat(afterAppend).isNotSameAs(first);
+    }
+
+    @Test
+    void historyPayload_whenEmpty_shouldBeEmptyArray() {
+        assertThat(new String(buffer.historyPayload().getPayload())).isEqualTo("[]");
+    }
+}
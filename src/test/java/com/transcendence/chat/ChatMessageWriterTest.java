@@ -0,0 +1,138 @@
+package com.transcendence.chat;
+
+import com.transcendence.entity.ChatMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChatMessageWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService writerExecutor;
+    private ChatMessageWriter writer;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+        writerExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+        writerExecutor.shutdownNow();
+    }
+
+    private ChatMessageWriter newWriter(int batchSize, long flushIntervalMs) {
+        writer = new ChatMessageWriter(jdbcTemplate, transactionManager, meterRegistry, writerExecutor,
+                100, batchSize, flushIntervalMs);
+        return writer;
+    }
+
+    private static ChatMessage message(String content) {
+        return ChatMessage.builder()
+                .sender("alice")
+                .content(content)
+                .timestamp(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .type("CHAT")
+                .build();
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO chat_messages (sender, content, timestamp, type) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    private double messages(String outcome) {
+        return meterRegistry.get("chat.persistence.messages").tag("outcome", outcome).counter().count();
+    }
+
+    // ====================================================================
+    // 1. Test batching
+    // ====================================================================
+
+    @Test
+    void enqueue_whenBatchFills_shouldWriteOneMultiRowInsert() {
+        newWriter(5, 10_000).start();
+
+        for (int i = 0; i < 5; i++) {
+            writer.enqueue(message("m" + i));
+        }
+
+        verify(jdbcTemplate, timeout(2000)).update(eq(insertSql(5)), any(Object[].class));
+        verify(transactionManager, timeout(2000)).commit(any());
+        assertThat(messages("enqueued")).isEqualTo(5.0);
+    }
+
+    @Test
+    void enqueue_whenFlushIntervalElapses_shouldWritePartialBatch() {
+        newWriter(100, 500).start();
+
+        writer.enqueue(message("a"));
+        writer.enqueue(message("b"));
+
+        verify(jdbcTemplate, timeout(2000)).update(eq(insertSql(2)), any(Object[].class));
+    }
+
+    // ====================================================================
+    // 2. Test shutdown and fallback
+    // ====================================================================
+
+    @Test
+    void stop_shouldFlushQueuedMessages() {
+        newWriter(100, 10_000).start();
+
+        writer.enqueue(message("a"));
+        writer.enqueue(message("b"));
+        writer.enqueue(message("c"));
+        writer.stop();
+
+        verify(jdbcTemplate, atLeastOnce()).update(anyString(), any(Object[].class));
+        assertThat(writer.pending()).isZero();
+        assertThat(messages("persisted")).isEqualTo(3.0);
+    }
+
+    @Test
+    void enqueue_whenWriterNotRunning_shouldPersistOnCallerThread() {
+        newWriter(100, 10_000);
+
+        writer.enqueue(message("a"));
+
+        verify(jdbcTemplate).update(eq(insertSql(1)), any(Object[].class));
+        assertThat(messages("overflow")).isEqualTo(1.0);
+    }
+
+    @Test
+    void enqueue_whenInsertFails_shouldCountFailureWithoutThrowing() {
+        newWriter(100, 10_000);
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("database is locked"));
+
+        assertThatCode(() -> writer.enqueue(message("a"))).doesNotThrowAnyException();
+
+        verify(transactionManager).rollback(any());
+        assertThat(messages("failed")).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.transcendence.chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatModerationFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private Path blocklist;
+
+    @BeforeEach
+    void setup() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        blocklist = tempDir.resolve("blocklist.txt");
+        Files.writeString(blocklist, "# words\ndarn\n\nheck\n");
+    }
+
+    private double messages(String outcome) {
+        return meterRegistry.get("chat.moderation.messages").tag("outcome", outcome).counter().count();
+    }
+
+    // ====================================================================
+    // 1. Test moderate
+    // ====================================================================
+
+    @Test
+    void moderate_maskAction_shouldMaskMatches() {
+        ChatModerationFilter filter = new ChatModerationFilter(meterRegistry, blocklist.toString(), "mask");
+
+        assertThat(filter.moderate("darn it")).isEqualTo("**** it");
+        assertThat(filter.moderate("hello")).isEqualTo("hello");
+        assertThat(messages("masked")).isEqualTo(1.0);
+        assertThat(messages("clean")).isEqualTo(1.0);
+    }
+
+    @Test
+    void moderate_rejectAction_shouldReturnNullForMatches() {
+        ChatModerationFilter filter = new ChatModerationFilter(meterRegistry, blocklist.toString(), "reject");
+
+        assertThat(filter.moderate("what the heck")).isNull();
+        assertThat(filter.moderate("hello")).isEqualTo("hello");
+        assertThat(messages("rejected")).isEqualTo(1.0);
+    }
+
+    @Test
+    void moderate_withoutBlocklist_shouldPassEverything() {
+        ChatModerationFilter filter = new ChatModerationFilter(meterRegistry, "", "mask");
+
+        assertThat(filter.moderate("darn it")).isEqualTo("darn it");
+    }
+
+    // ====================================================================
+    // 2. Test reloading
+    // ====================================================================
+
+    @Test
+    void reloadIfChanged_shouldPickUpEditedFile() throws Exception {
+        ChatModerationFilter filter = new ChatModerationFilter(meterRegistry, blocklist.toString(), "mask");
+
+        Files.writeString(blocklist, "gosh\n");
+        Files.setLastModifiedTime(blocklist, FileTime.from(Instant.now().plusSeconds(60)));
+        filter.reloadIfChanged();
+
+        assertThat(filter.moderate("darn it")).isEqualTo("darn it");
+        assertThat(filter.moderate("oh gosh")).isEqualTo("oh ****");
+        assertThat(meterRegistry.get("chat.moderation.patterns").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void reloadIfChanged_missingFile_shouldKeepPreviousList() throws Exception {
+        ChatModerationFilter filter = new ChatModerationFilter(meterRegistry, blocklist.toString(), "mask");
+
+        Files.delete(blocklist);
+        filter.reloadIfChanged();
+
+        assertThat(filter.moderate("darn it")).isEqualTo("**** it");
+    }
+}
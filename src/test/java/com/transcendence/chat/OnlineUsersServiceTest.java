@@ -0,0 +1,240 @@
+package com.transcendence.chat;
+
+import com.transcendence.chat.dto.PresenceDeltaDTO;
+import com.transcendence.chat.dto.PresenceSnapshotDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OnlineUsersServiceTest {
+
+    private static final String NODE = "node-1";
+
+    private SimpMessagingTemplate messagingTemplate;
+    private List<Runnable> scheduledFlushes;
+    private OnlineUsersService onlineUsersService;
+
+    @BeforeEach
+    void setup() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        // Flushes are held back so each test decides when the coalescing window closes
+        scheduledFlushes = new ArrayList<>();
+        onlineUsersService = new OnlineUsersService(messagingTemplate, scheduledFlushes::add, NODE, null);
+    }
+
+    private void closeWindow() {
+        List<Runnable> due = new ArrayList<>(scheduledFlushes);
+        scheduledFlushes.clear();
+        due.forEach(Runnable::run);
+    }
+
+    private static PresenceDeltaDTO delta(long seq, List<String> joined, List<String> left) {
+        return new PresenceDeltaDTO(NODE, seq, joined, left);
+    }
+
+    // ====================================================================
+    // 1. Test addUser
+    // ====================================================================
+
+    @Test
+    void addUser_firstSession_shouldPublishJoinDelta() {
+        onlineUsersService.addUser("s1", "alice");
+        closeWindow();
+
+        verify(messagingTemplate).convertAndSend("/topic/users", delta(1, List.of("alice"), List.of()));
+        assertThat(onlineUsersService.isOnline("alice")).isTrue();
+    }
+
+    @Test
+    void addUser_secondSession_shouldCountWithoutBroadcasting() {
+        onlineUsersService.addUser("s1", "alice");
+        closeWindow();
+        onlineUsersService.addUser("s2", "alice");
+        closeWindow();
+
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/users"), any(Object.class));
+        assertThat(onlineUsersService.sessionCount("alice")).isEqualTo(2);
+    }
+
+    @Test
+    void addUser_sameSessionTwice_shouldCountOnce() {
+        onlineUsersService.addUser("s1", "alice");
+        onlineUsersService.addUser("s1", "alice");
+
+        assertThat(onlineUsersService.sessionCount("alice")).isEqualTo(1);
+    }
+
+    // ====================================================================
+    // 2. Test removeUser
+    // ====================================================================
+
+    @Test
+    void removeUser_withOtherSessionsOpen_shouldStayOnline() {
+        onlineUsersService.addUser("s1", "alice");
+        onlineUsersService.addUser("s2", "alice");
+        closeWindow();
+        clearInvocations(messagingTemplate);
+
+        onlineUsersService.removeUser("s1");
+        closeWindow();
+
+        assertThat(onlineUsersService.isOnline("alice")).isTrue();
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void removeUser_lastSession_shouldPublishLeaveDelta() {
+        onlineUsersService.addUser("s1", "alice");
+        onlineUsersService.addUser("s2", "bob");
+        closeWindow();
+
+        onlineUsersService.removeUser("s1");
+        closeWindow();
+
+        verify(messagingTemplate).convertAndSend("/topic/users", delta(2, List.of(), List.of("alice")));
+        assertThat(onlineUsersService.getOnlineUsers()).containsExactly("bob");
+    }
+
+    @Test
+    void removeUser_unknownSession_shouldDoNothing() {
+        onlineUsersService.removeUser("missing");
+        closeWindow();
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void removeUser_concurrentDisconnectsOfSameUser_shouldEndOffline() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 200; round++) {
+                for (int s = 0; s < 8; s++) {
+                    onlineUsersService.addUser("r" + round + "-s" + s, "alice");
+                }
+
+                CountDownLatch start = new CountDownLatch(1);
+                CountDownLatch done = new CountDownLatch(8);
+                for (int s = 0; s < 8; s++) {
+                    String sessionId = "r" + round + "-s" + s;
+                    pool.execute(() -> {
+                        try {
+                            start.await();
+                            onlineUsersService.removeUser(sessionId);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                start.countDown();
+                assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+                assertThat(onlineUsersService.isOnline("alice")).isFalse();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ====================================================================
+    // 3. Test presence deltas
+    // ====================================================================
+
+    @Test
+    void changesWithinWindow_shouldBeCoalescedIntoOneDelta() {
+        onlineUsersService.addUser("s1", "alice");
+        onlineUsersService.addUser("s2", "bob");
+        onlineUsersService.addUser("s3", "carol");
+
+        assertThat(scheduledFlushes).hasSize(1);
+        closeWindow();
+
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/users"), any(Object.class));
+        verify(messagingTemplate).convertAndSend("/topic/users", delta(1, List.of("alice", "bob", "carol"), List.of()));
+    }
+
+    @Test
+    void flappingUser_shouldBeReportedInFinalState() {
+        onlineUsersService.addUser("s1", "alice");
+        closeWindow();
+
+        onlineUsersService.removeUser("s1");
+        onlineUsersService.addUser("s2", "alice");
+        closeWindow();
+
+        verify(messagingTemplate).convertAndSend("/topic/users", delta(2, List.of("alice"), List.of()));
+    }
+
+    @Test
+    void sendSnapshot_shouldCarryLastPublishedSequence() {
+        onlineUsersService.addUser("s1", "alice");
+        closeWindow();
+        onlineUsersService.addUser("s2", "bob");
+
+        onlineUsersService.sendSnapshot("bob");
+
+        // bob's join is not published yet, but the snapshot already lists him
+        verify(messagingTemplate).convertAndSendToUser(eq("bob"), eq("/queue/users"),
+                argThat((Object payload) -> payload instanceof PresenceSnapshotDTO snapshot
+                        && snapshot.getSeq() == 1
+                        && snapshot.getUsers().containsAll(List.of("alice", "bob"))));
+    }
+
+    // ====================================================================
+    // 4. Test relay mode presence
+    // ====================================================================
+
+    private static SimpUser remoteUser(String username) {
+        SimpUser user = mock(SimpUser.class);
+        when(user.getName()).thenReturn(username);
+        return user;
+    }
+
+    @Test
+    void relayMode_userStillOnAnotherNode_shouldNotBeReportedAsLeft() {
+        SimpUserRegistry registry = mock(SimpUserRegistry.class);
+        OnlineUsersService clustered = new OnlineUsersService(messagingTemplate, scheduledFlushes::add, NODE, registry);
+        SimpUser alice = remoteUser("alice");
+        when(registry.getUser("alice")).thenReturn(alice);
+
+        clustered.addUser("s1", "alice");
+        closeWindow();
+        clustered.removeUser("s1");
+        closeWindow();
+
+        assertThat(clustered.isOnline("alice")).isTrue();
+        assertThat(clustered.sessionCount("alice")).isZero();
+        verify(messagingTemplate, never()).convertAndSend("/topic/users", delta(2, List.of(), List.of("alice")));
+    }
+
+    @Test
+    void relayMode_snapshot_shouldIncludeUsersOfOtherNodes() {
+        SimpUserRegistry registry = mock(SimpUserRegistry.class);
+        OnlineUsersService clustered = new OnlineUsersService(messagingTemplate, scheduledFlushes::add, NODE, registry);
+        SimpUser bob = remoteUser("bob");
+        when(registry.getUsers()).thenReturn(Set.of(bob));
+
+        clustered.addUser("s1", "alice");
+        clustered.sendSnapshot("alice");
+
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"), eq("/queue/users"),
+                argThat((Object payload) -> payload instanceof PresenceSnapshotDTO snapshot
+                        && NODE.equals(snapshot.getNode())
+                        && snapshot.getUsers().containsAll(List.of("alice", "bob"))));
+    }
+}
@@ -0,0 +1,108 @@
+package com.transcendence.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncConfigTest {
+
+    private MockEnvironment environment;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        environment = new MockEnvironment();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private double rejected(String name) {
+        return meterRegistry.get("executor.rejected").tag("name", name).counter().count();
+    }
+
+    // ====================================================================
+    // 1. Test rejection policies
+    // ====================================================================
+
+    @Test
+    void chatPersistenceExecutor_whenBusy_shouldAbortAndCountRejection() {
+        executor = new AsyncConfig(environment, meterRegistry).chatPersistenceExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.execute(() -> awaitQuietly(release));
+
+        assertThatThrownBy(() -> executor.execute(() -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(rejected("chat-persistence")).isEqualTo(1.0);
+        release.countDown();
+    }
+
+    @Test
+    void broadcastExecutor_whenQueueFull_shouldDropAndCountRejection() {
+        environment.setProperty("async.broadcast.queue-capacity", "1");
+        executor = new AsyncConfig(environment, meterRegistry).broadcastExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> { });
+        executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+        // Never run on the caller, where it could overtake broadcasts still queued
+        assertThat(ranOn.get()).isNull();
+        assertThat(rejected("broadcast")).isEqualTo(1.0);
+        release.countDown();
+    }
+
+    // ====================================================================
+    // 2. Test thread configuration and metrics
+    // ====================================================================
+
+    @Test
+    void statsExecutor_withVirtualThreads_shouldRunTasksOnVirtualThreads() throws Exception {
+        environment.setProperty("async.virtual-threads", "true");
+        executor = new AsyncConfig(environment, meterRegistry).statsExecutor();
+
+        Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        assertThat(thread.isVirtual()).isTrue();
+        assertThat(thread.getName()).startsWith("stats-");
+    }
+
+    @Test
+    void statsExecutor_shouldExportQueueAndTimingMetrics() throws Exception {
+        executor = new AsyncConfig(environment, meterRegistry).statsExecutor();
+
+        executor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+
+        assertThat(meterRegistry.get("executor.queued").tag("name", "stats").gauge()).isNotNull();
+        assertThat(meterRegistry.get("executor.active").tag("name", "stats").gauge()).isNotNull();
+        assertThat(meterRegistry.get("executor").tag("name", "stats").timer().count()).isEqualTo(1);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
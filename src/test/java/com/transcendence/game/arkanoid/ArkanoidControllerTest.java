@@ -1,8 +1,10 @@
 package com.transcendence.game.arkanoid;
 
+import com.transcendence.auth.TokenRevocationService;
 import com.transcendence.entity.User;
 import com.transcendence.game.arkanoid.dto.ArkanoidHistoryResponse;
 import com.transcendence.game.arkanoid.dto.ArkanoidScoreRequest;
+import com.transcendence.stats.StatsVersionTracker;
 import com.transcendence.stats.dto.SaveScoreResponse;
 import com.transcendence.stats.dto.UserStatsDto;
 import com.transcendence.user.UserRepository;
@@ -11,10 +13,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import com.transcendence.security.jwt.JwtTokenProvider;
+import com.transcendence.security.jwt.JwtVerificationCache;
 import com.transcendence.security.details.CustomUserDetailsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -22,18 +26,22 @@ import java.util.ArrayList;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ArkanoidController.class)
+@Import(StatsVersionTracker.class)
 class ArkanoidControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private StatsVersionTracker versionTracker;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -49,6 +57,12 @@ class ArkanoidControllerTest {
     @MockBean
     private CustomUserDetailsService customUserDetailsService;
 
+    @MockBean
+    private JwtVerificationCache jwtVerificationCache;
+
+    @MockBean
+    private TokenRevocationService revocationService;
+
     private static final Long TEST_USER_ID = 1L;
     private static final String TEST_USERNAME = "test_user";
     private static final String TEST_EMAIL = "test@example.com";
@@ -186,7 +200,7 @@ class ArkanoidControllerTest {
     @Test
     @WithMockUser(username = TEST_USERNAME)
     void getHistory_shouldReturnArkanoidHistoryResponse_whenAuthenticated() throws Exception {
-        when(arkanoidService.getHistory(TEST_USER_ID)).thenReturn(historyResponse);
+        when(arkanoidService.getHistory(TEST_USER_ID, null, 20)).thenReturn(historyResponse);
 
         mockMvc.perform(get("/api/arkanoid/history")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -205,7 +219,7 @@ class ArkanoidControllerTest {
     @WithMockUser(username = TEST_USERNAME)
     void getHistory_shouldReturnHistoryWithScores_whenScoresExist() throws Exception {
 
-        when(arkanoidService.getHistory(TEST_USER_ID)).thenReturn(historyResponse);
+        when(arkanoidService.getHistory(TEST_USER_ID, null, 20)).thenReturn(historyResponse);
 
         mockMvc.perform(get("/api/arkanoid/history")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -213,4 +227,64 @@ class ArkanoidControllerTest {
                 .andExpect(jsonPath("$.history").isArray());
     }
 
-}
\ No newline at end of file
+    // ====================================================================
+    // 3. Test GET /api/arkanoid/history - conditional requests
+    // ====================================================================
+
+    @Test
+    @WithMockUser(username = TEST_USERNAME)
+    void getHistory_withMatchingETag_shouldReturnNotModifiedWithoutServiceCall() throws Exception {
+        when(arkanoidService.getHistory(TEST_USER_ID, null, 20)).thenReturn(historyResponse);
+
+        String etag = mockMvc.perform(get("/api/arkanoid/history"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/arkanoid/history").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(arkanoidService, times(1)).getHistory(TEST_USER_ID, null, 20);
+    }
+
+    @Test
+    @WithMockUser(username = TEST_USERNAME)
+    void getHistory_afterStatsChange_shouldReturnFreshBody() throws Exception {
+        when(arkanoidService.getHistory(TEST_USER_ID, null, 20)).thenReturn(historyResponse);
+
+        String etag = mockMvc.perform(get("/api/arkanoid/history"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        versionTracker.bumpUser(TEST_USER_ID);
+
+        mockMvc.perform(get("/api/arkanoid/history").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    // ====================================================================
+    // 4. Test GET /api/arkanoid/history - pagination parameters
+    // ====================================================================
+
+    @Test
+    @WithMockUser(username = TEST_USERNAME)
+    void getHistory_shouldPassCursorAndClampPageSize() throws Exception {
+        when(arkanoidService.getHistory(TEST_USER_ID, "abc", 100)).thenReturn(historyResponse);
+
+        mockMvc.perform(get("/api/arkanoid/history")
+                        .param("cursor", "abc")
+                        .param("size", "5000"))
+                .andExpect(status().isOk());
+
+        verify(arkanoidService).getHistory(TEST_USER_ID, "abc", 100);
+    }
+
+    @Test
+    @WithMockUser(username = TEST_USERNAME)
+    void getHistory_withMalformedCursor_shouldReturnBadRequest() throws Exception {
+        when(arkanoidService.getHistory(TEST_USER_ID, "bad", 20))
+                .thenThrow(new IllegalArgumentException("Malformed history cursor"));
+
+        mockMvc.perform(get("/api/arkanoid/history").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+}
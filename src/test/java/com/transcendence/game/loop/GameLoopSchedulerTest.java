@@ -0,0 +1,141 @@
+package com.transcendence.game.loop;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameLoopSchedulerTest {
+
+    private static final int TICK_RATE = 10;
+
+    private SimpleMeterRegistry meterRegistry;
+    private GameLoopScheduler scheduler;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new GameLoopScheduler(meterRegistry, 2, TICK_RATE, 16, 2);
+    }
+
+    private void tickAll(int times) {
+        for (int i = 0; i < times; i++) {
+            for (GameLoopShard shard : scheduler.shards()) {
+                shard.tick();
+            }
+        }
+    }
+
+    // ====================================================================
+    // 1. Test placement and ticking
+    // ====================================================================
+
+    @Test
+    void schedule_spreadsSessionsAcrossShards() {
+        for (int i = 0; i < 6; i++) {
+            scheduler.schedule(() -> true, 1);
+        }
+
+        assertThat(scheduler.shards()[0].load()).isEqualTo(3);
+        assertThat(scheduler.shards()[1].load()).isEqualTo(3);
+        assertThat(scheduler.sessionCount()).isEqualTo(6);
+    }
+
+    @Test
+    void tick_runsSessionsUntilTheyFinish() {
+        AtomicInteger ticks = new AtomicInteger();
+        scheduler.schedule(() -> ticks.incrementAndGet() < 5, 1);
+
+        tickAll(8);
+
+        assertThat(ticks.get()).isEqualTo(5);
+        assertThat(scheduler.sessionCount()).isZero();
+    }
+
+    @Test
+    void tick_dropsSessionThatThrows() {
+        scheduler.schedule(() -> {
+            throw new IllegalStateException("broken");
+        }, 1);
+
+        tickAll(2);
+
+        assertThat(scheduler.sessionCount()).isZero();
+        assertThat(meterRegistry.get("game.loop.sessions.failed").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum()).isEqualTo(1);
+    }
+
+    @Test
+    void periodFor_roundsToWholeLoopTicks() {
+        assertThat(scheduler.periodFor(TICK_RATE)).isEqualTo(1);
+        assertThat(scheduler.periodFor(5)).isEqualTo(2);
+        assertThat(scheduler.periodFor(1000)).isEqualTo(1);
+    }
+
+    // ====================================================================
+    // 2. Test work stealing
+    // ====================================================================
+
+    @Test
+    void idleShardStealsFromBusyShard() {
+        GameLoopShard busy = scheduler.shards()[0];
+        GameLoopShard idle = scheduler.shards()[1];
+        for (int i = 0; i < 12; i++) {
+            busy.submit(new TimingWheel.Entry(() -> true, 1));
+        }
+
+        // The idle shard asks once a second, the busy one hands over on its next tick
+        tickAll(TICK_RATE);
+        busy.tick();
+        idle.tick();
+
+        assertThat(busy.load()).isEqualTo(6);
+        assertThat(idle.load()).isEqualTo(6);
+        assertThat(meterRegistry.get("game.loop.sessions.stolen").tag("shard", "1").counter().count())
+                .isEqualTo(6);
+    }
+
+    @Test
+    void balancedShardsDoNotSteal() {
+        for (int i = 0; i < 8; i++) {
+            scheduler.schedule(() -> true, 1);
+        }
+
+        tickAll(TICK_RATE * 2);
+
+        assertThat(scheduler.shards()[0].load()).isEqualTo(4);
+        assertThat(scheduler.shards()[1].load()).isEqualTo(4);
+    }
+
+    // ====================================================================
+    // 3. Test the loop threads
+    // ====================================================================
+
+    @Test
+    void start_ticksSessionsOnLoopThreadsUntilStopped() throws InterruptedException {
+        scheduler = new GameLoopScheduler(meterRegistry, 1, 100, 16, 2);
+        CountDownLatch ticked = new CountDownLatch(5);
+        String[] threadName = new String[1];
+        scheduler.schedule(() -> {
+            threadName[0] = Thread.currentThread().getName();
+            ticked.countDown();
+            return true;
+        }, 1);
+
+        scheduler.start();
+        try {
+            assertThat(ticked.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            scheduler.stop();
+        }
+
+        assertThat(scheduler.isRunning()).isFalse();
+        assertThat(threadName[0]).isEqualTo("game-loop-0");
+        assertThat(meterRegistry.get("game.loop.tick").tag("shard", "0").timer().count()).isPositive();
+    }
+}
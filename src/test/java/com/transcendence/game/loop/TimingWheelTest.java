@@ -0,0 +1,133 @@
+package com.transcendence.game.loop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private final List<GameSession> ticked = new ArrayList<>();
+
+    private TimingWheel wheel(int slots) {
+        return new TimingWheel(slots, session -> {
+            ticked.add(session);
+            return session.tick();
+        });
+    }
+
+    // Counts its ticks and stays scheduled until it reaches the limit
+    private static final class CountingSession implements GameSession {
+        private final int limit;
+        int ticks;
+
+        CountingSession(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean tick() {
+            return ++ticks < limit;
+        }
+    }
+
+    // ====================================================================
+    // 1. Test scheduling
+    // ====================================================================
+
+    @Test
+    void slotCount_roundsUpToPowerOfTwo() {
+        assertThat(wheel(60).slotCount()).isEqualTo(64);
+        assertThat(wheel(64).slotCount()).isEqualTo(64);
+        assertThat(wheel(1).slotCount()).isEqualTo(2);
+    }
+
+    @Test
+    void advance_runsSessionEveryPeriod() {
+        TimingWheel wheel = wheel(8);
+        CountingSession everyTick = new CountingSession(Integer.MAX_VALUE);
+        CountingSession everyThird = new CountingSession(Integer.MAX_VALUE);
+        wheel.schedule(new TimingWheel.Entry(everyTick, 1), 1);
+        wheel.schedule(new TimingWheel.Entry(everyThird, 3), 3);
+
+        for (int i = 0; i < 30; i++) {
+            wheel.advance();
+        }
+
+        assertThat(everyTick.ticks).isEqualTo(30);
+        assertThat(everyThird.ticks).isEqualTo(10);
+        assertThat(wheel.size()).isEqualTo(2);
+    }
+
+    @Test
+    void advance_handlesDelaysLongerThanOneTurn() {
+        TimingWheel wheel = wheel(4);
+        CountingSession session = new CountingSession(Integer.MAX_VALUE);
+        wheel.schedule(new TimingWheel.Entry(session, 10), 10);
+
+        for (int i = 0; i < 9; i++) {
+            wheel.advance();
+        }
+        assertThat(session.ticks).isZero();
+
+        wheel.advance();
+        assertThat(session.ticks).isEqualTo(1);
+
+        for (int i = 0; i < 10; i++) {
+            wheel.advance();
+        }
+        assertThat(session.ticks).isEqualTo(2);
+    }
+
+    @Test
+    void advance_periodEqualToWheelSizeRunsOncePerTurn() {
+        TimingWheel wheel = wheel(4);
+        CountingSession session = new CountingSession(Integer.MAX_VALUE);
+        wheel.schedule(new TimingWheel.Entry(session, 4), 4);
+
+        for (int i = 0; i < 16; i++) {
+            wheel.advance();
+        }
+
+        assertThat(session.ticks).isEqualTo(4);
+    }
+
+    @Test
+    void advance_dropsFinishedSessions() {
+        TimingWheel wheel = wheel(8);
+        CountingSession session = new CountingSession(3);
+        wheel.schedule(new TimingWheel.Entry(session, 1), 1);
+
+        for (int i = 0; i < 10; i++) {
+            wheel.advance();
+        }
+
+        assertThat(session.ticks).isEqualTo(3);
+        assertThat(wheel.size()).isZero();
+    }
+
+    // ====================================================================
+    // 2. Test removal
+    // ====================================================================
+
+    @Test
+    void removeUpTo_unlinksRequestedNumberOfEntries() {
+        TimingWheel wheel = wheel(8);
+        for (int i = 0; i < 5; i++) {
+            wheel.schedule(new TimingWheel.Entry(new CountingSession(Integer.MAX_VALUE), 2), 1 + i % 2);
+        }
+        List<TimingWheel.Entry> removed = new ArrayList<>();
+
+        int count = wheel.removeUpTo(3, removed::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(removed).hasSize(3);
+        assertThat(wheel.size()).isEqualTo(2);
+
+        wheel.advance();
+        wheel.advance();
+        assertThat(ticked).hasSize(2);
+    }
+}
@@ -0,0 +1,89 @@
+package com.transcendence.game.pong;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Queues 10k synthetic players from several threads at once while sweeps run, then checks
+ * that everyone was paired exactly once and within the widest tolerance.
+ */
+class MatchmakingLoadTest {
+
+    private static final int PLAYERS = 10_000;
+    private static final int THREADS = 8;
+    private static final int MAX_TOLERANCE = 2000;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tenThousandPlayersArePairedOnceWithinTolerance() throws Exception {
+        MatchmakingQueue queue = new MatchmakingQueue(100, 100, 50, MAX_TOLERANCE);
+        List<MatchmakingQueue.Pairing> pairings = Collections.synchronizedList(new ArrayList<>());
+
+        // Skill spread like real xp: most players low, a long tail of veterans
+        Random random = new Random(42);
+        int[] skills = new int[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            skills[i] = (int) Math.min(40_000, Math.abs(random.nextGaussian()) * 5_000);
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < PLAYERS; i += THREADS) {
+                        MatchmakingQueue.Pairing pairing = queue.offer(
+                                new PongPlayer((long) i, "player" + i), "session" + i, skills[i], System.nanoTime());
+                        if (pairing != null) {
+                            pairings.add(pairing);
+                        }
+                    }
+                }));
+            }
+            // Sweeps race with the enqueues, as the scheduled sweep does in production
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    pairings.addAll(queue.sweep(System.nanoTime()));
+                }
+            }));
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long enqueueMs = (System.nanoTime() - start) / 1_000_000;
+        assertThat(enqueueMs).isLessThan(10_000);
+
+        // Let everyone's tolerance reach its maximum
+        pairings.addAll(queue.sweep(System.nanoTime() + 60 * SECOND));
+
+        Set<String> seen = new HashSet<>();
+        long totalGap = 0;
+        for (MatchmakingQueue.Pairing pairing : pairings) {
+            assertThat(seen.add(pairing.first().player.username())).isTrue();
+            assertThat(seen.add(pairing.second().player.username())).isTrue();
+            assertThat(pairing.skillGap()).isLessThanOrEqualTo(MAX_TOLERANCE);
+            totalGap += pairing.skillGap();
+        }
+
+        // Only outliers with nobody within the widest tolerance may be left waiting
+        assertThat(seen.size() + queue.size()).isEqualTo(PLAYERS);
+        assertThat(queue.size()).isLessThan(PLAYERS / 100);
+        assertThat(totalGap / pairings.size()).isLessThan(100);
+    }
+}
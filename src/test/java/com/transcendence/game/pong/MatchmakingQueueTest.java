@@ -0,0 +1,221 @@
+package com.transcendence.game.pong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchmakingQueueTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final String SESSION = "s1";
+
+    private MatchmakingQueue queue;
+
+    @BeforeEach
+    void setup() {
+        // Bands of 100, tolerance 100 widening by 50/s up to 500
+        queue = new MatchmakingQueue(100, 100, 50, 500);
+    }
+
+    private static PongPlayer player(String name) {
+        return new PongPlayer(null, name);
+    }
+
+    // ====================================================================
+    // 1. Test pairing on enqueue
+    // ====================================================================
+
+    @Test
+    void offer_firstPlayerWaits() {
+        assertThat(queue.offer(player("alice"), SESSION, 1000, 0)).isNull();
+
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.isQueued("alice")).isTrue();
+    }
+
+    @Test
+    void offer_pairsWithinTolerance() {
+        queue.offer(player("alice"), SESSION, 1000, 0);
+
+        MatchmakingQueue.Pairing pairing = queue.offer(player("bob"), SESSION, 1080, 0);
+
+        assertThat(pairing).isNotNull();
+        assertThat(pairing.first().player.username()).isEqualTo("alice");
+        assertThat(pairing.second().player.username()).isEqualTo("bob");
+        assertThat(pairing.skillGap()).isEqualTo(80);
+        assertThat(queue.size()).isZero();
+        assertThat(queue.isQueued("alice")).isFalse();
+    }
+
+    @Test
+    void offer_doesNotPairOutsideTolerance() {
+        queue.offer(player("alice"), SESSION, 1000, 0);
+
+        assertThat(queue.offer(player("bob"), SESSION, 1300, 0)).isNull();
+
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    @Test
+    void offer_prefersNearestBand() {
+        queue.offer(player("far"), SESSION, 905, 0);
+        queue.offer(player("near"), SESSION, 1010, 0);
+
+        MatchmakingQueue.Pairing pairing = queue.offer(player("bob"), SESSION, 1000, 0);
+
+        assertThat(pairing.first().player.username()).isEqualTo("near");
+        assertThat(queue.isQueued("far")).isTrue();
+    }
+
+    @Test
+    void offer_ignoresPlayerAlreadyQueued() {
+        queue.offer(player("alice"), SESSION, 1000, 0);
+
+        assertThat(queue.offer(player("alice"), SESSION, 1000, 0)).isNull();
+
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    // ====================================================================
+    // 2. Test widening tolerance
+    // ====================================================================
+
+    @Test
+    void tolerance_widensWithWaitUpToMax() {
+        MatchmakingQueue.Ticket ticket = new MatchmakingQueue.Ticket(player("alice"), SESSION, 1000, 0);
+
+        assertThat(queue.tolerance(ticket, 0)).isEqualTo(100);
+        assertThat(queue.tolerance(ticket, 4 * SECOND)).isEqualTo(300);
+        assertThat(queue.tolerance(ticket, 60 * SECOND)).isEqualTo(500);
+    }
+
+    @Test
+    void offer_pairsWithPlayerWhoseToleranceHasWidened() {
+        queue.offer(player("alice"), SESSION, 1000, 0);
+
+        // Bob's own tolerance is still 100, but Alice has waited 4s and accepts 300
+        MatchmakingQueue.Pairing pairing = queue.offer(player("bob"), SESSION, 1250, 4 * SECOND);
+
+        assertThat(pairing).isNotNull();
+    }
+
+    @Test
+    void sweep_pairsWaitingPlayersOnceTolerancesWiden() {
+        queue.offer(player("alice"), SESSION, 1000, 0);
+        queue.offer(player("bob"), SESSION, 1250, 0);
+
+        assertThat(queue.sweep(SECOND)).isEmpty();
+        List<MatchmakingQueue.Pairing> pairings = queue.sweep(3 * SECOND);
+
+        assertThat(pairings).hasSize(1);
+        assertThat(pairings.get(0).skillGap()).isEqualTo(250);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void sweep_unpairedPlayerKeepsPlaceInLine() {
+        // One wide band, so both wait side by side
+        MatchmakingQueue wide = new MatchmakingQueue(1000, 100, 0, 100);
+        wide.offer(player("alice"), SESSION, 1000, 0);
+        wide.offer(player("carol"), SESSION, 1150, 0);
+        assertThat(wide.sweep(0)).isEmpty();
+
+        // Alice queued first and is still offered first
+        MatchmakingQueue.Pairing pairing = wide.offer(player("bob"), SESSION, 1075, 0);
+
+        assertThat(pairing.first().player.username()).isEqualTo("alice");
+    }
+
+    @Test
+    void sweep_neverPairsBeyondMaxTolerance() {
+        queue.offer(player("alice"), SESSION, 0, 0);
+        queue.offer(player("bob"), SESSION, 5000, 0);
+
+        assertThat(queue.sweep(600 * SECOND)).isEmpty();
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    // ====================================================================
+    // 3. Test cancelling
+    // ====================================================================
+
+    @Test
+    void cancel_removesWaitingPlayer() {
+        queue.offer(player("alice"), SESSION, 1000, 0);
+
+        assertThat(queue.cancel("alice")).isTrue();
+
+        assertThat(queue.size()).isZero();
+        assertThat(queue.offer(player("bob"), SESSION, 1000, 0)).isNull();
+    }
+
+    @Test
+    void cancel_unknownPlayerReturnsFalse() {
+        assertThat(queue.cancel("nobody")).isFalse();
+    }
+
+    @Test
+    void cancel_playerCanQueueAgain() {
+        queue.offer(player("alice"), SESSION, 1000, 0);
+        queue.cancel("alice");
+
+        queue.offer(player("alice"), SESSION, 1000, 0);
+
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.offer(player("bob"), SESSION, 1000, 0)).isNotNull();
+    }
+
+    @Test
+    void cancelSession_onlyCancelsFromTheSessionThatQueued() {
+        queue.offer(player("alice"), SESSION, 1000, 0);
+
+        assertThat(queue.cancelSession("alice", "s2")).isFalse();
+        assertThat(queue.isQueued("alice")).isTrue();
+
+        assertThat(queue.cancelSession("alice", SESSION)).isTrue();
+        assertThat(queue.isQueued("alice")).isFalse();
+    }
+
+    @Test
+    void cancel_afterPairingReturnsFalse() {
+        queue.offer(player("alice"), SESSION, 1000, 0);
+        queue.offer(player("bob"), SESSION, 1000, 0);
+
+        assertThat(queue.cancel("alice")).isFalse();
+    }
+
+    @Test
+    void cancel_racingAPairingEitherCancelsOrPairsNeverBoth() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 2000; round++) {
+                MatchmakingQueue raced = new MatchmakingQueue(100, 100, 50, 500);
+                raced.offer(player("alice"), SESSION, 1000, 0);
+                CountDownLatch go = new CountDownLatch(1);
+
+                Future<Boolean> cancelled = executor.submit(() -> {
+                    go.await();
+                    return raced.cancel("alice");
+                });
+                Future<MatchmakingQueue.Pairing> pairing = executor.submit(() -> {
+                    go.await();
+                    return raced.offer(player("bob"), SESSION, 1000, 0);
+                });
+                go.countDown();
+
+                assertThat(cancelled.get(5, TimeUnit.SECONDS)).isNotEqualTo(pairing.get(5, TimeUnit.SECONDS) != null);
+                assertThat(raced.isQueued("alice")).isFalse();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.transcendence.game.pong;
+
+import com.transcendence.entity.UserStats;
+import com.transcendence.game.pong.dto.PongMatchEventDTO;
+import com.transcendence.stats.UserStatsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MatchmakingServiceTest {
+
+    private static final PongPlayer ALICE = new PongPlayer(1L, "alice");
+    private static final PongPlayer BOB = new PongPlayer(2L, "bob");
+
+    private UserStatsRepository userStatsRepository;
+    private PongEngine pongEngine;
+    private SimpMessagingTemplate messagingTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private MatchmakingService service;
+
+    @BeforeEach
+    void setup() {
+        userStatsRepository = mock(UserStatsRepository.class);
+        pongEngine = mock(PongEngine.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new MatchmakingService(userStatsRepository, pongEngine, messagingTemplate, meterRegistry,
+                100, 100, 50, 2000);
+
+        when(pongEngine.start(any(), any())).thenAnswer(invocation ->
+                new LivePongMatch("m1", invocation.getArgument(0), 1, 0));
+    }
+
+    private void givenXp(long userId, int xp) {
+        UserStats stats = new UserStats();
+        stats.setXp(xp);
+        when(userStatsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
+    }
+
+    private PongMatchEventDTO lastEventFor(String username) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeastOnce())
+                .convertAndSendToUser(eq(username), eq(MatchmakingService.QUEUE_DESTINATION), captor.capture());
+        return (PongMatchEventDTO) captor.getValue();
+    }
+
+    private static SessionDisconnectEvent disconnect(Principal user, String sessionId) {
+        return new SessionDisconnectEvent(new Object(),
+                MessageBuilder.createMessage(new byte[0],
+                        StompHeaderAccessor.create(StompCommand.DISCONNECT).getMessageHeaders()),
+                sessionId, CloseStatus.NORMAL, user);
+    }
+
+    // ====================================================================
+    // 1. Test queueing and pairing
+    // ====================================================================
+
+    @Test
+    void enqueue_firstPlayerIsToldTheyAreQueued() {
+        givenXp(1L, 500);
+
+        service.enqueue(ALICE, "s1");
+
+        assertThat(lastEventFor("alice").getType()).isEqualTo("queued");
+        assertThat(service.queued()).isEqualTo(1);
+        verifyNoInteractions(pongEngine);
+    }
+
+    @Test
+    void enqueue_closeSkillsStartAMatch() {
+        givenXp(1L, 500);
+        givenXp(2L, 540);
+
+        service.enqueue(ALICE, "s1");
+        service.enqueue(BOB, "s2");
+
+        verify(pongEngine).start(ALICE, BOB);
+        assertThat(lastEventFor("alice").getType()).isEqualTo("matched");
+        assertThat(lastEventFor("alice").getMatchId()).isEqualTo("m1");
+        assertThat(lastEventFor("alice").getOpponent()).isEqualTo("bob");
+        assertThat(lastEventFor("bob").getSide()).isEqualTo("right");
+        assertThat(service.queued()).isZero();
+    }
+
+    @Test
+    void enqueue_distantSkillsKeepWaiting() {
+        givenXp(1L, 500);
+        givenXp(2L, 5000);
+
+        service.enqueue(ALICE, "s1");
+        service.enqueue(BOB, "s2");
+        service.sweep();
+
+        verifyNoInteractions(pongEngine);
+        assertThat(service.queued()).isEqualTo(2);
+    }
+
+    @Test
+    void enqueue_playerWithoutStatsStartsAtZero() {
+        when(userStatsRepository.findByUserId(any())).thenReturn(Optional.empty());
+
+        service.enqueue(ALICE, "s1");
+        service.enqueue(new PongPlayer(null, "guest"), "s3");
+
+        verify(pongEngine).start(ALICE, new PongPlayer(null, "guest"));
+    }
+
+    // ====================================================================
+    // 2. Test cancelling
+    // ====================================================================
+
+    @Test
+    void cancel_removesPlayerAndConfirms() {
+        givenXp(1L, 500);
+        service.enqueue(ALICE, "s1");
+
+        service.cancel("alice");
+
+        assertThat(lastEventFor("alice").getType()).isEqualTo("cancelled");
+        assertThat(service.queued()).isZero();
+    }
+
+    @Test
+    void cancel_notQueuedSendsNothing() {
+        service.cancel("alice");
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void handleDisconnect_removesQueuedPlayer() {
+        givenXp(1L, 500);
+        givenXp(2L, 520);
+        service.enqueue(ALICE, "s1");
+
+        service.handleDisconnect(disconnect(() -> "alice", "s1"));
+        service.enqueue(BOB, "s2");
+
+        assertThat(service.queued()).isEqualTo(1);
+        verifyNoInteractions(pongEngine);
+    }
+
+    @Test
+    void handleDisconnect_ofAnotherSessionKeepsPlayerQueued() {
+        givenXp(1L, 500);
+        service.enqueue(ALICE, "s1");
+
+        // A second tab closes; the one that queued is still open
+        service.handleDisconnect(disconnect(() -> "alice", "s9"));
+
+        assertThat(service.queued()).isEqualTo(1);
+    }
+
+    @Test
+    void handleDisconnect_withoutPrincipalIsIgnored() {
+        givenXp(1L, 500);
+        service.enqueue(ALICE, "s1");
+
+        service.handleDisconnect(disconnect(null, "s1"));
+
+        assertThat(service.queued()).isEqualTo(1);
+    }
+
+    // ====================================================================
+    // 3. Test metrics
+    // ====================================================================
+
+    @Test
+    void pairingRecordsWaitAndSkillGap() {
+        givenXp(1L, 500);
+        givenXp(2L, 560);
+
+        service.enqueue(ALICE, "s1");
+        assertThat(meterRegistry.get("matchmaking.queue.depth").gauge().value()).isEqualTo(1);
+        service.enqueue(BOB, "s2");
+
+        assertThat(meterRegistry.get("matchmaking.wait").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("matchmaking.skill.gap").summary().totalAmount()).isEqualTo(60);
+        assertThat(meterRegistry.get("matchmaking.queue.depth").gauge().value()).isZero();
+    }
+}
@@ -1,8 +1,10 @@
 package com.transcendence.game.pong;
 
+import com.transcendence.auth.TokenRevocationService;
 import com.transcendence.entity.User;
 import com.transcendence.game.pong.dto.PongHistoryResponse;
 import com.transcendence.game.pong.dto.PongScoreRequest;
+import com.transcendence.stats.StatsVersionTracker;
 import com.transcendence.stats.dto.SaveScoreResponse;
 import com.transcendence.stats.dto.UserStatsDto;
 import com.transcendence.user.UserRepository;
@@ -11,10 +13,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import com.transcendence.security.jwt.JwtTokenProvider;
+import com.transcendence.security.jwt.JwtVerificationCache;
 import com.transcendence.security.details.CustomUserDetailsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -22,19 +26,24 @@ import java.util.ArrayList;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(PongController.class)
+@Import(StatsVersionTracker.class)
 class PongControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private StatsVersionTracker versionTracker;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -50,6 +59,12 @@ class PongControllerTest {
     @MockBean
     private CustomUserDetailsService customUserDetailsService;
 
+    @MockBean
+    private JwtVerificationCache jwtVerificationCache;
+
+    @MockBean
+    private TokenRevocationService revocationService;
+
     // --- Test Data Setup ---
     private static final Long TEST_USER_ID = 1L;
     private static final String TEST_USERNAME = "test_user";
@@ -177,7 +192,7 @@ class PongControllerTest {
     @WithMockUser(username = TEST_USERNAME)
     void getHistory_shouldReturnPongHistoryResponse_whenAuthenticated() throws Exception {
         // ARRANGE
-        when(pongService.getHistory(TEST_USER_ID)).thenReturn(historyResponse);
+        when(pongService.getHistory(TEST_USER_ID, null, 20)).thenReturn(historyResponse);
 
         // ACT & ASSERT
         mockMvc.perform(get("/api/pong/history")
@@ -201,7 +216,7 @@ class PongControllerTest {
     void getHistory_shouldReturnHistoryWithMatches_whenMatchesExist() throws Exception {
 
         // Testing that the service is called
-        when(pongService.getHistory(TEST_USER_ID)).thenReturn(historyResponse);
+        when(pongService.getHistory(TEST_USER_ID, null, 20)).thenReturn(historyResponse);
 
         // ACT & ASSERT
         mockMvc.perform(get("/api/pong/history")
@@ -209,4 +224,65 @@ class PongControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.history").isArray());
     }
-}
\ No newline at end of file
+
+    // ====================================================================
+    // 3. Test GET /api/pong/history - conditional requests
+    // ====================================================================
+
+    @Test
+    @WithMockUser(username = TEST_USERNAME)
+    void getHistory_withMatchingETag_shouldReturnNotModifiedWithoutServiceCall() throws Exception {
+        when(pongService.getHistory(TEST_USER_ID, null, 20)).thenReturn(historyResponse);
+
+        String etag = mockMvc.perform(get("/api/pong/history"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/pong/history").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(pongService, times(1)).getHistory(TEST_USER_ID, null, 20);
+    }
+
+    @Test
+    @WithMockUser(username = TEST_USERNAME)
+    void getHistory_afterStatsChange_shouldReturnFreshBody() throws Exception {
+        when(pongService.getHistory(TEST_USER_ID, null, 20)).thenReturn(historyResponse);
+
+        String etag = mockMvc.perform(get("/api/pong/history"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        versionTracker.bumpUser(TEST_USER_ID);
+
+        mockMvc.perform(get("/api/pong/history").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    // ====================================================================
+    // 4. Test GET /api/pong/history - pagination parameters
+    // ====================================================================
+
+    @Test
+    @WithMockUser(username = TEST_USERNAME)
+    void getHistory_shouldPassCursorAndClampPageSize() throws Exception {
+        when(pongService.getHistory(TEST_USER_ID, "abc", 100)).thenReturn(historyResponse);
+
+        mockMvc.perform(get("/api/pong/history")
+                        .param("cursor", "abc")
+                        .param("size", "5000"))
+                .andExpect(status().isOk());
+
+        verify(pongService).getHistory(TEST_USER_ID, "abc", 100);
+    }
+
+    @Test
+    @WithMockUser(username = TEST_USERNAME)
+    void getHistory_withMalformedCursor_shouldReturnBadRequest() throws Exception {
+        when(pongService.getHistory(TEST_USER_ID, "bad", 20))
+                .thenThrow(new IllegalArgumentException("Malformed history cursor"));
+
+        mockMvc.perform(get("/api/pong/history").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,371 @@
+package com.transcendence.game.pong;
+
+import com.transcendence.game.loop.GameLoopScheduler;
+import com.transcendence.game.loop.GameSession;
+import com.transcendence.game.pong.dto.PongMatchEventDTO;
+import com.transcendence.game.pong.dto.PongScoreRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PongEngineTest {
+
+    private static final PongPlayer ALICE = new PongPlayer(1L, "alice");
+    private static final PongPlayer BOB = new PongPlayer(2L, "bob");
+
+    private SimpMessagingTemplate messagingTemplate;
+    private PongService pongService;
+    private GameLoopScheduler gameLoop;
+    private SimpleMeterRegistry meterRegistry;
+    private PongEngine engine;
+    private GameSession session;
+
+    @BeforeEach
+    void setup() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        pongService = mock(PongService.class);
+        gameLoop = mock(GameLoopScheduler.class);
+        when(gameLoop.tickRate()).thenReturn(60);
+        when(gameLoop.periodFor(60)).thenReturn(1);
+        when(messagingTemplate.getUserDestinationPrefix()).thenReturn("/user/");
+        meterRegistry = new SimpleMeterRegistry();
+        // Results are saved inline so tests can verify them right after a tick
+        engine = new PongEngine(messagingTemplate, pongService, gameLoop, Runnable::run, meterRegistry, 60, 2, 4, 120_000);
+    }
+
+    private LivePongMatch startMatch() {
+        return startMatch(ALICE);
+    }
+
+    // The scheduler is a mock, so tests tick the match session themselves
+    private LivePongMatch startMatch(PongPlayer host) {
+        LivePongMatch match = engine.create(host);
+        engine.join(match.id, BOB);
+
+        ArgumentCaptor<GameSession> captor = ArgumentCaptor.forClass(GameSession.class);
+        verify(gameLoop).schedule(captor.capture(), eq(1));
+        session = captor.getValue();
+        return match;
+    }
+
+    private boolean tick() {
+        return session.tick();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<byte[]> framesSentTo(String destination) {
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, atLeast(0)).send(eq(destination), captor.capture());
+        captor.getAllValues().forEach(message -> assertThat(message.getHeaders().get("contentType"))
+                .isEqualTo(MimeTypeUtils.APPLICATION_OCTET_STREAM));
+        return captor.getAllValues().stream().map(Message::getPayload).toList();
+    }
+
+    private PongMatchEventDTO lastEventFor(String username) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSendToUser(eq(username), eq(PongEngine.EVENT_QUEUE), captor.capture());
+        return (PongMatchEventDTO) captor.getValue();
+    }
+
+    // ====================================================================
+    // 1. Test creating and joining
+    // ====================================================================
+
+    @Test
+    void create_notifiesHostAndWaits() {
+        LivePongMatch match = engine.create(ALICE);
+
+        assertThat(match.status).isEqualTo(LivePongMatch.Status.WAITING);
+        assertThat(match.destination).isEqualTo("/topic/pong." + match.id);
+        assertThat(lastEventFor("alice").getType()).isEqualTo("created");
+        assertThat(engine.activeMatches()).isEqualTo(1);
+    }
+
+    @Test
+    void join_startsMatchAndNotifiesBothSides() {
+        LivePongMatch match = startMatch();
+
+        assertThat(match.status).isEqualTo(LivePongMatch.Status.RUNNING);
+        assertThat(lastEventFor("alice").getSide()).isEqualTo("left");
+        assertThat(lastEventFor("alice").getOpponent()).isEqualTo("bob");
+        assertThat(lastEventFor("bob").getSide()).isEqualTo("right");
+    }
+
+    @Test
+    void join_unknownOrFullMatchSendsError() {
+        engine.join("missing", BOB);
+        assertThat(lastEventFor("bob").getType()).isEqualTo("error");
+
+        LivePongMatch match = startMatch();
+        engine.join(match.id, new PongPlayer(3L, "carol"));
+        assertThat(lastEventFor("carol").getType()).isEqualTo("error");
+        assertThat(match.right).isEqualTo(BOB);
+    }
+
+    @Test
+    void start_seatsBothPlayersAndSchedulesMatch() {
+        LivePongMatch match = engine.start(ALICE, BOB);
+
+        assertThat(match.status).isEqualTo(LivePongMatch.Status.RUNNING);
+        assertThat(match.right).isEqualTo(BOB);
+        verify(gameLoop).schedule(any(GameSession.class), eq(1));
+        assertThat(lastEventFor("alice").getType()).isEqualTo("started");
+        assertThat(lastEventFor("bob").getSide()).isEqualTo("right");
+    }
+
+    @Test
+    void join_ownMatchIsRejected() {
+        LivePongMatch match = engine.create(ALICE);
+
+        engine.join(match.id, ALICE);
+
+        assertThat(match.status).isEqualTo(LivePongMatch.Status.WAITING);
+    }
+
+    // ====================================================================
+    // 2. Test the game loop
+    // ====================================================================
+
+    @Test
+    void join_schedulesMatchOnGameLoop() {
+        startMatch();
+
+        verify(gameLoop).schedule(any(GameSession.class), eq(1));
+        assertThat(tick()).isTrue();
+    }
+
+    @Test
+    void tick_publishesSnapshotEveryOtherTick() {
+        LivePongMatch match = startMatch();
+
+        tick();
+        tick();
+        tick();
+        tick();
+
+        assertThat(framesSentTo(match.destination)).hasSize(2);
+        assertThat(framesSentTo("/user/alice/queue/pong.state")).hasSize(2);
+        assertThat(framesSentTo("/user/bob/queue/pong.state")).hasSize(2);
+        assertThat(match.simulation.tick).isEqualTo(4);
+    }
+
+    @Test
+    void input_movesOnlyTheSendersPaddle() {
+        LivePongMatch match = startMatch();
+        double leftStart = match.simulation.leftY;
+        double rightStart = match.simulation.rightY;
+
+        engine.input(match.id, "bob", 5);
+        engine.input(match.id, "mallory", 1);
+        tick();
+
+        assertThat(match.simulation.rightInput).isEqualTo(1);
+        assertThat(match.simulation.rightY).isGreaterThan(rightStart);
+        assertThat(match.simulation.leftY).isEqualTo(leftStart);
+    }
+
+    @Test
+    void tick_finishedMatchSavesResultForBothPlayers() {
+        LivePongMatch match = startMatch();
+        match.simulation.leftScore = PongSimulation.WINNING_SCORE;
+
+        // The scheduler drops the session once it reports false
+        assertThat(tick()).isFalse();
+
+        assertThat(match.status).isEqualTo(LivePongMatch.Status.FINISHED);
+        assertThat(engine.activeMatches()).isZero();
+        assertThat(lastEventFor("bob").getType()).isEqualTo("finished");
+        assertThat(lastEventFor("bob").getWinner()).isEqualTo("alice");
+
+        ArgumentCaptor<PongScoreRequest> alice = ArgumentCaptor.forClass(PongScoreRequest.class);
+        ArgumentCaptor<PongScoreRequest> bob = ArgumentCaptor.forClass(PongScoreRequest.class);
+        verify(pongService).saveScore(eq(1L), eq("two-player"), alice.capture(), eq(2L));
+        verify(pongService).saveScore(eq(2L), eq("two-player"), bob.capture(), eq(1L));
+
+        assertThat(alice.getValue().getWinner()).isEqualTo("player");
+        assertThat(alice.getValue().getIsPerfectGame()).isTrue();
+        assertThat(alice.getValue().getXpEarned()).isEqualTo(100 + 5 / 2 + 5 * 5);
+        assertThat(bob.getValue().getWinner()).isEqualTo("opponent");
+        assertThat(bob.getValue().getScore()).isZero();
+        assertThat(bob.getValue().getXpEarned()).isEqualTo(25);
+    }
+
+    @Test
+    void tick_resultIsNotSavedForPlayersWithoutId() {
+        LivePongMatch match = startMatch(new PongPlayer(null, "guest"));
+        match.simulation.rightScore = PongSimulation.WINNING_SCORE;
+
+        tick();
+
+        // Bob is rated against an unknown opponent, since the guest has no rating
+        verify(pongService).saveScore(eq(2L), eq("two-player"), any(), isNull());
+        verifyNoMoreInteractions(pongService);
+    }
+
+    // ====================================================================
+    // 3. Test binary snapshots and spectators
+    // ====================================================================
+
+    @Test
+    void snapshots_spectatorStreamIsKeyframeThenDeltasAgainstIt() {
+        LivePongMatch match = startMatch();
+
+        for (int i = 0; i < 10; i++) {
+            tick();
+        }
+
+        List<byte[]> frames = framesSentTo(match.destination);
+        assertThat(frames).hasSize(5);
+        assertThat(frames.get(0)[0]).isEqualTo(PongSnapshotCodec.KEYFRAME);
+        assertThat(PongSnapshotCodec.baseTick(frames.get(1))).isEqualTo(2);
+        assertThat(PongSnapshotCodec.baseTick(frames.get(3))).isEqualTo(2);
+        // keyframe-every is 4 in these tests
+        assertThat(frames.get(4)[0]).isEqualTo(PongSnapshotCodec.KEYFRAME);
+
+        // A viewer who keeps the keyframe can decode any delta after it
+        int[] keyframe = new int[PongSnapshotCodec.FIELDS];
+        int[] state = new int[PongSnapshotCodec.FIELDS];
+        PongSnapshotCodec.decode(frames.get(0), null, keyframe);
+        PongSnapshotCodec.decode(frames.get(3), keyframe, state);
+        assertThat(state[0]).isEqualTo(match.history[match.historyOffset(8)]);
+    }
+
+    @Test
+    void snapshots_playerGetsDeltaAgainstAcknowledgedTick() {
+        LivePongMatch match = startMatch();
+        for (int i = 0; i < 4; i++) {
+            tick();
+        }
+        engine.acknowledge(match.id, "alice", 4);
+        engine.acknowledge(match.id, "alice", 2);
+
+        tick();
+        tick();
+
+        List<byte[]> alice = framesSentTo("/user/alice/queue/pong.state");
+        List<byte[]> bob = framesSentTo("/user/bob/queue/pong.state");
+        List<byte[]> spectators = framesSentTo(match.destination);
+        // Acks only move forward, and spectators stay on the keyframe
+        assertThat(PongSnapshotCodec.baseTick(alice.get(2))).isEqualTo(4);
+        assertThat(PongSnapshotCodec.baseTick(spectators.get(2))).isEqualTo(2);
+        // Bob has not acknowledged anything, so he gets the spectator frame
+        assertThat(bob.get(2)).isEqualTo(spectators.get(2));
+    }
+
+    @Test
+    void snapshots_spectatorFramesAreSharedAndSmall() {
+        LivePongMatch match = startMatch();
+
+        for (int i = 0; i < 8; i++) {
+            tick();
+        }
+
+        for (byte[] frame : framesSentTo(match.destination)) {
+            assertThat(frame.length).isLessThanOrEqualTo(16);
+        }
+    }
+
+    @Test
+    void spectate_sendsLatestKeyframe() {
+        LivePongMatch match = startMatch();
+        tick();
+        tick();
+
+        engine.spectate(match.id, "carol");
+
+        assertThat(lastEventFor("carol").getType()).isEqualTo("spectating");
+        assertThat(lastEventFor("carol").getMessage()).isEqualTo("alice vs bob");
+        List<byte[]> frames = framesSentTo("/user/carol/queue/pong.spectate." + match.id);
+        assertThat(frames).hasSize(1);
+        assertThat(framesSentTo("/user/carol/queue/pong.state")).isEmpty();
+        assertThat(frames.get(0)[0]).isEqualTo(PongSnapshotCodec.KEYFRAME);
+    }
+
+    @Test
+    void spectate_unknownMatchSendsError() {
+        engine.spectate("missing", "carol");
+
+        assertThat(lastEventFor("carol").getType()).isEqualTo("error");
+    }
+
+    // ====================================================================
+    // 4. Test leaving
+    // ====================================================================
+
+    @Test
+    void leave_runningMatchIsForfeited() {
+        LivePongMatch match = startMatch();
+
+        engine.leave(match.id, "alice");
+
+        assertThat(tick()).isFalse();
+        assertThat(match.status).isEqualTo(LivePongMatch.Status.FINISHED);
+        assertThat(lastEventFor("bob").getWinner()).isEqualTo("bob");
+        assertThat(lastEventFor("bob").getMessage()).isEqualTo("forfeit");
+    }
+
+    @Test
+    void leave_waitingMatchIsRemoved() {
+        LivePongMatch match = engine.create(ALICE);
+
+        engine.leave(match.id, "alice");
+
+        assertThat(engine.activeMatches()).isZero();
+        assertThat(engine.match(match.id)).isNull();
+    }
+
+    @Test
+    void leave_byNonPlayerIsIgnored() {
+        LivePongMatch match = startMatch();
+
+        engine.leave(match.id, "mallory");
+        tick();
+
+        assertThat(match.status).isEqualTo(LivePongMatch.Status.RUNNING);
+    }
+
+    // ====================================================================
+    // 5. Test expiry and metrics
+    // ====================================================================
+
+    @Test
+    void expireWaiting_removesUnjoinedMatches() {
+        engine = new PongEngine(messagingTemplate, pongService, gameLoop, Runnable::run, new SimpleMeterRegistry(), 60, 2, 4, 0);
+        LivePongMatch match = engine.create(ALICE);
+
+        engine.expireWaiting();
+
+        assertThat(match.status).isEqualTo(LivePongMatch.Status.FINISHED);
+        assertThat(engine.activeMatches()).isZero();
+        assertThat(lastEventFor("alice").getType()).isEqualTo("error");
+    }
+
+    @Test
+    void expireWaiting_keepsRunningMatches() {
+        engine = new PongEngine(messagingTemplate, pongService, gameLoop, Runnable::run, new SimpleMeterRegistry(), 60, 2, 4, 0);
+        LivePongMatch match = startMatch();
+
+        engine.expireWaiting();
+
+        assertThat(match.status).isEqualTo(LivePongMatch.Status.RUNNING);
+    }
+
+    @Test
+    void matchesGaugeCountsWaitingAndRunning() {
+        engine.create(ALICE);
+        startMatch(new PongPlayer(3L, "carol"));
+
+        assertThat(meterRegistry.get("pong.engine.matches").gauge().value()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,86 @@
+package com.transcendence.game.pong;
+
+import com.transcendence.game.pong.dto.PongMatchEventDTO;
+import com.transcendence.game.pong.dto.PongMatchRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PongMatchControllerTest {
+
+    private static final Principal ALICE = () -> "alice";
+
+    private PongEngine pongEngine;
+    private MatchmakingService matchmakingService;
+    private SimpMessagingTemplate messagingTemplate;
+
+    @BeforeEach
+    void setup() {
+        pongEngine = mock(PongEngine.class);
+        matchmakingService = mock(MatchmakingService.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+    }
+
+    private PongMatchController controller(String brokerMode) {
+        return new PongMatchController(pongEngine, matchmakingService, messagingTemplate, brokerMode);
+    }
+
+    private static PongMatchRequest request(String matchId) {
+        PongMatchRequest request = new PongMatchRequest();
+        request.setMatchId(matchId);
+        return request;
+    }
+
+    // ====================================================================
+    // 1. Test single node (simple broker)
+    // ====================================================================
+
+    @Test
+    void simpleMode_shouldPassRequestsToEngineAndQueue() {
+        PongMatchController controller = controller("simple");
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setSessionId("s1");
+
+        controller.create(ALICE);
+        controller.queue(ALICE, headers);
+        controller.join(request("m1"), ALICE);
+        controller.spectate(request("m1"), ALICE);
+
+        verify(pongEngine).create(new PongPlayer(null, "alice"));
+        verify(matchmakingService).enqueue(new PongPlayer(null, "alice"), "s1");
+        verify(pongEngine).join("m1", new PongPlayer(null, "alice"));
+        verify(pongEngine).spectate("m1", "alice");
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    // ====================================================================
+    // 2. Test relay mode (live matches refused)
+    // ====================================================================
+
+    @Test
+    void relayMode_shouldRefuseLiveMatchesWithErrorEvent() {
+        PongMatchController controller = controller("relay");
+
+        controller.create(ALICE);
+        controller.queue(ALICE, SimpMessageHeaderAccessor.create());
+        controller.join(request("m1"), ALICE);
+        controller.spectate(request("m1"), ALICE);
+
+        verifyNoInteractions(pongEngine, matchmakingService);
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(4))
+                .convertAndSendToUser(eq("alice"), eq(PongEngine.EVENT_QUEUE), captor.capture());
+        PongMatchEventDTO event = (PongMatchEventDTO) captor.getValue();
+        assertThat(event.getType()).isEqualTo("error");
+        assertThat(event.getMessage()).isEqualTo(PongMatchController.UNAVAILABLE);
+    }
+}
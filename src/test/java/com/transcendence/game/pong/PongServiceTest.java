@@ -6,6 +6,7 @@ import com.transcendence.entity.UserStats;
 import com.transcendence.game.pong.dto.PongHistoryItemDto;
 import com.transcendence.game.pong.dto.PongHistoryResponse;
 import com.transcendence.game.pong.dto.PongScoreRequest;
+import com.transcendence.rating.RatingService;
 import com.transcendence.stats.UserStatsService;
 import com.transcendence.stats.dto.SaveScoreResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +16,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -23,6 +25,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +42,9 @@ class PongServiceTest {
     @Mock
     private UserStatsService userStatsService;
 
+    @Mock
+    private RatingService ratingService;
+
     private final Long USER_ID = 1L;
     private UserStats mockUserStats;
     private final User mockUser = new User("test_user", "t@example.com", "hash", null, "active");
@@ -81,7 +87,9 @@ class PongServiceTest {
         request.setXpEarned(xpEarned);
         request.setIsPerfectGame(false);
 
-        when(userStatsService.updateAfterGame(USER_ID, false, 0, xpEarned))
+        when(ratingService.record(any(PongMatch.class), isNull()))
+                .thenReturn(UserStats.Rank.Novice);
+        when(userStatsService.updateAfterGame(USER_ID, false, 0, xpEarned, UserStats.Rank.Novice))
                 .thenReturn(mockUserStats);
 
         SaveScoreResponse response = pongService.saveScore(USER_ID, mode, request);
@@ -98,7 +106,8 @@ class PongServiceTest {
                 eq(USER_ID),
                 eq(false), // won = false
                 eq(0), // duration passed as 0
-                eq(xpEarned)
+                eq(xpEarned),
+                eq(UserStats.Rank.Novice)
         );
 
         assertThat(response.getSuccess()).isTrue();
@@ -140,13 +149,14 @@ class PongServiceTest {
 
         List<PongMatch> mockMatches = List.of(match2, match1);
 
-        when(pongMatchRepository.findByUserIdOrderByCreatedAtDesc(USER_ID))
+        when(pongMatchRepository.findByUserIdOrderByCreatedAtDescIdDesc(USER_ID, PageRequest.of(0, 21)))
                 .thenReturn(mockMatches);
 
-        PongHistoryResponse response = pongService.getHistory(USER_ID);
+        PongHistoryResponse response = pongService.getHistory(USER_ID, null, 20);
 
-        verify(pongMatchRepository, times(1)).findByUserIdOrderByCreatedAtDesc(USER_ID);
+        verify(pongMatchRepository, times(1)).findByUserIdOrderByCreatedAtDescIdDesc(USER_ID, PageRequest.of(0, 21));
         assertThat(response.getHistory()).hasSize(2);
+        assertThat(response.getNextCursor()).isNull();
 
         PongHistoryItemDto firstItem = response.getHistory().get(0);
         assertThat(firstItem.getScore()).isEqualTo(8);
@@ -162,12 +172,86 @@ class PongServiceTest {
     @Test
     void getHistory_whenNoMatchesExist_shouldReturnEmptyHistory() {
 
-        when(pongMatchRepository.findByUserIdOrderByCreatedAtDesc(USER_ID))
+        when(pongMatchRepository.findByUserIdOrderByCreatedAtDescIdDesc(USER_ID, PageRequest.of(0, 21)))
                 .thenReturn(Collections.emptyList());
 
-        PongHistoryResponse response = pongService.getHistory(USER_ID);
+        PongHistoryResponse response = pongService.getHistory(USER_ID, null, 20);
 
-        verify(pongMatchRepository, times(1)).findByUserIdOrderByCreatedAtDesc(USER_ID);
+        verify(pongMatchRepository, times(1)).findByUserIdOrderByCreatedAtDescIdDesc(USER_ID, PageRequest.of(0, 21));
         assertThat(response.getHistory()).isNotNull().isEmpty();
     }
-}
\ No newline at end of file
+
+    // ====================================================================
+    // 4. Test getHistory - Cursor pagination
+    // ====================================================================
+
+    @Test
+    void getHistory_whenMoreRowsThanPageSize_shouldReturnCursorToNextPage() {
+        LocalDateTime newest = LocalDateTime.of(2025, 1, 2, 10, 0, 0, 123_000_000);
+        LocalDateTime older = newest.minusMinutes(5);
+
+        PongMatch match1 = PongMatch.builder()
+                .id(200L).userId(USER_ID)
+                .mode(PongMatch.Mode.ONE_PLAYER).winner(PongMatch.Winner.player)
+                .score(5).opponentScore(1).createdAt(newest)
+                .build();
+        PongMatch match2 = PongMatch.builder()
+                .id(199L).userId(USER_ID)
+                .mode(PongMatch.Mode.ONE_PLAYER).winner(PongMatch.Winner.opponent)
+                .score(2).opponentScore(5).createdAt(older)
+                .build();
+
+        when(pongMatchRepository.findByUserIdOrderByCreatedAtDescIdDesc(USER_ID, PageRequest.of(0, 2)))
+                .thenReturn(List.of(match1, match2));
+
+        PongHistoryResponse first = pongService.getHistory(USER_ID, null, 1);
+
+        assertThat(first.getHistory()).hasSize(1);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        when(pongMatchRepository.findHistoryAfter(USER_ID, newest, 200L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(match2));
+
+        PongHistoryResponse second = pongService.getHistory(USER_ID, first.getNextCursor(), 1);
+
+        assertThat(second.getHistory()).extracting(PongHistoryItemDto::getScore).containsExactly(2);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getHistory_withMalformedCursor_shouldThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class,
+                () -> pongService.getHistory(USER_ID, "garbage", 20));
+
+        verifyNoInteractions(pongMatchRepository);
+    }
+
+    // ====================================================================
+    // 5. Test saveScore - Rating
+    // ====================================================================
+
+    @Test
+    void saveScore_withOpponent_shouldRateTheMatchAndStoreTheRank() {
+
+        PongScoreRequest request = new PongScoreRequest();
+        request.setScore(5);
+        request.setOpponentScore(3);
+        request.setWinner("player");
+        request.setDuration(90);
+        request.setXpEarned(110);
+
+        when(ratingService.record(any(PongMatch.class), eq(2L)))
+                .thenReturn(UserStats.Rank.Amateur);
+        when(userStatsService.updateAfterGame(USER_ID, true, 90, 110, UserStats.Rank.Amateur))
+                .thenReturn(mockUserStats);
+
+        pongService.saveScore(USER_ID, "two-player", request, 2L);
+
+        ArgumentCaptor<PongMatch> matchCaptor = ArgumentCaptor.forClass(PongMatch.class);
+        verify(ratingService).record(matchCaptor.capture(), eq(2L));
+        assertThat(matchCaptor.getValue().getUserId()).isEqualTo(USER_ID);
+        assertThat(matchCaptor.getValue().isPlayerWin()).isTrue();
+
+        verify(userStatsService).updateAfterGame(USER_ID, true, 90, 110, UserStats.Rank.Amateur);
+    }
+}
@@ -0,0 +1,152 @@
+package com.transcendence.game.pong;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PongSimulationTest {
+
+    private static final double DT = 1.0 / 60;
+
+    private static void place(PongSimulation simulation, double x, double y, double vx, double vy) {
+        simulation.ballX = x;
+        simulation.ballY = y;
+        simulation.ballVX = vx;
+        simulation.ballVY = vy;
+    }
+
+    // ====================================================================
+    // 1. Test ball movement
+    // ====================================================================
+
+    @Test
+    void serve_startsFromCentre() {
+        PongSimulation simulation = new PongSimulation(42);
+
+        assertThat(simulation.ballX).isEqualTo(PongSimulation.WIDTH / 2);
+        assertThat(simulation.ballY).isEqualTo(PongSimulation.HEIGHT / 2);
+        assertThat(Math.abs(simulation.ballVX)).isEqualTo(PongSimulation.BALL_SPEED);
+        assertThat(Math.abs(simulation.ballVY)).isLessThanOrEqualTo(PongSimulation.BALL_SPEED / 2);
+    }
+
+    @Test
+    void step_bouncesOffTopWall() {
+        PongSimulation simulation = new PongSimulation(42);
+        place(simulation, 400, 12, 0, -300);
+
+        int events = simulation.step(DT);
+
+        assertThat(events).isZero();
+        assertThat(simulation.ballY).isEqualTo(PongSimulation.BALL_SIZE);
+        assertThat(simulation.ballVY).isEqualTo(300);
+    }
+
+    @Test
+    void step_paddleHitReversesAndSpeedsUpBall() {
+        PongSimulation simulation = new PongSimulation(42);
+        double paddleCentre = simulation.leftY + PongSimulation.PADDLE_HEIGHT / 2;
+        place(simulation, PongSimulation.LEFT_PADDLE_X + PongSimulation.PADDLE_WIDTH + 12, paddleCentre, -240, 0);
+
+        int events = simulation.step(DT);
+
+        assertThat(events & PongSimulation.HIT).isNotZero();
+        assertThat(simulation.ballVX).isCloseTo(240 * PongSimulation.SPEED_UP, within(1e-9));
+    }
+
+    @Test
+    void step_ballSpeedIsCapped() {
+        PongSimulation simulation = new PongSimulation(42);
+        double paddleCentre = simulation.rightY + PongSimulation.PADDLE_HEIGHT / 2;
+        place(simulation, PongSimulation.RIGHT_PADDLE_X - 5, paddleCentre, PongSimulation.MAX_BALL_SPEED, 0);
+
+        simulation.step(DT);
+
+        assertThat(simulation.ballVX).isEqualTo(-PongSimulation.MAX_BALL_SPEED);
+    }
+
+    // ====================================================================
+    // 2. Test scoring
+    // ====================================================================
+
+    @Test
+    void step_ballPastLeftEdgeScoresForRightAndServes() {
+        PongSimulation simulation = new PongSimulation(42);
+        // Above the paddle so it cannot be returned
+        simulation.leftY = PongSimulation.HEIGHT - PongSimulation.PADDLE_HEIGHT;
+        place(simulation, 2, 50, -240, 0);
+
+        int events = simulation.step(DT);
+
+        assertThat(events & PongSimulation.POINT).isNotZero();
+        assertThat(simulation.rightScore).isEqualTo(1);
+        assertThat(simulation.ballX).isEqualTo(PongSimulation.WIDTH / 2);
+        assertThat(simulation.ballVX).isEqualTo(PongSimulation.BALL_SPEED);
+    }
+
+    @Test
+    void step_reportsGameOverAtWinningScore() {
+        PongSimulation simulation = new PongSimulation(42);
+        simulation.leftScore = PongSimulation.WINNING_SCORE - 1;
+        simulation.rightY = 0;
+        place(simulation, PongSimulation.WIDTH - 2, PongSimulation.HEIGHT - 50, 240, 0);
+
+        int events = simulation.step(DT);
+
+        assertThat(events & PongSimulation.GAME_OVER).isNotZero();
+        assertThat(simulation.isOver()).isTrue();
+    }
+
+    // ====================================================================
+    // 3. Test paddles
+    // ====================================================================
+
+    @Test
+    void step_movesPaddleWithInputAndClampsToCourt() {
+        PongSimulation simulation = new PongSimulation(42);
+        double start = simulation.leftY;
+
+        simulation.leftInput = 1;
+        simulation.step(DT);
+        assertThat(simulation.leftY).isCloseTo(start + PongSimulation.PADDLE_SPEED * DT, within(1e-9));
+
+        simulation.leftInput = -1;
+        for (int i = 0; i < 200; i++) {
+            simulation.step(DT);
+        }
+        assertThat(simulation.leftY).isZero();
+    }
+
+    // ====================================================================
+    // 4. Test allocation
+    // ====================================================================
+
+    @Test
+    void step_doesNotAllocate() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        PongSimulation simulation = new PongSimulation(42);
+        simulation.leftInput = 1;
+        simulation.rightInput = -1;
+        // Warm up so JIT compilation is not counted
+        for (int i = 0; i < 100_000; i++) {
+            simulation.step(DT);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            simulation.step(DT);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // A few hundred bytes of slack for the measurement itself
+        assertThat(allocated).isLessThan(1024);
+    }
+}
@@ -0,0 +1,118 @@
+package com.transcendence.game.pong;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class PongSnapshotCodecTest {
+
+    private final byte[] out = new byte[PongSnapshotCodec.MAX_FRAME_SIZE];
+
+    private byte[] keyframe(long tick, int[] state) {
+        return Arrays.copyOf(out, PongSnapshotCodec.encodeKeyframe(tick, state, 0, out));
+    }
+
+    private byte[] delta(long baseTick, int[] base, long tick, int[] state) {
+        return Arrays.copyOf(out, PongSnapshotCodec.encodeDelta(baseTick, base, 0, tick, state, 0, out));
+    }
+
+    // ====================================================================
+    // 1. Test quantization
+    // ====================================================================
+
+    @Test
+    void capture_quantizesPositionsToThirtySecondsOfAUnit() {
+        PongSimulation simulation = new PongSimulation(42);
+        simulation.ballX = 123.456;
+        simulation.leftScore = 3;
+        int[] state = new int[PongSnapshotCodec.FIELDS];
+
+        PongSnapshotCodec.capture(simulation, state, 0);
+
+        assertThat(PongSnapshotCodec.dequantize(state[0])).isCloseTo(123.456, within(1 / 64.0));
+        assertThat(state[4]).isEqualTo(3);
+    }
+
+    // ====================================================================
+    // 2. Test keyframes
+    // ====================================================================
+
+    @Test
+    void keyframe_roundTrips() {
+        int[] state = {12_800, 8_000, 6_400, 6_400, 2, 4};
+
+        byte[] frame = keyframe(300, state);
+        int[] decoded = new int[PongSnapshotCodec.FIELDS];
+        long tick = PongSnapshotCodec.decode(frame, null, decoded);
+
+        assertThat(tick).isEqualTo(300);
+        assertThat(decoded).containsExactly(state);
+        assertThat(PongSnapshotCodec.baseTick(frame)).isEqualTo(-1);
+        // Against roughly 120 bytes for the same state as JSON
+        assertThat(frame.length).isLessThanOrEqualTo(14);
+    }
+
+    @Test
+    void keyframe_fitsBufferAtLargestValues() {
+        int[] state = {Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 0, 255, 255};
+
+        byte[] frame = keyframe(Long.MAX_VALUE, state);
+        int[] decoded = new int[PongSnapshotCodec.FIELDS];
+        PongSnapshotCodec.decode(frame, null, decoded);
+
+        assertThat(decoded).containsExactly(state);
+    }
+
+    // ====================================================================
+    // 3. Test deltas
+    // ====================================================================
+
+    @Test
+    void delta_carriesOnlyChangedFields() {
+        int[] base = {12_800, 8_000, 6_400, 6_400, 2, 4};
+        int[] next = {12_900, 7_950, 6_400, 6_592, 2, 4};
+
+        byte[] frame = delta(300, base, 302, next);
+        int[] decoded = new int[PongSnapshotCodec.FIELDS];
+        long tick = PongSnapshotCodec.decode(frame, base, decoded);
+
+        assertThat(tick).isEqualTo(302);
+        assertThat(PongSnapshotCodec.baseTick(frame)).isEqualTo(300);
+        assertThat(decoded).containsExactly(next);
+        // type, tick, gap, mask and three small changes
+        assertThat(frame.length).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void delta_ofUnchangedStateIsFourBytes() {
+        int[] state = {12_800, 8_000, 6_400, 6_400, 2, 4};
+
+        byte[] frame = delta(10, state, 12, state);
+
+        assertThat(frame).hasSize(4);
+    }
+
+    @Test
+    void delta_handlesLargeNegativeChanges() {
+        int[] base = {25_000, 15_000, 0, 12_800, 0, 0};
+        int[] next = {0, 320, 12_800, 0, 1, 0};
+
+        byte[] frame = delta(1, base, 2, next);
+        int[] decoded = new int[PongSnapshotCodec.FIELDS];
+        PongSnapshotCodec.decode(frame, base, decoded);
+
+        assertThat(decoded).containsExactly(next);
+    }
+
+    @Test
+    void decode_rejectsUnknownFrameType() {
+        byte[] frame = {9, 0};
+
+        assertThatThrownBy(() -> PongSnapshotCodec.decode(frame, null, new int[PongSnapshotCodec.FIELDS]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
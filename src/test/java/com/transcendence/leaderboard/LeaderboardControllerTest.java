@@ -1,31 +1,44 @@
 package com.transcendence.leaderboard;
 
+import com.transcendence.auth.TokenRevocationService;
+import com.transcendence.entity.User;
+import com.transcendence.leaderboard.dto.LeaderboardPageDTO;
 import com.transcendence.leaderboard.dto.LeaderboardPlayerDTO;
 import com.transcendence.leaderboard.dto.LeaderboardResponseDTO;
 import com.transcendence.security.details.CustomUserDetailsService;
 import com.transcendence.security.jwt.JwtTokenProvider;
+import com.transcendence.security.jwt.JwtVerificationCache;
+import com.transcendence.stats.StatsVersionTracker;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import com.transcendence.user.UserRepository;
 
 import java.util.List;
+import java.util.Optional;
 
-import static org.mockito.Mockito.when;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(LeaderboardController.class)
+@Import(StatsVersionTracker.class)
 class LeaderboardControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private StatsVersionTracker versionTracker;
+
     @MockBean
     private LeaderboardService leaderboardService;
 
@@ -38,6 +51,12 @@ class LeaderboardControllerTest {
     @MockBean
     private CustomUserDetailsService customUserDetailsService;
 
+    @MockBean
+    private JwtVerificationCache jwtVerificationCache;
+
+    @MockBean
+    private TokenRevocationService revocationService;
+
     private final String LEADERBOARD_URL = "/api/leaderboard";
 
     private LeaderboardResponseDTO createMockResponse() {
@@ -84,4 +103,121 @@ class LeaderboardControllerTest {
                 .andExpect(jsonPath("$.leaderboard").doesNotExist())
                 .andExpect(jsonPath("$.error").value("Failed to load leaderboard"));
     }
-}
\ No newline at end of file
+
+    // ====================================================================
+    // 3. Test GET /api/leaderboard?limit and /api/leaderboard/rank/{userId}
+    // ====================================================================
+
+    @Test
+    @WithMockUser(username = "test_user")
+    void getLeaderboard_withLimit_shouldReturnTopPlayers() throws Exception {
+        when(leaderboardService.getTopPlayers(10)).thenReturn(createMockResponse());
+
+        mockMvc.perform(get(LEADERBOARD_URL).param("limit", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.leaderboard[0].username").value("test_user"));
+
+        verify(leaderboardService, never()).getLeaderboard();
+    }
+
+    @Test
+    @WithMockUser(username = "test_user")
+    void getPlayerRank_shouldReturnPlayerOrNotFound() throws Exception {
+        LeaderboardPlayerDTO player = LeaderboardPlayerDTO.builder()
+                .id(1L).username("test_user").position(3)
+                .build();
+        when(leaderboardService.getPlayerRank(1L)).thenReturn(Optional.of(player));
+        when(leaderboardService.getPlayerRank(2L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get(LEADERBOARD_URL + "/rank/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.position").value(3));
+
+        mockMvc.perform(get(LEADERBOARD_URL + "/rank/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    // ====================================================================
+    // 4. Test GET /api/leaderboard/page and /api/leaderboard/around-me
+    // ====================================================================
+
+    @Test
+    @WithMockUser(username = "test_user")
+    void getPage_shouldPassCursorThrough() throws Exception {
+        LeaderboardPageDTO page = LeaderboardPageDTO.builder()
+                .players(createMockResponse().getLeaderboard())
+                .nextCursor("next")
+                .build();
+        when(leaderboardService.getPage(20, "abc")).thenReturn(page);
+
+        mockMvc.perform(get(LEADERBOARD_URL + "/page").param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.players[0].username").value("test_user"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    @WithMockUser(username = "test_user")
+    void getPage_withMalformedCursor_shouldReturnBadRequest() throws Exception {
+        when(leaderboardService.getPage(20, "bad"))
+                .thenThrow(new IllegalArgumentException("Malformed leaderboard cursor"));
+
+        mockMvc.perform(get(LEADERBOARD_URL + "/page").param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Malformed leaderboard cursor"));
+    }
+
+    @Test
+    @WithMockUser(username = "test_user")
+    void getAroundMe_shouldResolveCallerAndReturnWindow() throws Exception {
+        User user = new User("test_user", "t@example.com", "hash", null, "active");
+        user.setId(1L);
+        when(userRepository.findByUsername("test_user")).thenReturn(Optional.of(user));
+
+        LeaderboardPageDTO window = LeaderboardPageDTO.builder()
+                .players(createMockResponse().getLeaderboard())
+                .myPosition(1)
+                .build();
+        when(leaderboardService.getAroundPlayer(1L, 5)).thenReturn(Optional.of(window));
+
+        mockMvc.perform(get(LEADERBOARD_URL + "/around-me"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.myPosition").value(1));
+    }
+
+    // ====================================================================
+    // 5. Test conditional requests (ETag / 304)
+    // ====================================================================
+
+    @Test
+    @WithMockUser(username = "test_user")
+    void getLeaderboard_withMatchingETag_shouldReturnNotModifiedWithoutServiceCall() throws Exception {
+        when(leaderboardService.getLeaderboard()).thenReturn(createMockResponse());
+
+        String etag = mockMvc.perform(get(LEADERBOARD_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(LEADERBOARD_URL).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(leaderboardService, times(1)).getLeaderboard();
+    }
+
+    @Test
+    @WithMockUser(username = "test_user")
+    void getLeaderboard_afterStatsChange_shouldReturnFreshBody() throws Exception {
+        when(leaderboardService.getLeaderboard()).thenReturn(createMockResponse());
+
+        String etag = mockMvc.perform(get(LEADERBOARD_URL))
+                .andReturn().getResponse().getHeader("ETag");
+
+        versionTracker.bumpUser(42L);
+
+        mockMvc.perform(get(LEADERBOARD_URL).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+}
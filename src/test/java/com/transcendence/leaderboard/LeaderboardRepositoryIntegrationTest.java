@@ -0,0 +1,106 @@
+package com.transcendence.leaderboard;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the leaderboard queries against a real SQLite database and counts the JDBC statements
+ * Hibernate issues, so a per-row User fetch (N+1) cannot slip back in.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.driver-class-name=org.sqlite.JDBC",
+        "spring.jpa.database-platform=org.hibernate.community.dialect.SQLiteDialect",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Schema must exist before startup runners query the users table
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:sql/leaderboard-schema.sql"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql("/sql/leaderboard-data.sql")
+class LeaderboardRepositoryIntegrationTest {
+
+    @DynamicPropertySource
+    static void sqliteDatabase(DynamicPropertyRegistry registry) throws IOException {
+        Path database = Files.createTempFile("leaderboard-it", ".db");
+        database.toFile().deleteOnExit();
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + database);
+    }
+
+    @Autowired
+    private LeaderboardRepository leaderboardRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // ====================================================================
+    // 1. Test findAllRanked - single statement, SQL win rate
+    // ====================================================================
+
+    @Test
+    void findAllRanked_shouldLoadWholeBoardInOneStatement() {
+        List<LeaderboardRow> rows = leaderboardRepository.findAllRanked();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        assertThat(rows).extracting(LeaderboardRow::getUsername)
+                .containsExactly("alpha", "beta", "gamma", "delta", "epsilon");
+    }
+
+    @Test
+    void findAllRanked_shouldComputeWinRateInQuery() {
+        List<LeaderboardRow> rows = leaderboardRepository.findAllRanked();
+
+        assertThat(rows.get(0).getWinRate()).isEqualTo(75.0);
+        assertThat(rows.get(1).getWinRate()).isEqualTo(50.0);
+        assertThat(rows.get(4).getTotalGames()).isZero();
+        assertThat(rows.get(4).getWinRate()).isEqualTo(0.0);
+    }
+
+    // ====================================================================
+    // 2. Test keyset queries
+    // ====================================================================
+
+    @Test
+    void findAfter_shouldContinueFromKeyIncludingTies() {
+        List<LeaderboardRow> rows = leaderboardRepository.findAfter(400, 3, 2L, PageRequest.of(0, 10));
+
+        assertThat(rows).extracting(LeaderboardRow::getUserId).containsExactly(3L, 4L, 5L);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findBeforeAndCountAhead_shouldDescribePlayersAboveKey() {
+        List<LeaderboardRow> above = leaderboardRepository.findBefore(400, 3, 3L, PageRequest.of(0, 10));
+        long ahead = leaderboardRepository.countAhead(400, 3, 3L);
+
+        assertThat(above).extracting(LeaderboardRow::getUserId).containsExactly(2L, 1L);
+        assertThat(ahead).isEqualTo(2);
+    }
+}
@@ -1,28 +1,32 @@
 package com.transcendence.leaderboard;
 
+import com.transcendence.leaderboard.dto.LeaderboardPageDTO;
 import com.transcendence.leaderboard.dto.LeaderboardPlayerDTO;
 import com.transcendence.leaderboard.dto.LeaderboardResponseDTO;
 import com.transcendence.entity.User;
 import com.transcendence.entity.UserStats;
-import com.transcendence.stats.UserStatsRepository;
+import com.transcendence.stats.UserStatsUpdatedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class LeaderboardServiceImplTest {
 
     @Mock
-    private UserStatsRepository userStatsRepository;
+    private LeaderboardRepository leaderboardRepository;
 
     @InjectMocks
     private LeaderboardServiceImpl leaderboardService;
@@ -68,15 +72,32 @@ class LeaderboardServiceImplTest {
                 .build();
     }
 
+    // Mirrors the projection query, including its win rate expression
+    private static LeaderboardRow rowOf(UserStats stats) {
+        return new LeaderboardRow() {
+            public Long getUserId() { return stats.getUser().getId(); }
+            public String getUsername() { return stats.getUser().getUsername(); }
+            public Integer getLevel() { return stats.getLevel(); }
+            public UserStats.Rank getRank() { return stats.getRank(); }
+            public Integer getTotalGames() { return stats.getTotalGames(); }
+            public Integer getWins() { return stats.getWins(); }
+            public Integer getLosses() { return stats.getLosses(); }
+            public Integer getXp() { return stats.getXp(); }
+            public Integer getBestStreak() { return stats.getBestStreak(); }
+            public Double getWinRate() {
+                return stats.getTotalGames() > 0 ? (stats.getWins() * 100.0) / stats.getTotalGames() : 0.0;
+            }
+        };
+    }
+
     // ====================================================================
     // 1. Test getLeaderboard
     // ====================================================================
 
     @Test
     void getLeaderboard_shouldFetchAndMapCorrectly() {
-        List<UserStats> statsList = Arrays.asList(mockStats1, mockStats2);
-        when(userStatsRepository.findAllByOrderByXpDescLevelDesc())
-                .thenReturn(statsList);
+        when(leaderboardRepository.findAllRanked())
+                .thenReturn(Arrays.asList(rowOf(mockStats1), rowOf(mockStats2)));
 
         LeaderboardResponseDTO resultDTO = leaderboardService.getLeaderboard();
         List<LeaderboardPlayerDTO> leaderboard = resultDTO.getLeaderboard();
@@ -99,7 +120,7 @@ class LeaderboardServiceImplTest {
 
     @Test
     void getLeaderboard_whenEmpty_shouldReturnEmptyList() {
-        when(userStatsRepository.findAllByOrderByXpDescLevelDesc())
+        when(leaderboardRepository.findAllRanked())
                 .thenReturn(List.of());
 
         LeaderboardResponseDTO resultDTO = leaderboardService.getLeaderboard();
@@ -107,4 +128,150 @@ class LeaderboardServiceImplTest {
         assertThat(resultDTO).isNotNull();
         assertThat(resultDTO.getLeaderboard()).isEmpty();
     }
-}
\ No newline at end of file
+
+    // ====================================================================
+    // 2. Test incremental updates
+    // ====================================================================
+
+    @Test
+    void onStatsUpdated_shouldMovePlayerWithoutReloading() {
+        when(leaderboardRepository.findAllRanked())
+                .thenReturn(Arrays.asList(rowOf(mockStats1), rowOf(mockStats2)));
+        leaderboardService.seed();
+
+        mockStats2.setTotalGames(1);
+        mockStats2.setWins(1);
+        mockStats2.setXp(5000);
+        leaderboardService.onStatsUpdated(new UserStatsUpdatedEvent(mockStats2));
+
+        List<LeaderboardPlayerDTO> leaderboard = leaderboardService.getLeaderboard().getLeaderboard();
+        assertThat(leaderboard).extracting(LeaderboardPlayerDTO::getUsername)
+                .containsExactly("Beta", "Alpha");
+        assertThat(leaderboard.get(0).getPosition()).isEqualTo(1);
+        assertThat(leaderboard.get(0).getWinRate()).isEqualTo(100.0);
+
+        verify(leaderboardRepository, times(1)).findAllRanked();
+    }
+
+    // ====================================================================
+    // 3. Test getTopPlayers and getPlayerRank
+    // ====================================================================
+
+    @Test
+    void getTopPlayers_shouldReturnOnlyRequestedCount() {
+        when(leaderboardRepository.findAllRanked())
+                .thenReturn(Arrays.asList(rowOf(mockStats1), rowOf(mockStats2)));
+
+        List<LeaderboardPlayerDTO> leaderboard = leaderboardService.getTopPlayers(1).getLeaderboard();
+
+        assertThat(leaderboard).hasSize(1);
+        assertThat(leaderboard.get(0).getUsername()).isEqualTo("Alpha");
+    }
+
+    @Test
+    void getPlayerRank_shouldReturnPosition() {
+        when(leaderboardRepository.findAllRanked())
+                .thenReturn(Arrays.asList(rowOf(mockStats1), rowOf(mockStats2)));
+
+        Optional<LeaderboardPlayerDTO> player = leaderboardService.getPlayerRank(2L);
+
+        assertThat(player).isPresent();
+        assertThat(player.get().getPosition()).isEqualTo(2);
+        assertThat(leaderboardService.getPlayerRank(99L)).isEmpty();
+    }
+
+    // ====================================================================
+    // 4. Test getPage and getAroundPlayer (keyset queries)
+    // ====================================================================
+
+    private static LeaderboardRow row(long userId, int xp, int level) {
+        return new LeaderboardRow() {
+            public Long getUserId() { return userId; }
+            public String getUsername() { return "user" + userId; }
+            public Integer getLevel() { return level; }
+            public UserStats.Rank getRank() { return UserStats.Rank.Novice; }
+            public Integer getTotalGames() { return 4; }
+            public Integer getWins() { return 1; }
+            public Integer getLosses() { return 3; }
+            public Integer getXp() { return xp; }
+            public Integer getBestStreak() { return 1; }
+            public Double getWinRate() { return 25.0; }
+        };
+    }
+
+    @Test
+    void getPage_shouldReturnFirstPageWithCursorAndContinueNumbering() {
+        when(leaderboardRepository.findTop(PageRequest.of(0, 3)))
+                .thenReturn(List.of(row(1, 300, 3), row(2, 200, 2), row(3, 100, 1)));
+
+        LeaderboardPageDTO first = leaderboardService.getPage(2, null);
+
+        assertThat(first.getPlayers()).extracting(LeaderboardPlayerDTO::getPosition).containsExactly(1, 2);
+        assertThat(first.getPlayers().get(0).getWinRate()).isEqualTo(25.0);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        when(leaderboardRepository.findAfter(200, 2, 2L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(row(3, 100, 1)));
+
+        LeaderboardPageDTO second = leaderboardService.getPage(2, first.getNextCursor());
+
+        assertThat(second.getPlayers()).extracting(LeaderboardPlayerDTO::getId).containsExactly(3L);
+        assertThat(second.getPlayers().get(0).getPosition()).isEqualTo(3);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getPage_withMalformedCursor_shouldThrowIllegalArgument() {
+        assertThatThrownBy(() -> leaderboardService.getPage(10, "not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getAroundPlayer_shouldReturnNeighboursInOrderWithMyPosition() {
+        LeaderboardRow me = row(5, 200, 2);
+        when(leaderboardRepository.findRowByUserId(5L)).thenReturn(Optional.of(me));
+        when(leaderboardRepository.countAhead(200, 2, 5L)).thenReturn(9L);
+        when(leaderboardRepository.findBefore(200, 2, 5L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(row(4, 250, 2), row(3, 300, 3)));
+        when(leaderboardRepository.findAfter(200, 2, 5L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(row(6, 150, 1)));
+
+        LeaderboardPageDTO window = leaderboardService.getAroundPlayer(5L, 2).orElseThrow();
+
+        assertThat(window.getMyPosition()).isEqualTo(10);
+        assertThat(window.getPlayers()).extracting(LeaderboardPlayerDTO::getId).containsExactly(3L, 4L, 5L, 6L);
+        assertThat(window.getPlayers()).extracting(LeaderboardPlayerDTO::getPosition).containsExactly(8, 9, 10, 11);
+        assertThat(window.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getAroundPlayer_whenPlayerHasNoStats_shouldReturnEmpty() {
+        when(leaderboardRepository.findRowByUserId(99L)).thenReturn(Optional.empty());
+
+        assertThat(leaderboardService.getAroundPlayer(99L, 5)).isEmpty();
+    }
+
+    // ====================================================================
+    // 5. Test relay mode (other instances write stats too)
+    // ====================================================================
+
+    @Test
+    void relayMode_shouldReadTopPlayersAndRanksFromDatabase() {
+        LeaderboardServiceImpl relay = new LeaderboardServiceImpl(leaderboardRepository, "relay");
+        LeaderboardRow me = row(5, 200, 2);
+        when(leaderboardRepository.findTop(PageRequest.of(0, 2)))
+                .thenReturn(List.of(row(3, 300, 3), me));
+        when(leaderboardRepository.findRowByUserId(5L)).thenReturn(Optional.of(me));
+        when(leaderboardRepository.countAhead(200, 2, 5L)).thenReturn(1L);
+
+        // A commit on this instance must not leave a stale copy behind
+        relay.onStatsUpdated(new UserStatsUpdatedEvent(mockStats1));
+
+        List<LeaderboardPlayerDTO> top = relay.getTopPlayers(2).getLeaderboard();
+        assertThat(top).extracting(LeaderboardPlayerDTO::getId).containsExactly(3L, 5L);
+        assertThat(top).extracting(LeaderboardPlayerDTO::getPosition).containsExactly(1, 2);
+
+        assertThat(relay.getPlayerRank(5L).orElseThrow().getPosition()).isEqualTo(2);
+        verify(leaderboardRepository, never()).findAllRanked();
+    }
+}
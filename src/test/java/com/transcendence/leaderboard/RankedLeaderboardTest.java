@@ -0,0 +1,106 @@
+package com.transcendence.leaderboard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankedLeaderboardTest {
+
+    private RankedLeaderboard leaderboard;
+
+    @BeforeEach
+    void setup() {
+        leaderboard = new RankedLeaderboard();
+    }
+
+    private static LeaderboardEntry entry(long userId, long xp, int level, int totalGames) {
+        return new LeaderboardEntry(userId, "user" + userId, level, "Novice", totalGames, 0, 0, xp, 0, 0.0);
+    }
+
+    // ====================================================================
+    // 1. Test ordering and top-k
+    // ====================================================================
+
+    @Test
+    void top_shouldOrderByXpThenLevelThenUserId() {
+        leaderboard.upsert(entry(3, 100, 1, 1));
+        leaderboard.upsert(entry(1, 500, 2, 1));
+        leaderboard.upsert(entry(2, 100, 4, 1));
+        leaderboard.upsert(entry(4, 100, 1, 1));
+
+        assertThat(leaderboard.top(10))
+                .extracting(LeaderboardEntry::userId)
+                .containsExactly(1L, 2L, 3L, 4L);
+        assertThat(leaderboard.top(2))
+                .extracting(LeaderboardEntry::userId)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void top_whenEmpty_shouldReturnEmptyList() {
+        assertThat(leaderboard.top(10)).isEmpty();
+        assertThat(leaderboard.rankOf(1L)).isZero();
+    }
+
+    // ====================================================================
+    // 2. Test incremental updates and rank
+    // ====================================================================
+
+    @Test
+    void upsert_shouldRepositionPlayerAndUpdateRanks() {
+        leaderboard.upsert(entry(1, 300, 1, 3));
+        leaderboard.upsert(entry(2, 200, 1, 2));
+        leaderboard.upsert(entry(3, 100, 1, 1));
+
+        leaderboard.upsert(entry(3, 400, 2, 2));
+
+        assertThat(leaderboard.size()).isEqualTo(3);
+        assertThat(leaderboard.rankOf(3L)).isEqualTo(1);
+        assertThat(leaderboard.rankOf(1L)).isEqualTo(2);
+        assertThat(leaderboard.rankOf(2L)).isEqualTo(3);
+    }
+
+    @Test
+    void upsert_withOlderEntry_shouldBeIgnored() {
+        leaderboard.upsert(entry(1, 300, 1, 5));
+
+        boolean applied = leaderboard.upsert(entry(1, 100, 1, 4));
+
+        assertThat(applied).isFalse();
+        assertThat(leaderboard.get(1L).xp()).isEqualTo(300L);
+    }
+
+    @Test
+    void remove_shouldDropPlayerFromRanking() {
+        leaderboard.upsert(entry(1, 300, 1, 1));
+        leaderboard.upsert(entry(2, 200, 1, 1));
+
+        leaderboard.remove(1L);
+
+        assertThat(leaderboard.rankOf(1L)).isZero();
+        assertThat(leaderboard.rankOf(2L)).isEqualTo(1);
+    }
+
+    @Test
+    void rankOf_shouldMatchSortedOrder_forManyPlayers() {
+        Random random = new Random(42);
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            LeaderboardEntry e = entry(id, random.nextInt(200), random.nextInt(5), 1);
+            entries.add(e);
+            leaderboard.upsert(e);
+        }
+        Collections.sort(entries);
+
+        assertThat(leaderboard.top(Integer.MAX_VALUE)).isEqualTo(entries);
+        for (int i = 0; i < entries.size(); i++) {
+            assertThat(leaderboard.rankOf(entries.get(i).userId())).isEqualTo(i + 1);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.transcendence.rating;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class Glicko2Test {
+
+    private Glicko2 glicko;
+
+    @BeforeEach
+    void setup() {
+        glicko = new Glicko2(0.5);
+    }
+
+    private static RatingState player(double rating, double rd) {
+        RatingState state = new RatingState();
+        state.open(0);
+        state.baseRating = rating;
+        state.baseRd = rd;
+        return state;
+    }
+
+    // ====================================================================
+    // 1. Test the worked example from Glickman's paper
+    // ====================================================================
+
+    @Test
+    void addGame_matchesPaperExample() {
+        RatingState state = player(1500, 200);
+
+        glicko.addGame(state, 1400, 30, 1);
+        glicko.addGame(state, 1550, 100, 0);
+        glicko.addGame(state, 1700, 300, 0);
+
+        assertThat(state.rating).isCloseTo(1464.06, within(0.01));
+        assertThat(state.rd).isCloseTo(151.52, within(0.01));
+        assertThat(state.volatility).isCloseTo(0.05999, within(0.00001));
+        assertThat(state.games).isEqualTo(3);
+    }
+
+    @Test
+    void addGame_resultDoesNotDependOnOrderWithinPeriod() {
+        RatingState forwards = player(1500, 200);
+        RatingState backwards = player(1500, 200);
+
+        glicko.addGame(forwards, 1400, 30, 1);
+        glicko.addGame(forwards, 1700, 300, 0);
+        glicko.addGame(backwards, 1700, 300, 0);
+        glicko.addGame(backwards, 1400, 30, 1);
+
+        assertThat(backwards.rating).isCloseTo(forwards.rating, within(1e-9));
+        assertThat(backwards.rd).isCloseTo(forwards.rd, within(1e-9));
+    }
+
+    // ====================================================================
+    // 2. Test rating movement
+    // ====================================================================
+
+    @Test
+    void addGame_beatingStrongerOpponentGainsMore() {
+        RatingState upset = player(1500, 200);
+        RatingState expected = player(1500, 200);
+
+        glicko.addGame(upset, 1800, 50, 1);
+        glicko.addGame(expected, 1200, 50, 1);
+
+        assertThat(upset.rating).isGreaterThan(expected.rating);
+        assertThat(expected.rating).isGreaterThan(1500);
+    }
+
+    @Test
+    void addGame_uncertainOpponentMovesRatingLess() {
+        RatingState known = player(1500, 200);
+        RatingState unknown = player(1500, 200);
+
+        glicko.addGame(known, 1500, 50, 1);
+        glicko.addGame(unknown, 1500, 350, 1);
+
+        assertThat(unknown.rating - 1500).isLessThan(known.rating - 1500);
+    }
+
+    // ====================================================================
+    // 3. Test periods
+    // ====================================================================
+
+    @Test
+    void inflate_growsWithIdlePeriodsUpToNewPlayerDeviation() {
+        assertThat(Glicko2.inflate(50, 0.06, 0)).isEqualTo(50);
+        assertThat(Glicko2.inflate(50, 0.06, 10)).isGreaterThan(Glicko2.inflate(50, 0.06, 1)).isGreaterThan(50);
+        assertThat(Glicko2.inflate(300, 0.06, 100_000)).isEqualTo(Glicko2.DEFAULT_RD);
+    }
+
+    @Test
+    void open_newPeriodStartsFromLastRating() {
+        RatingState state = player(1500, 200);
+        glicko.addGame(state, 1400, 30, 1);
+        double rating = state.rating;
+        double rd = state.rd;
+
+        state.open(3);
+
+        assertThat(state.baseRating).isEqualTo(rating);
+        assertThat(state.baseRd).isEqualTo(Glicko2.inflate(rd, state.volatility, 2));
+        assertThat(state.varianceInverse).isZero();
+        assertThat(state.improvement).isZero();
+    }
+
+    @Test
+    void open_samePeriodKeepsItsGames() {
+        RatingState state = player(1500, 200);
+        glicko.addGame(state, 1400, 30, 1);
+        double sum = state.varianceInverse;
+
+        state.open(0);
+
+        assertThat(state.varianceInverse).isEqualTo(sum);
+        assertThat(state.baseRating).isEqualTo(1500);
+    }
+}
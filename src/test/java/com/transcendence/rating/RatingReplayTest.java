@@ -0,0 +1,236 @@
+package com.transcendence.rating;
+
+import com.transcendence.entity.PongMatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class RatingReplayTest {
+
+    private static final PongMatch.Mode ONE = PongMatch.Mode.ONE_PLAYER;
+    private static final PongMatch.Mode TWO = PongMatch.Mode.TWO_PLAYER;
+
+    private final Glicko2 glicko = new Glicko2(0.5);
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setup() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    private RatingReplay replay() {
+        return new RatingReplay(glicko, 1500, 60);
+    }
+
+    private static RatingState find(RatingReplay replay, long userId, PongMatch.Mode mode) {
+        for (int i = 0; i < replay.players(); i++) {
+            if (replay.userId(i) == userId && replay.mode(i) == mode) {
+                return replay.state(i);
+            }
+        }
+        return null;
+    }
+
+    // Applies one saved result the way RatingService does, against the stored ratings
+    private void live(Map<Long, RatingState> ratings, long userId, boolean won, Long opponentId, long period) {
+        RatingState opponent = opponentId != null ? ratings.getOrDefault(opponentId, new RatingState()) : null;
+        double opponentRating = opponent != null ? opponent.baseRatingAt(period) : Glicko2.DEFAULT_RATING;
+        double opponentRd = opponent != null ? opponent.baseRdAt(period) : Glicko2.DEFAULT_RD;
+
+        RatingState state = ratings.computeIfAbsent(userId, id -> new RatingState());
+        state.open(period);
+        glicko.addGame(state, opponentRating, opponentRd, won ? 1 : 0);
+    }
+
+    // ====================================================================
+    // 1. Test replaying matches
+    // ====================================================================
+
+    @Test
+    void run_ratesModesSeparately() {
+        RatingReplay replay = replay();
+        replay.add(1, ONE, true, null, 0);
+        replay.add(1, TWO, false, null, 0);
+
+        replay.run(pool);
+
+        assertThat(find(replay, 1, ONE).rating).isGreaterThan(1500);
+        assertThat(find(replay, 1, TWO).rating).isLessThan(1500);
+        assertThat(replay.players()).isEqualTo(2);
+    }
+
+    @Test
+    void run_onePlayerGamesAreAgainstTheComputer() {
+        RatingReplay replay = replay();
+        replay.add(1, ONE, true, 2L, 0);
+
+        replay.run(pool);
+
+        // The opponent id is ignored: nobody but the player gets a rating
+        assertThat(replay.players()).isEqualTo(1);
+        assertThat(find(replay, 1, ONE).games).isEqualTo(1);
+    }
+
+    @Test
+    void run_opponentWithoutOwnRowKeepsDefaultRating() {
+        RatingReplay replay = replay();
+        replay.add(1, TWO, true, 2L, 0);
+
+        replay.run(pool);
+
+        RatingState opponent = find(replay, 2, TWO);
+        assertThat(opponent.games).isZero();
+        assertThat(opponent.rating).isEqualTo(Glicko2.DEFAULT_RATING);
+    }
+
+    @Test
+    void add_rejectsGamesOutOfTimeOrder() {
+        RatingReplay replay = replay();
+        replay.add(1, TWO, true, null, 5);
+
+        assertThatThrownBy(() -> replay.add(1, TWO, true, null, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // ====================================================================
+    // 2. Test agreement with live updates
+    // ====================================================================
+
+    @Test
+    void run_matchesLiveUpdatesGameByGame() {
+        Random random = new Random(7);
+        RatingReplay replay = replay();
+        Map<Long, RatingState> ratings = new HashMap<>();
+
+        // Enough players per period to take the parallel path
+        for (long period = 0; period < 20; period++) {
+            int matches = 200 + random.nextInt(400);
+            for (int m = 0; m < matches; m++) {
+                long left = 1 + random.nextInt(1000);
+                long right = 1 + random.nextInt(1000);
+                if (left == right) {
+                    continue;
+                }
+                boolean leftWon = random.nextBoolean();
+                // Both sides are saved, one after the other, like PongEngine does
+                replay.add(left, TWO, leftWon, right, period);
+                replay.add(right, TWO, !leftWon, left, period);
+                live(ratings, left, leftWon, right, period);
+                live(ratings, right, !leftWon, left, period);
+            }
+            // Idle periods inflate deviations the same way in both
+            period += random.nextInt(3);
+        }
+
+        replay.run(pool);
+
+        for (Map.Entry<Long, RatingState> entry : ratings.entrySet()) {
+            RatingState replayed = find(replay, entry.getKey(), TWO);
+            assertThat(replayed.rating).isCloseTo(entry.getValue().rating, within(1e-6));
+            assertThat(replayed.rd).isCloseTo(entry.getValue().rd, within(1e-6));
+            assertThat(replayed.volatility).isCloseTo(entry.getValue().volatility, within(1e-9));
+            assertThat(replayed.games).isEqualTo(entry.getValue().games);
+        }
+    }
+
+    // ====================================================================
+    // 3. Test a large history
+    // ====================================================================
+
+    @Test
+    void run_replaysAMillionGamesInSeconds() {
+        int players = 20_000;
+        int games = 1_000_000;
+        Random random = new Random(42);
+        // Hidden strengths so that ratings have something to find
+        double[] strength = new double[players + 1];
+        for (int i = 1; i <= players; i++) {
+            strength[i] = random.nextGaussian();
+        }
+
+        RatingReplay replay = replay();
+        long period = 0;
+        for (int g = 0; g < games; g += 2) {
+            // A year of daily periods
+            if (g % (games / 365) < 2) {
+                period++;
+            }
+            long left = 1 + random.nextInt(players);
+            long right = 1 + random.nextInt(players);
+            if (left == right) {
+                right = left % players + 1;
+            }
+            double leftWins = 1 / (1 + Math.exp(strength[(int) right] - strength[(int) left]));
+            boolean leftWon = random.nextDouble() < leftWins;
+            replay.add(left, TWO, leftWon, right, period);
+            replay.add(right, TWO, !leftWon, left, period);
+        }
+
+        long start = System.nanoTime();
+        replay.run(pool);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(replay.games()).isEqualTo(games);
+        assertThat(elapsedMs).isLessThan(10_000);
+
+        // Ratings follow hidden strength
+        int strongest = 1;
+        int weakest = 1;
+        for (int i = 1; i <= players; i++) {
+            strongest = strength[i] > strength[strongest] ? i : strongest;
+            weakest = strength[i] < strength[weakest] ? i : weakest;
+        }
+        assertThat(find(replay, strongest, TWO).rating).isGreaterThan(find(replay, weakest, TWO).rating + 400);
+    }
+
+    // ====================================================================
+    // 4. Test replaying the stored history
+    // ====================================================================
+
+    @Test
+    void run_localTwoPlayerMatchFromHistoryHasNoOpponent() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource("jdbc:sqlite::memory:", true);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE pong_matches (id INTEGER PRIMARY KEY, user_id INTEGER, "
+                    + "mode TEXT, winner TEXT, created_at TIMESTAMP)");
+            jdbcTemplate.execute("CREATE TABLE pong_match_opponents (match_id INTEGER PRIMARY KEY, "
+                    + "opponent_id INTEGER NOT NULL)");
+            Timestamp playedAt = new Timestamp(0);
+            // An online match between users 1 and 2, then a local two-player match by user 1
+            jdbcTemplate.update("INSERT INTO pong_matches VALUES (1, 1, 'two-player', 'player', ?)", playedAt);
+            jdbcTemplate.update("INSERT INTO pong_matches VALUES (2, 2, 'two-player', 'opponent', ?)", playedAt);
+            jdbcTemplate.update("INSERT INTO pong_match_opponents VALUES (1, 2), (2, 1)");
+            jdbcTemplate.update("INSERT INTO pong_matches VALUES (3, 1, 'two-player', 'player', ?)", playedAt);
+
+            RatingReplay replay = replay();
+            new PongRatingRepository(jdbcTemplate).forEachMatch((userId, mode, won, opponentId, at) ->
+                    replay.add(userId, mode, won, opponentId, 0));
+            replay.run(pool);
+
+            assertThat(replay.games()).isEqualTo(3);
+            assertThat(replay.players()).isEqualTo(2);
+            assertThat(find(replay, 0, TWO)).isNull();
+            assertThat(find(replay, 1, TWO).games).isEqualTo(2);
+        } finally {
+            dataSource.destroy();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.transcendence.rating;
+
+import com.transcendence.entity.PongMatch;
+import com.transcendence.entity.UserStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RatingServiceTest {
+
+    private static final long USER_ID = 1L;
+    private static final long OPPONENT_ID = 2L;
+    private static final LocalDateTime PLAYED_AT = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    private PongRatingRepository ratingRepository;
+    private RatingService ratingService;
+
+    @BeforeEach
+    void setup() {
+        ratingRepository = mock(PongRatingRepository.class);
+        ratingService = new RatingService(ratingRepository, 0.5, 24, 1500, 60);
+
+        when(ratingRepository.findByUser(anyLong())).thenReturn(new EnumMap<>(PongMatch.Mode.class));
+        when(ratingRepository.find(anyLong(), any())).thenReturn(Optional.empty());
+    }
+
+    private static PongMatch match(PongMatch.Mode mode, PongMatch.Winner winner) {
+        return PongMatch.builder()
+                .id(10L)
+                .userId(USER_ID)
+                .mode(mode)
+                .score(5)
+                .opponentScore(3)
+                .winner(winner)
+                .createdAt(PLAYED_AT)
+                .build();
+    }
+
+    private RatingState saved(PongMatch.Mode mode) {
+        ArgumentCaptor<RatingState> captor = ArgumentCaptor.forClass(RatingState.class);
+        verify(ratingRepository).save(eq(USER_ID), eq(mode), captor.capture(), anyLong());
+        return captor.getValue();
+    }
+
+    // ====================================================================
+    // 1. Test rating a result
+    // ====================================================================
+
+    @Test
+    void record_onePlayerWinIsRatedAgainstTheComputer() {
+        ratingService.record(match(PongMatch.Mode.ONE_PLAYER, PongMatch.Winner.player), OPPONENT_ID);
+
+        RatingState state = saved(PongMatch.Mode.ONE_PLAYER);
+        assertThat(state.rating).isGreaterThan(1500);
+        assertThat(state.rd).isLessThan(350);
+        assertThat(state.games).isEqualTo(1);
+        verify(ratingRepository, never()).linkOpponent(anyLong(), anyLong());
+        verify(ratingRepository, never()).find(anyLong(), any());
+    }
+
+    @Test
+    void record_onlineMatchUsesOpponentRatingAndLinksThem() {
+        RatingState strong = new RatingState();
+        strong.rating = 2000;
+        strong.rd = 50;
+        // Last played the period before
+        strong.period = ratingService.periodOf(PLAYED_AT.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()) - 1;
+        when(ratingRepository.find(OPPONENT_ID, PongMatch.Mode.TWO_PLAYER)).thenReturn(Optional.of(strong));
+
+        ratingService.record(match(PongMatch.Mode.TWO_PLAYER, PongMatch.Winner.player), OPPONENT_ID);
+
+        verify(ratingRepository).linkOpponent(10L, OPPONENT_ID);
+        double upsetGain = saved(PongMatch.Mode.TWO_PLAYER).rating - 1500;
+
+        // The same win against an unknown local opponent is worth less
+        reset(ratingRepository);
+        when(ratingRepository.findByUser(anyLong())).thenReturn(new EnumMap<>(PongMatch.Mode.class));
+        ratingService.record(match(PongMatch.Mode.TWO_PLAYER, PongMatch.Winner.player), null);
+
+        assertThat(saved(PongMatch.Mode.TWO_PLAYER).rating - 1500).isLessThan(upsetGain);
+        verify(ratingRepository, never()).linkOpponent(anyLong(), anyLong());
+    }
+
+    @Test
+    void record_laterGameInSamePeriodBuildsOnStoredSums() {
+        Map<PongMatch.Mode, RatingState> stored = new EnumMap<>(PongMatch.Mode.class);
+        when(ratingRepository.findByUser(USER_ID)).thenReturn(stored);
+
+        ratingService.record(match(PongMatch.Mode.ONE_PLAYER, PongMatch.Winner.player), null);
+        RatingState first = saved(PongMatch.Mode.ONE_PLAYER);
+        stored.put(PongMatch.Mode.ONE_PLAYER, first);
+        double afterOne = first.rating;
+
+        clearInvocations(ratingRepository);
+        ratingService.record(match(PongMatch.Mode.ONE_PLAYER, PongMatch.Winner.player), null);
+
+        RatingState second = saved(PongMatch.Mode.ONE_PLAYER);
+        assertThat(second.games).isEqualTo(2);
+        assertThat(second.baseRating).isEqualTo(1500);
+        assertThat(second.rating).isGreaterThan(afterOne);
+    }
+
+    // ====================================================================
+    // 2. Test ranks
+    // ====================================================================
+
+    @Test
+    void record_newPlayerStaysNovice() {
+        UserStats.Rank rank = ratingService.record(match(PongMatch.Mode.ONE_PLAYER, PongMatch.Winner.player), null);
+
+        assertThat(rank).isEqualTo(UserStats.Rank.Novice);
+    }
+
+    @Test
+    void record_rankFollowsBestModeRating() {
+        RatingState established = new RatingState();
+        established.rating = 1650;
+        established.rd = 40;
+        established.period = 0;
+        Map<PongMatch.Mode, RatingState> stored = new EnumMap<>(PongMatch.Mode.class);
+        stored.put(PongMatch.Mode.TWO_PLAYER, established);
+        when(ratingRepository.findByUser(USER_ID)).thenReturn(stored);
+
+        UserStats.Rank rank = ratingService.record(match(PongMatch.Mode.ONE_PLAYER, PongMatch.Winner.opponent), null);
+
+        assertThat(rank).isEqualTo(UserStats.Rank.Pro);
+    }
+
+    @Test
+    void rankFor_usesConservativeRatingBands() {
+        assertThat(RatingService.rankFor(800)).isEqualTo(UserStats.Rank.Novice);
+        assertThat(RatingService.rankFor(1300)).isEqualTo(UserStats.Rank.Amateur);
+        assertThat(RatingService.rankFor(1500)).isEqualTo(UserStats.Rank.Pro);
+        assertThat(RatingService.rankFor(1700)).isEqualTo(UserStats.Rank.Expert);
+        assertThat(RatingService.rankFor(1900)).isEqualTo(UserStats.Rank.Master);
+    }
+}
@@ -5,13 +5,14 @@ import com.transcendence.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,7 +23,9 @@ class CustomUserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private UserIdentityCache identityCache;
+
     private CustomUserDetailsService userDetailsService;
 
     private final String MOCK_USERNAME = "testuser";
@@ -31,6 +34,7 @@ class CustomUserDetailsServiceTest {
 
     @BeforeEach
     void setup() {
+        userDetailsService = new CustomUserDetailsService(userRepository, identityCache, Set.of("admin"));
         mockUser = new User(MOCK_USERNAME, "t@example.com", MOCK_PASSWORD_HASH, null, "active");
         mockUser.setId(1L);
     }
@@ -48,7 +52,24 @@ class CustomUserDetailsServiceTest {
         assertEquals(MOCK_USERNAME, userDetails.getUsername());
         assertEquals(MOCK_PASSWORD_HASH, userDetails.getPassword());
         assertTrue(userDetails.getAuthorities().isEmpty());
+        assertEquals(1L, ((AuthenticatedUser) userDetails).getId());
         verify(userRepository, times(1)).findByUsername(MOCK_USERNAME);
+        verify(identityCache, times(1)).put(any(AuthenticatedUser.class));
+    }
+
+    @Test
+    void loadUserByUsername_shouldGrantAdminRole_whenUsernameIsConfigured() {
+        // Arrange
+        User admin = new User("admin", "a@example.com", MOCK_PASSWORD_HASH, null, "active");
+        admin.setId(2L);
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
+
+        // Act
+        UserDetails userDetails = userDetailsService.loadUserByUsername("admin");
+
+        // Assert
+        assertEquals(1, userDetails.getAuthorities().size());
+        assertEquals("ROLE_ADMIN", userDetails.getAuthorities().iterator().next().getAuthority());
     }
 
     @Test
@@ -63,4 +84,18 @@ class CustomUserDetailsServiceTest {
 
         verify(userRepository, times(1)).findByUsername(MOCK_USERNAME);
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadPrincipal_shouldDelegateToIdentityCache() {
+        // Arrange
+        AuthenticatedUser cached = new AuthenticatedUser(1L, MOCK_USERNAME, null, Collections.emptyList());
+        when(identityCache.get(eq(MOCK_USERNAME), any())).thenReturn(cached);
+
+        // Act
+        AuthenticatedUser principal = userDetailsService.loadPrincipal(MOCK_USERNAME);
+
+        // Assert
+        assertSame(cached, principal);
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+}
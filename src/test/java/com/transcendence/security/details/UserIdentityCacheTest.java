@@ -0,0 +1,93 @@
+package com.transcendence.security.details;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserIdentityCacheTest {
+
+    private static final String TEST_USERNAME = "testuser";
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserIdentityCache cache;
+    private AtomicInteger loads;
+    private Function<String, AuthenticatedUser> loader;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserIdentityCache(meterRegistry, 60_000, 100);
+        loads = new AtomicInteger();
+        loader = username -> {
+            loads.incrementAndGet();
+            return new AuthenticatedUser(1L, username, "hash", Collections.emptyList());
+        };
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("security.principal.cache").tag("result", result).counter().count();
+    }
+
+    // ====================================================================
+    // 1. Test get - hits and misses
+    // ====================================================================
+
+    @Test
+    void get_shouldLoadOnceAndServeRepeatsFromCache() {
+        AuthenticatedUser first = cache.get(TEST_USERNAME, loader);
+        AuthenticatedUser second = cache.get(TEST_USERNAME, loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getId()).isEqualTo(1L);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(counter("miss")).isEqualTo(1.0);
+        assertThat(counter("hit")).isEqualTo(1.0);
+    }
+
+    @Test
+    void get_shouldNotKeepPasswordHash() {
+        assertThat(cache.get(TEST_USERNAME, loader).getPassword()).isNull();
+    }
+
+    @Test
+    void get_whenLoaderThrows_shouldPropagateAndNotCache() {
+        Function<String, AuthenticatedUser> missing = username -> {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        };
+
+        assertThatThrownBy(() -> cache.get(TEST_USERNAME, missing))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    // ====================================================================
+    // 2. Test expiry, invalidation and bounds
+    // ====================================================================
+
+    @Test
+    void get_whenEntryExpired_shouldReload() {
+        cache = new UserIdentityCache(meterRegistry, 0, 100);
+
+        cache.get(TEST_USERNAME, loader);
+        cache.get(TEST_USERNAME, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_whenCacheIsFull_shouldStayBounded() {
+        for (int i = 0; i < 250; i++) {
+            cache.get("user" + i, loader);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+}
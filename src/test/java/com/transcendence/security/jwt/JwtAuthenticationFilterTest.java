@@ -1,6 +1,10 @@
 package com.transcendence.security.jwt;
 
+import com.transcendence.auth.TokenRevocationService;
+import com.transcendence.security.details.AuthenticatedUser;
 import com.transcendence.security.details.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -12,10 +16,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,11 +32,14 @@ class JwtAuthenticationFilterTest {
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Mock
-    private JwtTokenProvider tokenProvider;
+    private JwtVerificationCache verificationCache;
 
     @Mock
     private CustomUserDetailsService customUserDetailsService;
 
+    @Mock
+    private TokenRevocationService revocationService;
+
     @Mock
     private HttpServletRequest request;
     @Mock
@@ -41,8 +49,8 @@ class JwtAuthenticationFilterTest {
 
     private final String VALID_TOKEN = "mock.valid.token";
     private final String MOCK_USERNAME = "testuser";
-    private final UserDetails mockUserDetails = new User(
-            MOCK_USERNAME, "password", Collections.emptyList());
+    private final AuthenticatedUser mockUserDetails = new AuthenticatedUser(
+            1L, MOCK_USERNAME, null, Collections.emptyList());
 
     @BeforeEach
     void setup() {
@@ -52,17 +60,19 @@ class JwtAuthenticationFilterTest {
     @Test
     void doFilterInternal_shouldAuthenticate_whenValidTokenProvided() throws Exception {
         String header = "Bearer " + VALID_TOKEN;
+        Claims claims = Jwts.claims().subject(MOCK_USERNAME).build();
         when(request.getHeader("Authorization")).thenReturn(header);
-        when(tokenProvider.validateToken(VALID_TOKEN)).thenReturn(true);
-        when(tokenProvider.getUsernameFromToken(VALID_TOKEN)).thenReturn(MOCK_USERNAME);
-        when(customUserDetailsService.loadUserByUsername(MOCK_USERNAME)).thenReturn(mockUserDetails);
+        when(verificationCache.verify(VALID_TOKEN)).thenReturn(Optional.of(claims));
+        when(customUserDetailsService.loadPrincipal(MOCK_USERNAME)).thenReturn(mockUserDetails);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         UsernamePasswordAuthenticationToken authentication = (UsernamePasswordAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
         assertEquals(MOCK_USERNAME, ((UserDetails) authentication.getPrincipal()).getUsername());
+        assertEquals(1L, ((AuthenticatedUser) authentication.getPrincipal()).getId());
 
+        verify(verificationCache, times(1)).verify(VALID_TOKEN);
         verify(filterChain, times(1)).doFilter(request, response);
     }
 
@@ -71,15 +81,29 @@ class JwtAuthenticationFilterTest {
 
         String header = "Bearer " + VALID_TOKEN;
         when(request.getHeader("Authorization")).thenReturn(header);
-        when(tokenProvider.validateToken(VALID_TOKEN)).thenReturn(false); // Invalid token
+        when(verificationCache.verify(VALID_TOKEN)).thenReturn(Optional.empty()); // Invalid token
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
 
         verify(filterChain, times(1)).doFilter(request, response);
-        verify(tokenProvider, never()).getUsernameFromToken(anyString());
-        verify(customUserDetailsService, never()).loadUserByUsername(anyString());
+        verify(customUserDetailsService, never()).loadPrincipal(anyString());
+    }
+
+    @Test
+    void doFilterInternal_shouldRejectRequest_whenTokenRevoked() throws Exception {
+        String header = "Bearer " + VALID_TOKEN;
+        when(request.getHeader("Authorization")).thenReturn(header);
+        when(revocationService.isRevoked(VALID_TOKEN)).thenReturn(true);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(filterChain, never()).doFilter(request, response);
+        verify(verificationCache, never()).verify(anyString());
     }
 
     @Test
@@ -93,6 +117,29 @@ class JwtAuthenticationFilterTest {
 
 
         verify(filterChain, times(1)).doFilter(request, response);
-        verify(tokenProvider, never()).validateToken(anyString());
+        verify(verificationCache, never()).verify(anyString());
+    }
+
+    @Test
+    void doFilterInternal_shouldBuildPrincipalFromClaims_whenTokenCarriesUserId() throws Exception {
+        String header = "Bearer " + VALID_TOKEN;
+        Claims claims = Jwts.claims()
+                .subject(MOCK_USERNAME)
+                .add(JwtClaims.USER_ID, 42)
+                .add(JwtClaims.ROLES, List.of("ROLE_USER"))
+                .build();
+        when(request.getHeader("Authorization")).thenReturn(header);
+        when(verificationCache.verify(VALID_TOKEN)).thenReturn(Optional.of(claims));
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        assertEquals(42L, principal.getId());
+        assertEquals(MOCK_USERNAME, principal.getUsername());
+        assertEquals("ROLE_USER", principal.getAuthorities().iterator().next().getAuthority());
+
+        verify(customUserDetailsService, never()).loadPrincipal(anyString());
+        verify(filterChain, times(1)).doFilter(request, response);
     }
-}
\ No newline at end of file
+}
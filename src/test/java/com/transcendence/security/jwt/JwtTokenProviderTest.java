@@ -1,15 +1,19 @@
 package com.transcendence.security.jwt;
 
+import com.transcendence.security.details.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Collections;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -102,6 +106,37 @@ class JwtTokenProviderTest {
         assertThat(exception.getMessage()).contains("Unsupported principal type");
     }
 
+    // ====================================================================
+    // 4. Test generateToken - with AuthenticatedUser principal
+    // ====================================================================
+
+    @Test
+    void generateToken_withAuthenticatedUserPrincipal_shouldEmbedIdentityClaims() {
+        AuthenticatedUser user = new AuthenticatedUser(
+                7L, TEST_USERNAME, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                user, null, user.getAuthorities());
+
+        String token = jwtTokenProvider.generateToken(authentication);
+        Claims claims = jwtTokenProvider.parseClaims(token);
+
+        Optional<AuthenticatedUser> principal = JwtClaims.toPrincipal(claims);
+        assertThat(principal).isPresent();
+        assertThat(principal.get().getId()).isEqualTo(7L);
+        assertThat(principal.get().getUsername()).isEqualTo(TEST_USERNAME);
+        assertThat(principal.get().getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void generateToken_withStringPrincipal_shouldNotEmbedIdentityClaims() {
+        String token = jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(TEST_USERNAME, null));
+
+        assertThat(JwtClaims.toPrincipal(jwtTokenProvider.parseClaims(token))).isEmpty();
+    }
+
     // ====================================================================
     // 5. Test getUsernameFromToken
     // ====================================================================
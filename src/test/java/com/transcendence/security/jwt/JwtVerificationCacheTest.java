@@ -0,0 +1,113 @@
+package com.transcendence.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtVerificationCacheTest {
+
+    private static final String TEST_JWT_SECRET = "dGVzdFNlY3JldEtleUZvckpXVFRva2VuVGVzdGluZ1B1cnBvc2VzT25seVRoaXNJc0F0TGVhc3QyNTZCaXRz";
+    private static final long TEST_JWT_EXPIRATION = 3600000; // 1 hour
+    private static final String TEST_USERNAME = "testuser";
+
+    private JwtTokenProvider tokenProvider;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtVerificationCache cache;
+
+    @BeforeEach
+    void setup() {
+        tokenProvider = spy(new JwtTokenProvider());
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", TEST_JWT_SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", TEST_JWT_EXPIRATION);
+
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new JwtVerificationCache(tokenProvider, meterRegistry, 100);
+    }
+
+    private String newToken(String username) {
+        return tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(username, null));
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("jwt.verification.cache").tag("result", result).counter().count();
+    }
+
+    // ====================================================================
+    // 1. Test verify - hits and misses
+    // ====================================================================
+
+    @Test
+    void verify_withValidToken_shouldParseOnceAndServeRepeatsFromCache() {
+        String token = newToken(TEST_USERNAME);
+
+        Optional<Claims> first = cache.verify(token);
+        Optional<Claims> second = cache.verify(token);
+
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(second.get().getSubject()).isEqualTo(TEST_USERNAME);
+
+        verify(tokenProvider, times(1)).parseClaims(token);
+        assertThat(counter("miss")).isEqualTo(1.0);
+        assertThat(counter("hit")).isEqualTo(1.0);
+    }
+
+    @Test
+    void verify_withInvalidToken_shouldReturnEmptyAndNotCache() {
+        String invalidToken = "this.is.not.a.valid.jwt";
+
+        assertThat(cache.verify(invalidToken)).isEmpty();
+        assertThat(cache.verify(invalidToken)).isEmpty();
+
+        assertThat(cache.size()).isZero();
+        assertThat(counter("miss")).isEqualTo(2.0);
+    }
+
+    @Test
+    void verify_withBlankToken_shouldReturnEmptyWithoutParsing() {
+        assertThat(cache.verify("")).isEmpty();
+        assertThat(cache.verify(null)).isEmpty();
+
+        verify(tokenProvider, never()).parseClaims(anyString());
+    }
+
+    // ====================================================================
+    // 2. Test verify - expiry and bounds
+    // ====================================================================
+
+    @Test
+    void verify_whenCachedClaimsExpired_shouldRevalidateToken() {
+        String token = "expiring.token.value";
+        Claims expired = Jwts.claims()
+                .subject(TEST_USERNAME)
+                .expiration(new Date(System.currentTimeMillis() - 1000))
+                .build();
+        doReturn(expired).when(tokenProvider).parseClaims(token);
+
+        cache.verify(token);
+        cache.verify(token);
+
+        verify(tokenProvider, times(2)).parseClaims(token);
+        assertThat(counter("hit")).isZero();
+    }
+
+    @Test
+    void verify_whenCacheIsFull_shouldStayBounded() {
+        for (int i = 0; i < 250; i++) {
+            assertThat(cache.verify(newToken("user" + i))).isPresent();
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+}
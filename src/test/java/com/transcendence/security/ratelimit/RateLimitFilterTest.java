@@ -0,0 +1,81 @@
+package com.transcendence.security.ratelimit;
+
+import com.transcendence.security.details.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+    private FilterChain filterChain;
+
+    @BeforeEach
+    void setup() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("ratelimit.score.capacity", "1")
+                .withProperty("ratelimit.score.refill-per-second", "0.1");
+        filter = new RateLimitFilter(new RateLimiter(environment, new SimpleMeterRegistry()));
+        filterChain = mock(FilterChain.class);
+
+        AuthenticatedUser user = new AuthenticatedUser(1L, "alice", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse post(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, filterChain);
+        return response;
+    }
+
+    @Test
+    void doFilter_overLimit_shouldAnswer429WithRetryAfter() throws Exception {
+        assertThat(post("/api/pong/score").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = post("/api/arkanoid/score");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("10");
+        assertThat(rejected.getContentAsString()).contains("\"policy\":\"score\"");
+        verify(filterChain, times(1)).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_unlimitedPath_shouldPassThrough() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertThat(post("/api/users/me").getStatus()).isEqualTo(200);
+        }
+
+        verify(filterChain, times(5)).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_anonymous_shouldLeaveRejectionToSecurity() throws Exception {
+        SecurityContextHolder.clearContext();
+
+        post("/api/pong/score");
+        post("/api/pong/score");
+
+        verify(filterChain, times(2)).doFilter(any(), any());
+    }
+}
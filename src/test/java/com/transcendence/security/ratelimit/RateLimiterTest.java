@@ -0,0 +1,153 @@
+package com.transcendence.security.ratelimit;
+
+import com.transcendence.security.details.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimiter rateLimiter;
+    private RateLimiter.Policy chat;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("ratelimit.chat.capacity", "3")
+                .withProperty("ratelimit.chat.refill-per-second", "1");
+        rateLimiter = new RateLimiter(environment, meterRegistry);
+        chat = rateLimiter.policy(RateLimiter.CHAT);
+    }
+
+    // ====================================================================
+    // 1. Test token buckets
+    // ====================================================================
+
+    @Test
+    void tryAcquire_shouldAllowBurstThenReject() {
+        long now = 0;
+        for (int i = 0; i < 3; i++) {
+            assertThat(chat.tryAcquire(42L, now)).isZero();
+        }
+
+        assertThat(chat.tryAcquire(42L, now)).isEqualTo(SECOND);
+        assertThat(meterRegistry.get("ratelimit.requests").tag("policy", "chat").tag("outcome", "rejected")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void tryAcquire_shouldRefillOverTime() {
+        for (int i = 0; i < 3; i++) {
+            chat.tryAcquire(42L, 0);
+        }
+
+        assertThat(chat.tryAcquire(42L, SECOND / 2)).isPositive();
+        assertThat(chat.tryAcquire(42L, SECOND)).isZero();
+        assertThat(chat.tryAcquire(42L, SECOND)).isPositive();
+    }
+
+    @Test
+    void tryAcquire_shouldKeepUsersApart() {
+        for (int i = 0; i < 3; i++) {
+            chat.tryAcquire(1L, 0);
+        }
+
+        assertThat(chat.tryAcquire(1L, 0)).isPositive();
+        assertThat(chat.tryAcquire(2L, 0)).isZero();
+    }
+
+    @Test
+    void tryAcquire_concurrentCallers_shouldNeverExceedCapacity() throws Exception {
+        RateLimiter.Policy policy = new RateLimiter.Policy("burst", 100, 1e-3, meterRegistry);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(8);
+        try {
+            for (int t = 0; t < 8; t++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < 1000; i++) {
+                            if (policy.tryAcquire("alice", System.nanoTime()) == 0) {
+                                allowed.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            start.countDown();
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(allowed.get()).isEqualTo(100);
+    }
+
+    @Test
+    void evictIdle_shouldDropOnlyRefilledBuckets() {
+        chat.tryAcquire(1L, System.nanoTime() + 10 * SECOND);
+        chat.tryAcquire(2L, System.nanoTime() - 10 * SECOND);
+
+        rateLimiter.evictIdle();
+
+        assertThat(meterRegistry.get("ratelimit.buckets").tag("policy", "chat").gauge().value()).isEqualTo(1.0);
+    }
+
+    // ====================================================================
+    // 2. Test routing and user keys
+    // ====================================================================
+
+    @Test
+    void forRequest_shouldOnlyLimitConfiguredWrites() {
+        assertThat(rateLimiter.forRequest("POST", "/api/pong/score").name()).isEqualTo(RateLimiter.SCORE);
+        assertThat(rateLimiter.forRequest("POST", "/api/arkanoid/score").name()).isEqualTo(RateLimiter.SCORE);
+        assertThat(rateLimiter.forRequest("GET", "/api/pong/score")).isNull();
+        assertThat(rateLimiter.forDestination("/app/chat.sendMessage")).isSameAs(chat);
+        assertThat(rateLimiter.forDestination("/app/chat.addUser")).isNull();
+    }
+
+    @Test
+    void forRequest_whenDisabled_shouldLimitNothing() {
+        RateLimiter disabled = new RateLimiter(new MockEnvironment().withProperty("ratelimit.enabled", "false"),
+                new SimpleMeterRegistry());
+
+        assertThat(disabled.forRequest("POST", "/api/pong/score")).isNull();
+        assertThat(disabled.forDestination("/app/chat.sendMessage")).isNull();
+    }
+
+    @Test
+    void userKey_shouldPreferUserId() {
+        AuthenticatedUser user = new AuthenticatedUser(7L, "alice", null, List.of());
+        Principal stompPrincipal = () -> "bob";
+
+        assertThat(RateLimiter.userKey(new UsernamePasswordAuthenticationToken(user, null, List.of()))).isEqualTo(7L);
+        assertThat(RateLimiter.userKey(stompPrincipal)).isEqualTo("bob");
+        assertThat(RateLimiter.userKey(new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")))).isNull();
+        assertThat(RateLimiter.userKey(null)).isNull();
+    }
+}
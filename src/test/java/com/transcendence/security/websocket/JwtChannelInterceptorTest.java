@@ -0,0 +1,85 @@
+package com.transcendence.security.websocket;
+
+import com.transcendence.auth.TokenRevocationService;
+import com.transcendence.chat.dto.ChatMessageDTO;
+import com.transcendence.security.jwt.JwtVerificationCache;
+import com.transcendence.security.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JwtChannelInterceptorTest {
+
+    private static final String CHAT = "/app/chat.sendMessage";
+
+    private SimpMessagingTemplate messagingTemplate;
+    private JwtChannelInterceptor interceptor;
+
+    @BeforeEach
+    void setup() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("ratelimit.chat.capacity", "2")
+                .withProperty("ratelimit.chat.refill-per-second", "1");
+
+        interceptor = new JwtChannelInterceptor(mock(JwtVerificationCache.class), mock(TokenRevocationService.class),
+                new RateLimiter(environment, meterRegistry), messagingTemplate, meterRegistry);
+    }
+
+    private static Message<byte[]> send(String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setDestination(destination);
+        accessor.setSessionId("s1");
+        accessor.setUser(() -> "alice");
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    // ====================================================================
+    // 1. Test rate limits on SEND frames
+    // ====================================================================
+
+    @Test
+    void preSend_shouldPassMessagesWithinLimit() {
+        Message<byte[]> message = send(CHAT);
+
+        assertThat(interceptor.preSend(message, mock(MessageChannel.class))).isSameAs(message);
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void preSend_shouldDropMessageOverLimitAndNotifySender() {
+        interceptor.preSend(send(CHAT), mock(MessageChannel.class));
+        interceptor.preSend(send(CHAT), mock(MessageChannel.class));
+
+        Message<?> result = interceptor.preSend(send(CHAT), mock(MessageChannel.class));
+
+        assertThat(result).isNull();
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"), eq("/queue/errors"), captor.capture());
+        assertThat(((ChatMessageDTO) captor.getValue()).getType()).isEqualTo("RATE_LIMITED");
+    }
+
+    @Test
+    void preSend_shouldNotLimitOtherDestinations() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(interceptor.preSend(send("/app/chat.addUser"), mock(MessageChannel.class))).isNotNull();
+        }
+
+        verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any());
+    }
+}
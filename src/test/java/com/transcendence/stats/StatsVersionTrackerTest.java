@@ -0,0 +1,74 @@
+package com.transcendence.stats;
+
+import com.transcendence.entity.User;
+import com.transcendence.entity.UserStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatsVersionTrackerTest {
+
+    private StatsVersionTracker tracker;
+
+    @BeforeEach
+    void setup() {
+        tracker = new StatsVersionTracker(true);
+    }
+
+    private static UserStatsUpdatedEvent eventFor(Long userId) {
+        User user = new User("user" + userId, userId + "@example.com", "hash", null, "active");
+        user.setId(userId);
+        return new UserStatsUpdatedEvent(UserStats.builder().user(user).build());
+    }
+
+    // ====================================================================
+    // 1. Test version bumps
+    // ====================================================================
+
+    @Test
+    void onStatsUpdated_shouldBumpUserAndGlobalVersions() {
+        tracker.onStatsUpdated(eventFor(1L));
+        tracker.onStatsUpdated(eventFor(1L));
+        tracker.onStatsUpdated(eventFor(2L));
+
+        assertThat(tracker.userVersion(1L)).isEqualTo(2);
+        assertThat(tracker.userVersion(2L)).isEqualTo(1);
+        assertThat(tracker.userVersion(3L)).isZero();
+        assertThat(tracker.leaderboardVersion()).isEqualTo(3);
+    }
+
+    // ====================================================================
+    // 2. Test ETags
+    // ====================================================================
+
+    @Test
+    void userETag_shouldOnlyChangeForThatUser() {
+        String before1 = tracker.userETag(1L, "pong-history");
+        String before2 = tracker.userETag(2L, "pong-history");
+
+        tracker.onStatsUpdated(eventFor(1L));
+
+        assertThat(tracker.userETag(1L, "pong-history")).isNotEqualTo(before1);
+        assertThat(tracker.userETag(2L, "pong-history")).isEqualTo(before2);
+    }
+
+    @Test
+    void leaderboardETag_shouldBeStrongAndVariantSpecific() {
+        String all = tracker.leaderboardETag("all");
+
+        assertThat(all).startsWith("\"").endsWith("\"");
+        assertThat(tracker.leaderboardETag("top10")).isNotEqualTo(all);
+
+        tracker.onStatsUpdated(eventFor(1L));
+        assertThat(tracker.leaderboardETag("all")).isNotEqualTo(all);
+    }
+
+    @Test
+    void relayMode_shouldIssueNoETags() {
+        StatsVersionTracker relay = new StatsVersionTracker("relay");
+
+        assertThat(relay.leaderboardETag("all")).isNull();
+        assertThat(relay.userETag(1L, "pong-history")).isNull();
+    }
+}
@@ -9,6 +9,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Optional;
 
@@ -22,6 +23,9 @@ class UserStatsServiceTest {
     @Mock
     private UserStatsRepository userStatsRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserStatsService userStatsService;
 
@@ -94,6 +98,7 @@ class UserStatsServiceTest {
 
         assertThat(updatedStats.getTotalPlayTime()).isEqualTo(110);
         verify(userStatsRepository, times(1)).save(updatedStats);
+        verify(eventPublisher, times(1)).publishEvent(new UserStatsUpdatedEvent(updatedStats));
     }
 
     @Test
@@ -147,6 +152,7 @@ class UserStatsServiceTest {
         });
 
         verify(userStatsRepository, never()).save(any(UserStats.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -164,4 +170,29 @@ class UserStatsServiceTest {
         assertThat(statsLevel3.getXp()).isEqualTo(700);
         assertThat(statsLevel3.getLevel()).isEqualTo(3);
     }
-}
\ No newline at end of file
+
+    // ====================================================================
+    // 5. Test updateAfterGame - Rank
+    // ====================================================================
+
+    @Test
+    void updateAfterGame_withRank_shouldStoreRank() {
+        when(userStatsRepository.findByUserId(TEST_USER_ID)).thenReturn(Optional.of(initialStats));
+        when(userStatsRepository.save(any(UserStats.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserStats updatedStats = userStatsService.updateAfterGame(TEST_USER_ID, true, 1, 1, UserStats.Rank.Pro);
+
+        assertThat(updatedStats.getRank()).isEqualTo(UserStats.Rank.Pro);
+    }
+
+    @Test
+    void updateAfterGame_withoutRank_shouldKeepCurrentRank() {
+        initialStats.setRank(UserStats.Rank.Expert);
+        when(userStatsRepository.findByUserId(TEST_USER_ID)).thenReturn(Optional.of(initialStats));
+        when(userStatsRepository.save(any(UserStats.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserStats updatedStats = userStatsService.updateAfterGame(TEST_USER_ID, false, 1, 1);
+
+        assertThat(updatedStats.getRank()).isEqualTo(UserStats.Rank.Expert);
+    }
+}
@@ -1,5 +1,6 @@
 package com.transcendence.user;
 
+import com.transcendence.auth.TokenRevocationService;
 import com.transcendence.entity.User;
 import com.transcendence.entity.UserStats;
 import com.transcendence.security.details.CustomUserDetailsService;
@@ -12,6 +13,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import com.transcendence.security.jwt.JwtTokenProvider;
+import com.transcendence.security.jwt.JwtVerificationCache;
 
 import java.util.Optional;
 
@@ -40,6 +42,12 @@ class UserControllerTest {
     @MockBean
     private CustomUserDetailsService customUserDetailsService;
 
+    @MockBean
+    private JwtVerificationCache jwtVerificationCache;
+
+    @MockBean
+    private TokenRevocationService revocationService;
+
     // --- Test Data Setup ---
     private static final Long TEST_USER_ID = 1L;
     private static final String TEST_USERNAME = "test_user";
@@ -0,0 +1,197 @@
+package com.transcendence.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboundBackpressureTest {
+
+    // Room for a few small frames; the overflow tests fill it with one padded frame
+    private static final int BUFFER_LIMIT = 256;
+
+    private SimpleMeterRegistry meterRegistry;
+    private List<Runnable> scheduledDrains;
+    private OutboundBackpressure backpressure;
+    private WebSocketSession delegate;
+    private BackpressureSession session;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Drains are held back so each test decides when the client catches up
+        scheduledDrains = new ArrayList<>();
+        backpressure = new OutboundBackpressure(meterRegistry, scheduledDrains::add, BUFFER_LIMIT, 10_000,
+                "disconnect", "/user/queue/users=conflate, /topic/users=drop");
+        delegate = mock(WebSocketSession.class);
+        when(delegate.getId()).thenReturn("s1");
+        session = new BackpressureSession(delegate, backpressure);
+    }
+
+    private void drain() {
+        List<Runnable> due = new ArrayList<>(scheduledDrains);
+        scheduledDrains.clear();
+        due.forEach(Runnable::run);
+    }
+
+    private static TextMessage frame(String destination, String body) {
+        return new TextMessage("MESSAGE\ndestination:" + destination + "\nsubscription:sub-0\n\n" + body + "\0");
+    }
+
+    private static String padding(int length) {
+        return "x".repeat(length);
+    }
+
+    private double evictions(String strategy) {
+        return meterRegistry.get("websocket.outbound.evictions").tag("strategy", strategy).counter().count();
+    }
+
+    // ====================================================================
+    // 1. Test buffering and draining
+    // ====================================================================
+
+    @Test
+    void sendMessage_shouldQueueUntilDrainedInOrder() throws Exception {
+        TextMessage first = frame("/topic/public", "a");
+        TextMessage second = frame("/topic/public", "b");
+
+        session.sendMessage(first);
+        session.sendMessage(second);
+
+        verify(delegate, never()).sendMessage(any());
+        assertThat(scheduledDrains).hasSize(1);
+        assertThat(backpressure.bufferedBytes()).isEqualTo(first.getPayloadLength() + second.getPayloadLength());
+
+        drain();
+
+        var inOrder = inOrder(delegate);
+        inOrder.verify(delegate).sendMessage(first);
+        inOrder.verify(delegate).sendMessage(second);
+        assertThat(backpressure.bufferedBytes()).isZero();
+    }
+
+    @Test
+    void destinationOf_shouldReadStompHeaders() {
+        assertThat(BackpressureSession.destinationOf(frame("/topic/users", "{}"))).isEqualTo("/topic/users");
+        assertThat(BackpressureSession.destinationOf(new TextMessage("CONNECTED\nversion:1.2\n\n\0"))).isNull();
+        assertThat(BackpressureSession.destinationOf(new TextMessage("\n"))).isNull();
+    }
+
+    // ====================================================================
+    // 2. Test overflow strategies
+    // ====================================================================
+
+    @Test
+    void drop_shouldDiscardFramesOnceBufferIsFull() throws Exception {
+        session.sendMessage(frame("/topic/users", padding(BUFFER_LIMIT)));
+        session.sendMessage(frame("/topic/users", "late"));
+        drain();
+
+        verify(delegate, times(1)).sendMessage(any());
+        assertThat(evictions("drop")).isEqualTo(1.0);
+    }
+
+    @Test
+    void conflate_shouldKeepOnlyLatestQueuedFrame() throws Exception {
+        session.sendMessage(frame("/user/queue/users", "v1"));
+        session.sendMessage(frame("/user/queue/users", "v2"));
+        TextMessage latest = frame("/user/queue/users", "v3");
+        session.sendMessage(latest);
+        drain();
+
+        verify(delegate, times(1)).sendMessage(any());
+        verify(delegate).sendMessage(latest);
+        assertThat(evictions("conflate")).isEqualTo(2.0);
+        assertThat(backpressure.bufferedBytes()).isZero();
+    }
+
+    @Test
+    void disconnect_shouldCloseSessionAndReleaseBuffer() throws Exception {
+        session.sendMessage(frame("/topic/public", padding(BUFFER_LIMIT)));
+        session.sendMessage(frame("/topic/public", "late"));
+
+        verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(evictions("disconnect")).isEqualTo(1.0);
+        assertThat(backpressure.bufferedBytes()).isZero();
+
+        drain();
+        verify(delegate, never()).sendMessage(any());
+    }
+
+    @Test
+    void controlFrames_shouldNeverBeDropped() throws Exception {
+        session.sendMessage(frame("/topic/users", padding(BUFFER_LIMIT)));
+        WebSocketMessage<?> heartbeat = new TextMessage("\n");
+        session.sendMessage(heartbeat);
+        drain();
+
+        verify(delegate).sendMessage(heartbeat);
+        verify(delegate, never()).close(any());
+    }
+
+    @Test
+    void invalidRule_shouldFailAtStartup() {
+        assertThatThrownBy(() -> new OutboundBackpressure(meterRegistry, Runnable::run, BUFFER_LIMIT, 10_000,
+                "disconnect", "/topic/users"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // ====================================================================
+    // 3. Test slow clients cannot hold threads
+    // ====================================================================
+
+    @Test
+    void closeStalledSessions_shouldCloseSessionWhoseSendRunsPastLimit() throws Exception {
+        OutboundBackpressure strict = new OutboundBackpressure(meterRegistry, Runnable::run, BUFFER_LIMIT, 1,
+                "disconnect", "");
+        BackpressureSession slow = new BackpressureSession(delegate, strict);
+        strict.register(slow);
+        // The client stops reading; the watchdog runs while the write is still blocked
+        doAnswer(invocation -> {
+            Thread.sleep(20);
+            strict.closeStalledSessions();
+            return null;
+        }).when(delegate).sendMessage(any());
+
+        slow.sendMessage(frame("/topic/public", "a"));
+
+        verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(evictions("disconnect")).isEqualTo(1.0);
+    }
+
+    @Test
+    void closeStalledSessions_shouldLeaveIdleSessionsOpen() throws Exception {
+        backpressure.register(session);
+        session.sendMessage(frame("/topic/public", "a"));
+        drain();
+
+        backpressure.closeStalledSessions();
+
+        verify(delegate, never()).close(any());
+    }
+
+    @Test
+    void sendMessage_whenNoOutboundThreadIsFree_shouldCloseInsteadOfSendingInline() throws Exception {
+        OutboundBackpressure saturated = new OutboundBackpressure(meterRegistry,
+                task -> { throw new RejectedExecutionException("full"); }, BUFFER_LIMIT, 10_000, "disconnect", "");
+        BackpressureSession rejected = new BackpressureSession(delegate, saturated);
+
+        rejected.sendMessage(frame("/topic/public", "a"));
+
+        verify(delegate, never()).sendMessage(any());
+        verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(saturated.bufferedBytes()).isZero();
+    }
+}
@@ -0,0 +1,118 @@
+package com.transcendence.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class StompMetricsInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StompTraceSettings traceSettings;
+    private StompMetricsInterceptor interceptor;
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        traceSettings = new StompTraceSettings(0);
+        interceptor = new StompMetricsInterceptor(meterRegistry, traceSettings);
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String sessionId, String username, String body) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(sessionId);
+        if (username != null) {
+            Principal user = () -> username;
+            accessor.setUser(user);
+        }
+        return MessageBuilder.createMessage(body.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+
+    private double frames(String command) {
+        return meterRegistry.get("stomp.frames").tag("command", command).counter().count();
+    }
+
+    // ====================================================================
+    // 1. Test frame counts and sizes
+    // ====================================================================
+
+    @Test
+    void preSend_shouldCountFramesByCommandAndRecordPayloadSize() {
+        interceptor.preSend(frame(StompCommand.CONNECT, "s1", null, ""), channel);
+        interceptor.preSend(frame(StompCommand.SEND, "s1", "alice", "hello"), channel);
+        interceptor.preSend(frame(StompCommand.SEND, "s1", "alice", "hi"), channel);
+
+        assertThat(frames("CONNECT")).isEqualTo(1.0);
+        assertThat(frames("SEND")).isEqualTo(2.0);
+        assertThat(meterRegistry.get("stomp.frames.payload").tag("command", "SEND").summary().totalAmount())
+                .isEqualTo(7.0);
+    }
+
+    @Test
+    void preSend_shouldReturnMessageUnchanged() {
+        Message<byte[]> message = frame(StompCommand.SEND, "s1", "alice", "hello");
+
+        assertThat(interceptor.preSend(message, channel)).isSameAs(message);
+    }
+
+    // ====================================================================
+    // 2. Test per-session activity
+    // ====================================================================
+
+    @Test
+    void busiestSessions_shouldRankOpenSessionsByFrames() {
+        interceptor.preSend(frame(StompCommand.SEND, "quiet", "bob", "x"), channel);
+        for (int i = 0; i < 3; i++) {
+            interceptor.preSend(frame(StompCommand.SEND, "busy", "alice", "x"), channel);
+        }
+
+        assertThat(interceptor.busiestSessions(10))
+                .extracting(StompMetricsInterceptor.SessionSummary::sessionId)
+                .containsExactly("busy", "quiet");
+        assertThat(interceptor.busiestSessions(1).get(0).username()).isEqualTo("alice");
+    }
+
+    @Test
+    void disconnect_shouldRecordSessionTotalsAndForgetSession() {
+        interceptor.preSend(frame(StompCommand.CONNECT, "s1", null, ""), channel);
+        interceptor.preSend(frame(StompCommand.SEND, "s1", "alice", "hello"), channel);
+        interceptor.preSend(frame(StompCommand.DISCONNECT, "s1", "alice", ""), channel);
+
+        assertThat(interceptor.openSessions()).isZero();
+        assertThat(meterRegistry.get("stomp.session.frames").summary().totalAmount()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("stomp.session.rate").summary().count()).isEqualTo(1);
+    }
+
+    // ====================================================================
+    // 3. Test trace switches
+    // ====================================================================
+
+    @Test
+    void shouldTrace_shouldFollowRuntimeSwitches() {
+        assertThat(traceSettings.shouldTrace("s1", "alice")).isFalse();
+
+        traceSettings.traceUser("alice");
+        traceSettings.traceSession("s2");
+
+        assertThat(traceSettings.shouldTrace("s1", "alice")).isTrue();
+        assertThat(traceSettings.shouldTrace("s2", "bob")).isTrue();
+        assertThat(traceSettings.shouldTrace("s3", "bob")).isFalse();
+
+        traceSettings.setSampleRate(1.0);
+        assertThat(traceSettings.shouldTrace("s3", "bob")).isTrue();
+
+        traceSettings.clear();
+        assertThat(traceSettings.shouldTrace("s1", "alice")).isFalse();
+    }
+}
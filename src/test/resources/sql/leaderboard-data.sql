@@ -0,0 +1,17 @@
+DELETE FROM user_stats;
+DELETE FROM users;
+
+INSERT INTO users (id, username, email, password_hash) VALUES
+    (1, 'alpha', 'a@example.com', 'hash'),
+    (2, 'beta', 'b@example.com', 'hash'),
+    (3, 'gamma', 'c@example.com', 'hash'),
+    (4, 'delta', 'd@example.com', 'hash'),
+    (5, 'epsilon', 'e@example.com', 'hash');
+
+-- beta and gamma tie on xp and level, so user id decides their order
+INSERT INTO user_stats (user_id, total_games, wins, losses, best_streak, rank, level, xp) VALUES
+    (1, 4, 3, 1, 2, 'Pro', 5, 900),
+    (2, 2, 1, 1, 1, 'Novice', 3, 400),
+    (3, 3, 1, 2, 1, 'Novice', 3, 400),
+    (4, 1, 0, 1, 0, 'Novice', 2, 150),
+    (5, 0, 0, 0, 0, 'Novice', 1, 0);
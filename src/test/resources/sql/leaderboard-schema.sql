@@ -0,0 +1,31 @@
+DROP TABLE IF EXISTS user_stats;
+DROP TABLE IF EXISTS users;
+
+CREATE TABLE users (
+    id INTEGER NOT NULL PRIMARY KEY AUTOINCREMENT,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    avatar_url VARCHAR(255) NULL,
+    status TEXT DEFAULT 'offline',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE user_stats (
+    id INTEGER NOT NULL PRIMARY KEY AUTOINCREMENT,
+    user_id INTEGER NOT NULL UNIQUE REFERENCES users(id) ON DELETE CASCADE,
+    total_games INTEGER DEFAULT 0,
+    wins INTEGER DEFAULT 0,
+    losses INTEGER DEFAULT 0,
+    win_streak INTEGER DEFAULT 0,
+    best_streak INTEGER DEFAULT 0,
+    total_play_time INTEGER DEFAULT 0,
+    rank TEXT DEFAULT 'Novice',
+    level INTEGER DEFAULT 1,
+    xp INTEGER DEFAULT 0,
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_stats_leaderboard ON user_stats (xp DESC, level DESC, user_id);